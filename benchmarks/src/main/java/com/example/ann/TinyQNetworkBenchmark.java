@@ -0,0 +1,65 @@
+package com.example.ann;
+
+import com.example.sarsa.model.State;
+import com.example.sarsa.strategy.StrategyBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for the two network calls made on every SARSA step:
+ *   epsilonGreedyMasked (forward + masked argmax)
+ *   sarsaUpdate         (two forwards + semi-gradient backprop)
+ *
+ * Sized like SarsaRestTester: 14 inputs, 16 hidden, 32 actions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class TinyQNetworkBenchmark {
+
+    private static final int SEED = 1234;
+    private static final int HIDDEN = 16;
+
+    // false = ID-dependent actions masked out, as at the start of an episode
+    @Param({"true", "false"})
+    public boolean hasIds;
+
+    private TinyQNetwork ann;
+    private Random rng;
+    private double[] s;
+    private double[] sNext;
+    private boolean[] mask;
+
+    @Setup
+    public void setup() {
+        ann = new TinyQNetwork(State.FEATURE_COUNT, HIDDEN, StrategyBuilder.getActionCount(), SEED);
+        rng = new Random(SEED);
+
+        s = new double[State.FEATURE_COUNT];
+        sNext = new double[State.FEATURE_COUNT];
+        for (int d = 0; d < State.FEATURE_COUNT; d++) {
+            s[d] = rng.nextDouble();
+            sNext[d] = rng.nextDouble();
+        }
+
+        mask = new boolean[StrategyBuilder.getActionCount()];
+        for (int a = 0; a < mask.length; a++) {
+            mask[a] = hasIds || !StrategyBuilder.actionRequiresId(a);
+        }
+    }
+
+    @Benchmark
+    public int epsilonGreedyMasked() {
+        return ann.epsilonGreedyMasked(s, 0.01, mask, rng);
+    }
+
+    @Benchmark
+    public double sarsaUpdate() {
+        return ann.sarsaUpdate(s, 3, 0.0, sNext, 7, false, 0.01, 1.0);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test against a running target: N concurrent agents, each
+ * sending the next request as soon as the previous one completes.
+ *
+ * Request mix per agent follows the agent's: POST, GET, GET_ALL (limit=1),
+ * PATCH, DELETE (the intentional 500), round robin. Reports throughput and
+ * p50/p99 per concurrency level. Each level starts from the same store: the
+ * items are cleared and one is created per agent, so neither earlier levels
+ * nor earlier runs leave a larger store behind. Within a level the store still
+ * grows by every fifth request, since DELETE never removes anything.
+ * Run it once per server mode and compare:
+ *
+ *   java -jar target/simple-rest-api-1.0.0.jar --spring.threads.virtual.enabled=true   (JDK 21+)
+ *   java -Dlabel=virtual -cp benchmarks/target/benchmarks.jar com.example.api.TargetLoadTest
+ *
+ * With protocol=http1 every agent holds its own keep-alive connection. With
+ * protocol=h2c (target started with --server.http2.enabled=true) agents share
+ * ceil(N / streams) HTTP/2 connections, one stream each; keep streams within
+ * the target's http2.max-concurrent-streams.
+ *
+ * Properties: url (http://localhost:8080/api/), levels (16,256,4096), seconds (10),
+ * warmup (3), protocol (http1), streams (1000), label (default), csv (append results to this file).
+ */
+public class TargetLoadTest {
+
+    private static final int MAX_SAMPLES = 20_000_000;
+
+    private final String url;
+    private final boolean h2c;
+    private final int streams;
+    private final ObjectMapper json = new ObjectMapper();
+    private HttpClient[] clients;
+    private long[] itemIds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean measuring = new AtomicBoolean();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicInteger samples = new AtomicInteger();
+    private final long[] latencies = new long[MAX_SAMPLES];
+
+    TargetLoadTest(String url, boolean h2c, int streams) {
+        this.url = url;
+        this.h2c = h2c;
+        this.streams = streams;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("url", "http://localhost:8080/api/");
+        int[] levels = Arrays.stream(System.getProperty("levels", "16,256,4096").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        int seconds = Integer.getInteger("seconds", 10);
+        int warmup = Integer.getInteger("warmup", 3);
+        String protocol = System.getProperty("protocol", "http1");
+        int streams = Integer.getInteger("streams", 1000);
+        String label = System.getProperty("label", "default");
+        String csv = System.getProperty("csv");
+
+        TargetLoadTest test = new TargetLoadTest(url, "h2c".equals(protocol), streams);
+        System.out.printf("%-10s %-8s %8s %8s %12s %12s %10s %10s %8s%n",
+                "label", "protocol", "agents", "conns", "requests", "req/s", "p50 ms", "p99 ms", "errors");
+        for (int agents : levels) {
+            Result r = test.run(agents, warmup, seconds);
+            System.out.printf("%-10s %-8s %8d %8d %12d %12.0f %10.2f %10.2f %8d%n",
+                    label, protocol, agents, r.connections, r.requests, r.throughput, r.p50 / 1e6, r.p99 / 1e6, r.errors);
+            if (csv != null) {
+                appendCsv(Path.of(csv), label, protocol, agents, r);
+            }
+        }
+    }
+
+    private record Result(int connections, long requests, double throughput, long p50, long p99, long errors) {
+    }
+
+    Result run(int agents, int warmupSeconds, int seconds) throws IOException, InterruptedException {
+        seed(agents);
+        errors.set(0);
+        samples.set(0);
+        measuring.set(false);
+        running.set(true);
+        int connections = connect(agents);
+
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[agents];
+        for (int c = 0; c < agents; c++) {
+            loops[c] = new CompletableFuture<Void>();
+            loop(c, 0, (CompletableFuture<Void>) loops[c]);
+        }
+        Thread.sleep(warmupSeconds * 1000L);
+        samples.set(0);
+        errors.set(0);
+        measuring.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        measuring.set(false);
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        CompletableFuture.allOf(loops).join();
+
+        int n = Math.min(samples.get(), MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        return new Result(connections, n, n / (elapsed / 1e9), percentile(sorted, 50), percentile(sorted, 99), errors.get());
+    }
+
+    /**
+     * Clears the items and creates the one each agent reads and patches, before
+     * the level's connections open.
+     */
+    private void seed(int agents) throws IOException, InterruptedException {
+        HttpClient client = client(HttpClient.Version.HTTP_1_1);
+        HttpResponse<Void> cleared = client.send(HttpRequest.newBuilder(URI.create(url + "items")).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (cleared.statusCode() != 204) {
+            throw new IOException("DELETE " + url + "items answered " + cleared.statusCode());
+        }
+        itemIds = new long[agents];
+        for (int i = 0; i < agents; i++) {
+            HttpResponse<byte[]> created = client.send(create(HttpRequest.newBuilder()), HttpResponse.BodyHandlers.ofByteArray());
+            if (created.statusCode() != 201) {
+                throw new IOException("POST " + url + "items answered " + created.statusCode());
+            }
+            itemIds[i] = json.readTree(created.body()).get("id").asLong();
+        }
+    }
+
+    /**
+     * Fresh clients per level so no connections carry over. HTTP/1.1: one client,
+     * whose pool opens a connection per agent in flight. h2c: one client per
+     * connection (a client keeps one per origin), each upgraded by a GET before
+     * the agents start, so they do not race to open connections of their own.
+     */
+    private int connect(int agents) {
+        if (!h2c) {
+            clients = new HttpClient[]{client(HttpClient.Version.HTTP_1_1)};
+            return agents;
+        }
+        clients = new HttpClient[(agents + streams - 1) / streams];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = client(HttpClient.Version.HTTP_2);
+            clients[i].sendAsync(HttpRequest.newBuilder(URI.create(url + "items?limit=1")).build(),
+                    HttpResponse.BodyHandlers.discarding()).join();
+        }
+        return clients.length;
+    }
+
+    private static HttpClient client(HttpClient.Version version) {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * One agent's request chain: each completion sends the next request,
+     * until the run stops and done completes.
+     */
+    private void loop(int agent, long step, CompletableFuture<Void> done) {
+        if (!running.get()) {
+            done.complete(null);
+            return;
+        }
+        long start = System.nanoTime();
+        clients[agent % clients.length].sendAsync(request(agent, step), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (measuring.get()) {
+                        if (failure != null) {
+                            errors.incrementAndGet();
+                        } else {
+                            int i = samples.getAndIncrement();
+                            if (i < MAX_SAMPLES) latencies[i] = System.nanoTime() - start;
+                        }
+                    }
+                    loop(agent, step + 1, done);
+                });
+    }
+
+    /**
+     * Every agent reads and patches the item seeded for it; its POSTs create
+     * new items that nothing reads.
+     */
+    private HttpRequest request(int agent, long step) {
+        String item = url + "items/" + itemIds[agent];
+        HttpRequest.Builder b = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+        return switch ((int) (step % 5)) {
+            case 0 -> create(b);
+            case 1 -> b.uri(URI.create(item)).GET().build();
+            case 2 -> b.uri(URI.create(url + "items?limit=1")).GET().build();
+            case 3 -> b.uri(URI.create(item)).header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":2}")).build();
+            default -> b.uri(URI.create(item)).DELETE().build();
+        };
+    }
+
+    private HttpRequest create(HttpRequest.Builder b) {
+        return b.uri(URI.create(url + "items")).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"load\",\"quantity\":1}")).build();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p / 100 * sorted.length) - 1)];
+    }
+
+    private static void appendCsv(Path path, String label, String protocol, int agents, Result r) throws IOException {
+        boolean header = !Files.exists(path);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) out.println("label,protocol,agents,connections,requests,throughput,p50_ns,p99_ns,errors");
+            out.printf("%s,%s,%d,%d,%d,%.1f,%d,%d,%d%n",
+                    label, protocol, agents, r.connections, r.requests, r.throughput, r.p50, r.p99, r.errors);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.sarsa;
+
+import com.example.sarsa.model.State;
+import com.example.sarsa.strategy.Action;
+import com.example.sarsa.strategy.StrategyBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for SarsaRestTester.getValidMask, built twice per SARSA step.
+ * Lives in the tester's package to reach the package-private helper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class SarsaRestTesterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean hasIds;
+
+    private SarsaRestTester tester;
+    private State state;
+    private StrategyBuilder strategy;
+
+    @Setup
+    public void setup() {
+        tester = new SarsaRestTester();
+        int flag = hasIds ? 1 : 0;
+        state = new State(flag, flag, flag, flag, flag, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        strategy = new StrategyBuilder();
+        strategy.applyAction(Action.EXPLORE_POST.ordinal(), state);  // EXECUTE becomes valid
+    }
+
+    @Benchmark
+    public boolean[] getValidMask() {
+        return tester.getValidMask(state, strategy);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.sarsa.generator;
+
+import com.example.sarsa.strategy.Endpoint;
+import com.example.sarsa.strategy.Field;
+import com.example.sarsa.strategy.Intensity;
+import com.example.sarsa.strategy.Strategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for PayloadGenerator.generate across every endpoint,
+ * strategy and intensity (enum params default to all constants).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PayloadGeneratorBenchmark {
+
+    @Param
+    public Endpoint endpoint;
+
+    @Param
+    public Strategy strategy;
+
+    @Param
+    public Intensity intensity;
+
+    private PayloadGenerator pbt;
+
+    @Setup
+    public void setup() {
+        pbt = new PayloadGenerator(1234);
+        pbt.setLastItemId(1L);
+        pbt.setLastPriceId(1L);
+        pbt.setLastDiscountId(1L);
+    }
+
+    @Benchmark
+    public String generate() {
+        return pbt.generate(endpoint, Field.ALL, strategy, intensity);
+    }
+}
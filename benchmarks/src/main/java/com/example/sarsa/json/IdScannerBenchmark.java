@@ -0,0 +1,48 @@
+package com.example.sarsa.json;
+
+import io.restassured.path.json.JsonPath;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for first-id extraction from a GET_ALL body of growing size:
+ * the streaming IdScanner against the JsonPath lookup it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IdScannerBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int elements;
+
+    private byte[] body;
+    private String text;
+
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= elements; i++) {
+            if (i > 1) json.append(',');
+            json.append("{\"id\":").append(i)
+                .append(",\"name\":\"item\",\"description\":null,\"quantity\":").append(i % 100).append('}');
+        }
+        text = json.append(']').toString();
+        body = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String idScanner() {
+        return IdScanner.firstElementId(body);
+    }
+
+    @Benchmark
+    public String jsonPath() {
+        return new JsonPath(text).getString("[0].id");
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.sarsa.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for State.scale(), called three times per SARSA step
+ * (action selection plus both sides of the update).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class StateBenchmark {
+
+    private State state;
+
+    @Setup
+    public void setup() {
+        state = new State(1, 1, 0, 0, 1, 201, 1, 3, 1, 4, 3, 2, 5, 1);
+    }
+
+    @Benchmark
+    public double[] scale() {
+        return state.scale();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.api;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Stream limits for h2c on Tomcat. Its defaults (100 open streams, 20 running
+ * per connection) are sized for browsers; a client multiplexing thousands of
+ * agents over a few connections gets its excess streams refused. Only applies
+ * with server.http2.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty("server.http2.enabled")
+public class Http2Config {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2StreamLimits(
+            @Value("${http2.max-concurrent-streams:1024}") long maxStreams,
+            @Value("${http2.max-concurrent-stream-execution:200}") int maxExecution) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxStreams);
+                    http2.setMaxConcurrentStreamExecution(maxExecution);
+                }
+            }
+        });
+    }
+}
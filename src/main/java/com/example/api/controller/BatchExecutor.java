@@ -0,0 +1,187 @@
+package com.example.api.controller;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.NumberUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Runs the operations of a _batch request one after another against the
+ * controller's own handler methods, so each gets exactly the status its single
+ * request would: unparsable ids, params and bodies are 400 (as Spring's argument
+ * binding would answer), a method the path doesn't map (POST with an id, PUT or
+ * PATCH without one) is 405, and anything the handler throws is 500. HEAD and
+ * OPTIONS are answered as Spring answers them where no handler declares them:
+ * HEAD as GET without the body, OPTIONS with 200 and an Allow header. Headers
+ * are not identical: GETs are untagged and Allow lists methods in a fixed order.
+ * A failing operation does not stop the ones after it.
+ * Each operation runs for its own tenant if it names one, else the request's.
+ * The reactive handlers bind and fail operations through the same methods.
+ */
+@Component
+public class BatchExecutor {
+
+    private static final BatchResult BAD_REQUEST = new BatchResult(HttpStatus.BAD_REQUEST.value(), null, null);
+    private static final BatchResult SERVER_ERROR = new BatchResult(HttpStatus.INTERNAL_SERVER_ERROR.value(), null, null);
+    private static final BatchResult METHOD_NOT_ALLOWED = new BatchResult(HttpStatus.METHOD_NOT_ALLOWED.value(), null, null);
+    private static final String ALLOW_COLLECTION = "GET,HEAD,POST,DELETE,OPTIONS";
+    private static final String ALLOW_ENTITY = "GET,HEAD,PUT,PATCH,DELETE,OPTIONS";
+
+    private final ObjectMapper objectMapper;
+
+    public BatchExecutor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    List<BatchResult> execute(List<BatchOperation> operations, String tenant,
+                              BiFunction<BatchOperation, String, ResponseEntity<?>> handler) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        for (BatchOperation operation : operations) {
+            results.add(execute(operation, tenant, handler));
+        }
+        return results;
+    }
+
+    private static BatchResult execute(BatchOperation operation, String tenant,
+                                       BiFunction<BatchOperation, String, ResponseEntity<?>> handler) {
+        return execute(operation, tenant, handler.andThen(response -> result(operation, result(response))),
+                Function.identity());
+    }
+
+    /**
+     * One operation, for handlers that answer with something other than a
+     * ResponseEntity (e.g. a Mono): the handler's answer, or failed applied to
+     * the result of an operation that is malformed or throws.
+     */
+    public static <R> R execute(BatchOperation operation, String tenant,
+                                BiFunction<BatchOperation, String, R> handler, Function<BatchResult, R> failed) {
+        if (operation == null || operation.getMethod() == null) {
+            return failed.apply(BAD_REQUEST);
+        }
+        if (!isMapped(operation)) {
+            return failed.apply(METHOD_NOT_ALLOWED);
+        }
+        try {
+            return handler.apply(operation, operation.getTenant() != null ? operation.getTenant() : tenant);
+        } catch (RuntimeException e) {
+            return failed.apply(failure(e));
+        }
+    }
+
+    /**
+     * 400 if the operation's id, params or body did not bind, else 500.
+     */
+    public static BatchResult failure(Throwable e) {
+        return e instanceof InvalidOperationException ? BAD_REQUEST : SERVER_ERROR;
+    }
+
+    /**
+     * The handler's result as the single request would see it: without a body for HEAD.
+     */
+    public static BatchResult result(BatchOperation operation, BatchResult result) {
+        return "HEAD".equals(operation.getMethod()) && result.body() != null
+                ? new BatchResult(result.status(), result.headers(), null)
+                : result;
+    }
+
+    private static boolean isMapped(BatchOperation operation) {
+        return switch (operation.getMethod()) {
+            case "POST" -> operation.getId() == null;
+            case "PUT", "PATCH" -> operation.getId() != null;
+            default -> true;
+        };
+    }
+
+    private static BatchResult result(ResponseEntity<?> response) {
+        Map<String, String> headers = response.getHeaders().isEmpty() ? null : response.getHeaders().toSingleValueMap();
+        return new BatchResult(response.getStatusCode().value(), headers, response.getBody());
+    }
+
+    static ResponseEntity<Void> methodNotAllowed() {
+        return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED).build();
+    }
+
+    static ResponseEntity<Void> options(BatchOperation operation) {
+        return ResponseEntity.ok().header(HttpHeaders.ALLOW, allow(operation.getId())).build();
+    }
+
+    /**
+     * The methods mapped on /api/{resource}, or on /api/{resource}/{id} if id is set.
+     */
+    public static String allow(Object id) {
+        return id == null ? ALLOW_COLLECTION : ALLOW_ENTITY;
+    }
+
+    // ==================== Argument binding, as for a single request ====================
+
+    public static Long id(BatchOperation operation) {
+        return number(operation.getId(), Long.class);
+    }
+
+    public static Integer limit(BatchOperation operation) {
+        return operation.getLimit() == null ? null : number(operation.getLimit(), Integer.class);
+    }
+
+    public static Long cursor(BatchOperation operation) {
+        return operation.getCursor() == null ? null : number(operation.getCursor(), Long.class);
+    }
+
+    public <T> T body(BatchOperation operation, Class<T> type) {
+        return read(operation, TypeFactory.defaultInstance().constructType(type));
+    }
+
+    public Map<String, Object> updates(BatchOperation operation) {
+        return read(operation, TypeFactory.defaultInstance().constructMapType(Map.class, String.class, Object.class));
+    }
+
+    private <T> T read(BatchOperation operation, JavaType type) {
+        JsonNode body = operation.getBody();
+        T value;
+        try {
+            if (body == null || body.isNull()) {
+                value = null;
+            } else if (body.isTextual()) {
+                value = objectMapper.readValue(body.textValue(), type);
+            } else {
+                value = objectMapper.treeToValue(body, type);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidOperationException();
+        }
+        if (value == null) {
+            throw new InvalidOperationException();  // required request body is missing
+        }
+        return value;
+    }
+
+    private static <N extends Number> N number(String text, Class<N> type) {
+        if (text == null) {
+            throw new InvalidOperationException();
+        }
+        try {
+            return NumberUtils.parseNumber(text, type);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidOperationException();
+        }
+    }
+
+    private static final class InvalidOperationException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        InvalidOperationException() {
+            super(null, null, false, false);
+        }
+    }
+}
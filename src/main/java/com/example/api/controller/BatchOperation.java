@@ -0,0 +1,44 @@
+package com.example.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One element of a POST /api/{resource}/_batch request. Fields map onto the
+ * single-request form:
+ *
+ *   {"method":"GET","limit":"1"}                   GET    /api/items?limit=1
+ *   {"method":"PUT","id":"7","body":"{...}"}      PUT    /api/items/7
+ *   {"method":"DELETE"}                            DELETE /api/items
+ *   {"method":"GET","id":"7","tenant":"a"}         GET    /api/items/7, X-Tenant: a
+ *
+ * id, limit and cursor are kept as text and body may be a JSON string holding
+ * the raw request body, so values that would not parse in a URL or request
+ * body still reach the operation and fail there, with the same status.
+ */
+public class BatchOperation {
+
+    private String method;
+    private String id;
+    private String limit;
+    private String cursor;
+    private JsonNode body;
+    private String tenant;
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getLimit() { return limit; }
+    public void setLimit(String limit) { this.limit = limit; }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public JsonNode getBody() { return body; }
+    public void setBody(JsonNode body) { this.body = body; }
+
+    public String getTenant() { return tenant; }
+    public void setTenant(String tenant) { this.tenant = tenant; }
+}
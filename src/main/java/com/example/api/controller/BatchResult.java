@@ -0,0 +1,14 @@
+package com.example.api.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Outcome of one BatchOperation: the status, headers and body the single
+ * request would have returned.
+ */
+public record BatchResult(int status,
+                          @JsonInclude(JsonInclude.Include.NON_EMPTY) Map<String, String> headers,
+                          Object body) {
+}
@@ -0,0 +1,64 @@
+package com.example.api.controller;
+
+import com.example.api.model.Identifiable;
+import com.example.api.store.EntityStore;
+import com.example.api.store.Stores;
+import com.example.api.view.EntityTags;
+import com.example.api.view.ReferenceView;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+/**
+ * ETag / If-None-Match for the GET endpoints, shared by the entity controllers.
+ *
+ *   GET /api/items/3                        200, ETag: "lq3x0-17-ref"
+ *   GET /api/items/3   If-None-Match: (same) 304, nothing read or serialized
+ *
+ * The tag is taken before the entity or page is read, so a concurrent write can
+ * only make it older than the body, never newer. Batch operations have no
+ * request headers of their own (request == null) and are answered untagged.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static <T extends Identifiable> ResponseEntity<T> entity(Stores stores, EntityStore<T> store, Long id,
+                                                             EntityTags tags, WebRequest request) {
+        String etag = null;
+        if (request != null) {
+            etag = tags.entity(stores, store, id, referenceView(request));
+            if (etag == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(etag)) {
+                return null;  // 304 already set on the response
+            }
+        }
+        T entity = store.get(id);
+        if (entity == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return etag != null ? ResponseEntity.ok().eTag(etag).body(entity) : ResponseEntity.ok(entity);
+    }
+
+    static <T extends Identifiable> ResponseEntity<List<T>> page(Stores stores, EntityStore<T> store,
+                                                                 Integer limit, Long cursor,
+                                                                 EntityTags tags, WebRequest request) {
+        if (request == null || (limit != null && limit <= 0)) {
+            return Pagination.page(store, limit, cursor);
+        }
+        String etag = tags.collection(stores, store, referenceView(request));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity<List<T>> page = Pagination.page(store, limit, cursor);
+        return ResponseEntity.status(page.getStatusCode()).headers(page.getHeaders()).eTag(etag).body(page.getBody());
+    }
+
+    private static boolean referenceView(WebRequest request) {
+        return ReferenceView.isRequested(request.getHeader(ReferenceView.HEADER), request.getParameter(ReferenceView.PARAM));
+    }
+}
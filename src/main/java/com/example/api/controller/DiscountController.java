@@ -2,66 +2,86 @@ package com.example.api.controller;
 
 import com.example.api.model.Discount;
 import com.example.api.model.Price;
+import com.example.api.store.EntityStore;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)  // reactive stack: com.example.api.reactive
 @RequestMapping("/api/discounts")
 public class DiscountController {
 
-    public static final Map<Long, Discount> discounts = new ConcurrentHashMap<>();
-    private final AtomicLong idCounter = new AtomicLong(1);
+    private final Tenants tenants;
+    private final BatchExecutor batch;
+    private final EntityTags tags;
 
-    // GET all discounts
+    public DiscountController(Tenants tenants, BatchExecutor batch, EntityTags tags) {
+        this.tenants = tenants;
+        this.batch = batch;
+        this.tags = tags;
+    }
+
+    // GET all discounts, optionally one page at a time
     @GetMapping
-    public ResponseEntity<List<Discount>> getAllDiscounts() {
-        return ResponseEntity.ok(new ArrayList<>(discounts.values()));
+    public ResponseEntity<List<Discount>> getAllDiscounts(@RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) Long cursor,
+                                                          @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                          WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.page(stores, stores.discounts(), limit, cursor, tags, request);
     }
 
     // GET single discount
     @GetMapping("/{id}")
-    public ResponseEntity<Discount> getDiscount(@PathVariable Long id) {
-        Discount discount = discounts.get(id);
-        if (discount == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(discount);
+    public ResponseEntity<Discount> getDiscount(@PathVariable Long id,
+                                                @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.entity(stores, stores.discounts(), id, tags, request);
     }
 
 
     @PostMapping
-    public ResponseEntity<Discount> createDiscount(@RequestBody Discount discount) {
+    public ResponseEntity<Discount> createDiscount(@RequestBody Discount discount,
+                                                   @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Discount> discounts = stores.discounts();
+        EntityStore<Price> prices = stores.prices();
         if (discount.getPrice() == null || discount.getPrice().getId() == null) {
             return ResponseEntity.internalServerError().body(null);
         }
-        if (!PriceController.prices.containsKey(discount.getPrice().getId())) {
+        if (!prices.containsKey(discount.getPrice().getId())) {
             return ResponseEntity.notFound().build();
         }
 
         if (discount.getDiscount() < 0) {
             return ResponseEntity.internalServerError().body(null);
         }
-        Long id = idCounter.getAndIncrement();
-        discount.setId(id);
-        discounts.put(id, discount);
+        discounts.create(discount);
         return ResponseEntity.status(HttpStatus.CREATED).body(discount);
     }
 
 
     @PutMapping("/{id}")
-    public ResponseEntity<Discount> updateDiscount(@PathVariable Long id, @RequestBody Discount discount) {
+    public ResponseEntity<Discount> updateDiscount(@PathVariable Long id, @RequestBody Discount discount,
+                                                   @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Discount> discounts = stores.discounts();
+        EntityStore<Price> prices = stores.prices();
         if (!discounts.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }
         if (discount.getPrice() != null && discount.getPrice().getId() != null
-            && !PriceController.prices.containsKey(discount.getPrice().getId())) {
+            && !prices.containsKey(discount.getPrice().getId())) {
             return ResponseEntity.notFound().build();
         }
         discount.setId(id);
@@ -71,11 +91,16 @@ public class DiscountController {
 
     // PATCH - partial update
     @PatchMapping("/{id}")
-    public ResponseEntity<Discount> patchDiscount(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
-        Discount discount = discounts.get(id);
-        if (discount == null) {
+    public ResponseEntity<Discount> patchDiscount(@PathVariable Long id, @RequestBody Map<String, Object> updates,
+                                                  @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Discount> discounts = stores.discounts();
+        EntityStore<Price> prices = stores.prices();
+        Discount stored = discounts.get(id);
+        if (stored == null) {
             return ResponseEntity.notFound().build();
         }
+        Discount discount = new Discount(stored);  // patched as a copy, as items
 
         if (updates.containsKey("discount")) {
             Object priceValue = updates.get("discount");
@@ -87,10 +112,10 @@ public class DiscountController {
             Object itemIdValue = updates.get("itemId");
 
             Long itemId = ((Number) itemIdValue).longValue();
-            if (!PriceController.prices.containsKey(itemId)) {
+            if (!prices.containsKey(itemId)) {
                 return ResponseEntity.notFound().build();
             }
-            Price price = PriceController.prices.get(itemId);
+            Price price = prices.get(itemId);
             discount.setPrice(price);
         }
 
@@ -100,7 +125,9 @@ public class DiscountController {
 
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteDiscount(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteDiscount(@PathVariable Long id,
+                                               @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Discount> discounts = tenants.get(tenant).discounts();
         if (!discounts.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }
@@ -109,8 +136,26 @@ public class DiscountController {
 
 
     @DeleteMapping
-    public ResponseEntity<Void> deleteAllDiscounts() {
+    public ResponseEntity<Void> deleteAllDiscounts(@RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Discount> discounts = tenants.get(tenant).discounts();
         discounts.clear();
         return ResponseEntity.noContent().build();
     }
+
+    // POST - several operations in one round trip, one result per operation in order
+    @PostMapping("/_batch")
+    public ResponseEntity<List<BatchResult>> batchDiscounts(@RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                            @RequestBody List<BatchOperation> operations) {
+        return ResponseEntity.ok(batch.execute(operations, tenant, (operation, t) -> switch (operation.getMethod()) {
+            case "GET", "HEAD" -> operation.getId() == null
+                    ? getAllDiscounts(BatchExecutor.limit(operation), BatchExecutor.cursor(operation), t, null)
+                    : getDiscount(BatchExecutor.id(operation), t, null);
+            case "POST" -> createDiscount(batch.body(operation, Discount.class), t);
+            case "PUT" -> updateDiscount(BatchExecutor.id(operation), batch.body(operation, Discount.class), t);
+            case "PATCH" -> patchDiscount(BatchExecutor.id(operation), batch.updates(operation), t);
+            case "DELETE" -> operation.getId() == null ? deleteAllDiscounts(t) : deleteDiscount(BatchExecutor.id(operation), t);
+            case "OPTIONS" -> BatchExecutor.options(operation);
+            default -> BatchExecutor.methodNotAllowed();
+        }));
+    }
 }
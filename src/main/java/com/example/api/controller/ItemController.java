@@ -1,54 +1,70 @@
 package com.example.api.controller;
 
 import com.example.api.model.Item;
+import com.example.api.store.EntityStore;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)  // reactive stack: com.example.api.reactive
 @RequestMapping("/api/items")
 public class ItemController {
 
-    public final static Map<Long, Item> items = new ConcurrentHashMap<>();
-    private final AtomicLong idCounter = new AtomicLong(1);
+    private final Tenants tenants;
+    private final BatchExecutor batch;
+    private final EntityTags tags;
 
-    // GET all items
+    public ItemController(Tenants tenants, BatchExecutor batch, EntityTags tags) {
+        this.tenants = tenants;
+        this.batch = batch;
+        this.tags = tags;
+    }
+
+    // GET all items, optionally one page at a time
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
-        return ResponseEntity.ok(new ArrayList<>(items.values()));
+    public ResponseEntity<List<Item>> getAllItems(@RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) Long cursor,
+                                                  @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                  WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.page(stores, stores.items(), limit, cursor, tags, request);
     }
 
     // GET single item
     @GetMapping("/{id}")
-    public ResponseEntity<Item> getItem(@PathVariable Long id) {
-        Item item = items.get(id);
-        if (item == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(item);
+    public ResponseEntity<Item> getItem(@PathVariable Long id,
+                                        @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                        WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.entity(stores, stores.items(), id, tags, request);
     }
 
     // POST - create new item
     @PostMapping
-    public ResponseEntity<Item> createItem(@RequestBody Item item) {
+    public ResponseEntity<Item> createItem(@RequestBody Item item,
+                                           @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Item> items = tenants.get(tenant).items();
         if(item.getQuantity() < 0 ){
             return ResponseEntity.internalServerError().body(null);
         }
-        Long id = idCounter.getAndIncrement();
-        item.setId(id);
-        items.put(id, item);
+        items.create(item);
         return ResponseEntity.status(HttpStatus.CREATED).body(item);
     }
 
     // PUT - full update
     @PutMapping("/{id}")
-    public ResponseEntity<Item> updateItem(@PathVariable Long id, @RequestBody Item item) {
+    public ResponseEntity<Item> updateItem(@PathVariable Long id, @RequestBody Item item,
+                                           @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Item> items = tenants.get(tenant).items();
         if (!items.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }
@@ -59,11 +75,16 @@ public class ItemController {
 
     // PATCH - partial update
     @PatchMapping("/{id}")
-    public ResponseEntity<Item> patchItem(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
-        Item item = items.get(id);
-        if (item == null) {
+    public ResponseEntity<Item> patchItem(@PathVariable Long id, @RequestBody Map<String, Object> updates,
+                                          @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Item> items = tenants.get(tenant).items();
+        Item stored = items.get(id);
+        if (stored == null) {
             return ResponseEntity.notFound().build();
         }
+        // Patch a copy: on heap, get() hands out the stored instance, and a patch
+        // failing halfway must leave it (and its ETag) untouched
+        Item item = new Item(stored);
 
         if (updates.containsKey("name")) {
             item.setName((String) updates.get("name"));
@@ -81,7 +102,9 @@ public class ItemController {
 
     // DELETE single item
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteItem(@PathVariable Long id,
+                                           @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Item> items = tenants.get(tenant).items();
         if (!items.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }else{
@@ -93,14 +116,17 @@ public class ItemController {
 
     // DELETE all items
     @DeleteMapping
-    public ResponseEntity<Void> deleteAllItems() {
+    public ResponseEntity<Void> deleteAllItems(@RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Item> items = tenants.get(tenant).items();
         items.clear();
         return ResponseEntity.noContent().build();
     }
 
     // HEAD - check if item exists
     @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
-    public ResponseEntity<Void> headItem(@PathVariable Long id) {
+    public ResponseEntity<Void> headItem(@PathVariable Long id,
+                                         @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Item> items = tenants.get(tenant).items();
         if (items.containsKey(id)) {
             return ResponseEntity.ok().build();
         }
@@ -114,4 +140,24 @@ public class ItemController {
                 .header("Allow", "GET, POST, PUT, PATCH, DELETE, HEAD, OPTIONS")
                 .build();
     }
+
+    // POST - several operations in one round trip, one result per operation in order
+    @PostMapping("/_batch")
+    public ResponseEntity<List<BatchResult>> batchItems(@RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                        @RequestBody List<BatchOperation> operations) {
+        return ResponseEntity.ok(batch.execute(operations, tenant, (operation, t) -> switch (operation.getMethod()) {
+            case "GET" -> operation.getId() == null
+                    ? getAllItems(BatchExecutor.limit(operation), BatchExecutor.cursor(operation), t, null)
+                    : getItem(BatchExecutor.id(operation), t, null);
+            case "POST" -> createItem(batch.body(operation, Item.class), t);
+            case "PUT" -> updateItem(BatchExecutor.id(operation), batch.body(operation, Item.class), t);
+            case "PATCH" -> patchItem(BatchExecutor.id(operation), batch.updates(operation), t);
+            case "DELETE" -> operation.getId() == null ? deleteAllItems(t) : deleteItem(BatchExecutor.id(operation), t);
+            case "HEAD" -> operation.getId() == null
+                    ? getAllItems(BatchExecutor.limit(operation), BatchExecutor.cursor(operation), t, null)
+                    : headItem(BatchExecutor.id(operation), t);
+            case "OPTIONS" -> operation.getId() == null ? BatchExecutor.options(operation) : optionsItem();
+            default -> BatchExecutor.methodNotAllowed();
+        }));
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.api.controller;
+
+import com.example.api.model.Identifiable;
+import com.example.api.store.EntityStore;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Keyset pagination over an id-ordered store, shared by the GET-all endpoints.
+ *
+ *   GET /api/items                     every entity (unchanged behavior)
+ *   GET /api/items?limit=50            first 50 by id
+ *   GET /api/items?limit=50&cursor=17  first 50 with id > 17
+ *
+ * Seeking to the cursor is one O(log n) tailMap; only the returned page is copied.
+ * When more entities follow, the last returned id comes back in X-Next-Cursor.
+ */
+final class Pagination {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private Pagination() {
+    }
+
+    static <T extends Identifiable> ResponseEntity<List<T>> page(EntityStore<T> store, Integer limit, Long cursor) {
+        if (limit == null) {
+            return ResponseEntity.ok(store.list(cursor, Integer.MAX_VALUE));
+        }
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // One extra entity tells whether another page follows
+        List<T> page = store.list(cursor, limit == Integer.MAX_VALUE ? limit : limit + 1);
+        if (page.size() > limit) {
+            page.remove(limit.intValue());
+            return ResponseEntity.ok().header(NEXT_CURSOR, String.valueOf(page.get(limit - 1).getId())).body(page);
+        }
+        return ResponseEntity.ok(page);
+    }
+}
@@ -2,66 +2,86 @@ package com.example.api.controller;
 
 import com.example.api.model.Discount;
 import com.example.api.model.Point;
+import com.example.api.store.EntityStore;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)  // reactive stack: com.example.api.reactive
 @RequestMapping("/api/points")
 public class PointsController {
 
-    private final Map<Long, Point> points = new ConcurrentHashMap<>();
-    private final AtomicLong idCounter = new AtomicLong(1);
+    private final Tenants tenants;
+    private final BatchExecutor batch;
+    private final EntityTags tags;
 
-    // GET all points
+    public PointsController(Tenants tenants, BatchExecutor batch, EntityTags tags) {
+        this.tenants = tenants;
+        this.batch = batch;
+        this.tags = tags;
+    }
+
+    // GET all points, optionally one page at a time
     @GetMapping
-    public ResponseEntity<List<Point>> getAllPoints() {
-        return ResponseEntity.ok(new ArrayList<>(points.values()));
+    public ResponseEntity<List<Point>> getAllPoints(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Long cursor,
+                                                    @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                    WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.page(stores, stores.points(), limit, cursor, tags, request);
     }
 
     // GET single point
     @GetMapping("/{id}")
-    public ResponseEntity<Point> getPoints(@PathVariable Long id) {
-        Point point = points.get(id);
-        if (point == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(point);
+    public ResponseEntity<Point> getPoints(@PathVariable Long id,
+                                           @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                           WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.entity(stores, stores.points(), id, tags, request);
     }
 
 
     @PostMapping
-    public ResponseEntity<Point> createPoints(@RequestBody Point point) {
+    public ResponseEntity<Point> createPoints(@RequestBody Point point,
+                                              @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Point> points = stores.points();
+        EntityStore<Discount> discounts = stores.discounts();
         if (point.getDiscount() == null || point.getDiscount().getId() == null) {
             return ResponseEntity.internalServerError().body(null);
         }
-        if (!DiscountController.discounts.containsKey(point.getDiscount().getId())) {
+        if (!discounts.containsKey(point.getDiscount().getId())) {
             return ResponseEntity.notFound().build();
         }
 
         if (point.getPoints() < 0) {
             return ResponseEntity.internalServerError().body(null);
         }
-        Long id = idCounter.getAndIncrement();
-        point.setId(id);
-        points.put(id, point);
+        points.create(point);
         return ResponseEntity.status(HttpStatus.CREATED).body(point);
     }
 
 
     @PutMapping("/{id}")
-    public ResponseEntity<Point> updatePoints(@PathVariable Long id, @RequestBody Point point) {
+    public ResponseEntity<Point> updatePoints(@PathVariable Long id, @RequestBody Point point,
+                                              @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Point> points = stores.points();
+        EntityStore<Discount> discounts = stores.discounts();
         if (!points.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }
         if (point.getDiscount() != null && point.getDiscount().getId() != null
-            && !DiscountController.discounts.containsKey(point.getDiscount().getId())) {
+            && !discounts.containsKey(point.getDiscount().getId())) {
             return ResponseEntity.notFound().build();
         }
         point.setId(id);
@@ -71,11 +91,16 @@ public class PointsController {
 
     // PATCH - partial update
     @PatchMapping("/{id}")
-    public ResponseEntity<Point> patchPoints(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
-        Point point = points.get(id);
-        if (point == null) {
+    public ResponseEntity<Point> patchPoints(@PathVariable Long id, @RequestBody Map<String, Object> updates,
+                                             @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Point> points = stores.points();
+        EntityStore<Discount> discounts = stores.discounts();
+        Point stored = points.get(id);
+        if (stored == null) {
             return ResponseEntity.notFound().build();
         }
+        Point point = new Point(stored);  // patched as a copy, as items
 
         if (updates.containsKey("point")) {
             Object pointValue = updates.get("point");
@@ -87,10 +112,10 @@ public class PointsController {
             Object itemIdValue = updates.get("discountId");
 
             Long discountId = ((Number) itemIdValue).longValue();
-            if (!DiscountController.discounts.containsKey(discountId)) {
+            if (!discounts.containsKey(discountId)) {
                 return ResponseEntity.notFound().build();
             }
-            Discount discount = DiscountController.discounts.get(discountId);
+            Discount discount = discounts.get(discountId);
             point.setDiscount(discount);
         }
 
@@ -100,7 +125,9 @@ public class PointsController {
 
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePoints(@PathVariable Long id) {
+    public ResponseEntity<Void> deletePoints(@PathVariable Long id,
+                                             @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Point> points = tenants.get(tenant).points();
         if (!points.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }
@@ -109,8 +136,26 @@ public class PointsController {
 
 
     @DeleteMapping
-    public ResponseEntity<Void> deleteAllPoints() {
+    public ResponseEntity<Void> deleteAllPoints(@RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Point> points = tenants.get(tenant).points();
         points.clear();
         return ResponseEntity.noContent().build();
     }
+
+    // POST - several operations in one round trip, one result per operation in order
+    @PostMapping("/_batch")
+    public ResponseEntity<List<BatchResult>> batchPoints(@RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                         @RequestBody List<BatchOperation> operations) {
+        return ResponseEntity.ok(batch.execute(operations, tenant, (operation, t) -> switch (operation.getMethod()) {
+            case "GET", "HEAD" -> operation.getId() == null
+                    ? getAllPoints(BatchExecutor.limit(operation), BatchExecutor.cursor(operation), t, null)
+                    : getPoints(BatchExecutor.id(operation), t, null);
+            case "POST" -> createPoints(batch.body(operation, Point.class), t);
+            case "PUT" -> updatePoints(BatchExecutor.id(operation), batch.body(operation, Point.class), t);
+            case "PATCH" -> patchPoints(BatchExecutor.id(operation), batch.updates(operation), t);
+            case "DELETE" -> operation.getId() == null ? deleteAllPoints(t) : deletePoints(BatchExecutor.id(operation), t);
+            case "OPTIONS" -> BatchExecutor.options(operation);
+            default -> BatchExecutor.methodNotAllowed();
+        }));
+    }
 }
@@ -2,66 +2,86 @@ package com.example.api.controller;
 
 import com.example.api.model.Item;
 import com.example.api.model.Price;
+import com.example.api.store.EntityStore;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)  // reactive stack: com.example.api.reactive
 @RequestMapping("/api/prices")
 public class PriceController {
 
-    public static final Map<Long, Price> prices = new ConcurrentHashMap<>();
-    private final AtomicLong idCounter = new AtomicLong(1);
+    private final Tenants tenants;
+    private final BatchExecutor batch;
+    private final EntityTags tags;
 
-    // GET all prices
+    public PriceController(Tenants tenants, BatchExecutor batch, EntityTags tags) {
+        this.tenants = tenants;
+        this.batch = batch;
+        this.tags = tags;
+    }
+
+    // GET all prices, optionally one page at a time
     @GetMapping
-    public ResponseEntity<List<Price>> getAllPrices() {
-        return ResponseEntity.ok(new ArrayList<>(prices.values()));
+    public ResponseEntity<List<Price>> getAllPrices(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Long cursor,
+                                                    @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                    WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.page(stores, stores.prices(), limit, cursor, tags, request);
     }
 
     // GET single price
     @GetMapping("/{id}")
-    public ResponseEntity<Price> getPrice(@PathVariable Long id) {
-        Price price = prices.get(id);
-        if (price == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(price);
+    public ResponseEntity<Price> getPrice(@PathVariable Long id,
+                                          @RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                          WebRequest request) {
+        Stores stores = tenants.get(tenant);
+        return ConditionalGet.entity(stores, stores.prices(), id, tags, request);
     }
 
     // POST - create new price (requires valid item ID)
     @PostMapping
-    public ResponseEntity<Price> createPrice(@RequestBody Price price) {
+    public ResponseEntity<Price> createPrice(@RequestBody Price price,
+                                             @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Price> prices = stores.prices();
+        EntityStore<Item> items = stores.items();
         if (price.getItem() == null || price.getItem().getId() == null) {
             return ResponseEntity.internalServerError().body(null);
         }
-        if (!ItemController.items.containsKey(price.getItem().getId())) {
+        if (!items.containsKey(price.getItem().getId())) {
             return ResponseEntity.notFound().build();
         }
         // BUG: Negative price causes server error
         if (price.getPrice() < 0) {
             return ResponseEntity.internalServerError().body(null);
         }
-        Long id = idCounter.getAndIncrement();
-        price.setId(id);
-        prices.put(id, price);
+        prices.create(price);
         return ResponseEntity.status(HttpStatus.CREATED).body(price);
     }
 
     // PUT - full update
     @PutMapping("/{id}")
-    public ResponseEntity<Price> updatePrice(@PathVariable Long id, @RequestBody Price price) {
+    public ResponseEntity<Price> updatePrice(@PathVariable Long id, @RequestBody Price price,
+                                             @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Price> prices = stores.prices();
+        EntityStore<Item> items = stores.items();
         if (!prices.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }
         if (price.getItem() != null && price.getItem().getId() != null 
-            && !ItemController.items.containsKey(price.getItem().getId())) {
+            && !items.containsKey(price.getItem().getId())) {
             return ResponseEntity.notFound().build();
         }
         price.setId(id);
@@ -71,11 +91,16 @@ public class PriceController {
 
     // PATCH - partial update
     @PatchMapping("/{id}")
-    public ResponseEntity<Price> patchPrice(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
-        Price price = prices.get(id);
-        if (price == null) {
+    public ResponseEntity<Price> patchPrice(@PathVariable Long id, @RequestBody Map<String, Object> updates,
+                                            @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        Stores stores = tenants.get(tenant);
+        EntityStore<Price> prices = stores.prices();
+        EntityStore<Item> items = stores.items();
+        Price stored = prices.get(id);
+        if (stored == null) {
             return ResponseEntity.notFound().build();
         }
+        Price price = new Price(stored);  // patched as a copy, as items
 
         if (updates.containsKey("price")) {
             Object priceValue = updates.get("price");
@@ -87,10 +112,10 @@ public class PriceController {
             Object itemIdValue = updates.get("itemId");
 
             Long itemId = ((Number) itemIdValue).longValue();
-            if (!ItemController.items.containsKey(itemId)) {
+            if (!items.containsKey(itemId)) {
                 return ResponseEntity.notFound().build();
             }
-            Item item = ItemController.items.get(itemId);
+            Item item = items.get(itemId);
             price.setItem(item);
         }
 
@@ -100,7 +125,9 @@ public class PriceController {
 
     // DELETE single price
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePrice(@PathVariable Long id) {
+    public ResponseEntity<Void> deletePrice(@PathVariable Long id,
+                                            @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Price> prices = tenants.get(tenant).prices();
         if (!prices.containsKey(id)) {
             return ResponseEntity.notFound().build();
         }
@@ -112,8 +139,26 @@ public class PriceController {
 
     // DELETE all prices
     @DeleteMapping
-    public ResponseEntity<Void> deleteAllPrices() {
+    public ResponseEntity<Void> deleteAllPrices(@RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        EntityStore<Price> prices = tenants.get(tenant).prices();
         prices.clear();
         return ResponseEntity.noContent().build();
     }
+
+    // POST - several operations in one round trip, one result per operation in order
+    @PostMapping("/_batch")
+    public ResponseEntity<List<BatchResult>> batchPrices(@RequestHeader(name = Tenants.HEADER, required = false) String tenant,
+                                                         @RequestBody List<BatchOperation> operations) {
+        return ResponseEntity.ok(batch.execute(operations, tenant, (operation, t) -> switch (operation.getMethod()) {
+            case "GET", "HEAD" -> operation.getId() == null
+                    ? getAllPrices(BatchExecutor.limit(operation), BatchExecutor.cursor(operation), t, null)
+                    : getPrice(BatchExecutor.id(operation), t, null);
+            case "POST" -> createPrice(batch.body(operation, Price.class), t);
+            case "PUT" -> updatePrice(BatchExecutor.id(operation), batch.body(operation, Price.class), t);
+            case "PATCH" -> patchPrice(BatchExecutor.id(operation), batch.updates(operation), t);
+            case "DELETE" -> operation.getId() == null ? deleteAllPrices(t) : deletePrice(BatchExecutor.id(operation), t);
+            case "OPTIONS" -> BatchExecutor.options(operation);
+            default -> BatchExecutor.methodNotAllowed();
+        }));
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.api.controller;
+
+import com.example.api.store.Tenants;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+/**
+ * Reverse reference lookups served from the secondary indexes, for integrity
+ * checks, in the tenant given by X-Tenant. Not part of the API under test.
+ */
+@RestController
+@RequestMapping("/admin/references")
+public class ReferenceController {
+
+    private final Tenants tenants;
+
+    public ReferenceController(Tenants tenants) {
+        this.tenants = tenants;
+    }
+
+    @GetMapping("/items/{id}/prices")
+    public ResponseEntity<Set<Long>> getPricesOfItem(@PathVariable Long id,
+                                                     @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        return ResponseEntity.ok(tenants.get(tenant).pricesByItem().childrenOf(id));
+    }
+
+    @GetMapping("/prices/{id}/discounts")
+    public ResponseEntity<Set<Long>> getDiscountsOfPrice(@PathVariable Long id,
+                                                         @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        return ResponseEntity.ok(tenants.get(tenant).discountsByPrice().childrenOf(id));
+    }
+
+    @GetMapping("/discounts/{id}/points")
+    public ResponseEntity<Set<Long>> getPointsOfDiscount(@PathVariable Long id,
+                                                         @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        return ResponseEntity.ok(tenants.get(tenant).pointsByDiscount().childrenOf(id));
+    }
+}
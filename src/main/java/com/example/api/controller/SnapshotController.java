@@ -0,0 +1,71 @@
+package com.example.api.controller;
+
+import com.example.api.store.TenantSnapshot;
+import com.example.api.store.Tenants;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Named snapshots of a tenant's four stores. POST /{name} freezes the X-Tenant's
+ * stores (or the default tenant's) in O(n log n); POST /{name}/restore swaps the
+ * X-Tenant's stores for copy-on-write ones over the snapshot in O(1), so a
+ * tester can start every episode from the same state. Not part of the API under test.
+ */
+@RestController
+@RequestMapping("/admin/snapshots")
+public class SnapshotController {
+
+    private final Tenants tenants;
+
+    public SnapshotController(Tenants tenants) {
+        this.tenants = tenants;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Integer>>> getSnapshots() {
+        Map<String, Map<String, Integer>> sizes = new TreeMap<>();
+        tenants.getSnapshots().forEach((name, snapshot) -> sizes.put(name, sizes(snapshot)));
+        return ResponseEntity.ok(sizes);
+    }
+
+    @PostMapping("/{name}")
+    public ResponseEntity<Map<String, Integer>> takeSnapshot(
+            @PathVariable String name,
+            @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        return ResponseEntity.ok(sizes(tenants.snapshot(tenant, name)));
+    }
+
+    @PostMapping("/{name}/restore")
+    public ResponseEntity<Void> restoreSnapshot(
+            @PathVariable String name,
+            @RequestHeader(name = Tenants.HEADER, required = false) String tenant) {
+        if (tenant == null || tenant.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return tenants.restore(tenant, name) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> deleteSnapshot(@PathVariable String name) {
+        return tenants.dropSnapshot(name) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    private static Map<String, Integer> sizes(TenantSnapshot snapshot) {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("items", snapshot.items().size());
+        sizes.put("prices", snapshot.prices().size());
+        sizes.put("discounts", snapshot.discounts().size());
+        sizes.put("points", snapshot.points().size());
+        return sizes;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.api.controller;
+
+import com.example.api.store.EntityStore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size, capacity, eviction count and off-heap footprint per entity store of the default tenant.
+ * Not part of the API under test.
+ */
+@RestController
+@RequestMapping("/admin/stores")
+public class StoreStatsController {
+
+    private final List<EntityStore<?>> stores;
+
+    public StoreStatsController(List<EntityStore<?>> stores) {
+        this.stores = stores;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getStoreStats() {
+        return ResponseEntity.ok(stores.stream().map(store -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", store.getName());
+            stats.put("size", store.getSize());
+            stats.put("capacity", store.getCapacity());
+            stats.put("evictions", store.getEvictions());
+            stats.put("offHeap", store.isOffHeap());
+            stats.put("offHeapBytes", store.getOffHeapBytes());
+            return stats;
+        }).toList());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.api.controller;
+
+import com.example.api.store.EntityStore;
+import com.example.api.store.Tenants;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tenants created through X-Tenant, with their store sizes, and O(1) reset of
+ * one tenant to empty stores. The default tenant is not listed; its stores are
+ * cleared with DELETE on each collection. SnapshotController restores tenants
+ * to saved states instead. Not part of the API under test.
+ */
+@RestController
+@RequestMapping("/admin/tenants")
+public class TenantController {
+
+    private final Tenants tenants;
+
+    public TenantController(Tenants tenants) {
+        this.tenants = tenants;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Integer>>> getTenants() {
+        Map<String, Map<String, Integer>> sizes = new TreeMap<>();
+        tenants.getTenants().forEach((tenant, stores) -> {
+            Map<String, Integer> tenantSizes = new LinkedHashMap<>();
+            for (EntityStore<?> store : stores.all()) {
+                tenantSizes.put(store.getName(), store.getSize());
+            }
+            sizes.put(tenant, tenantSizes);
+        });
+        return ResponseEntity.ok(sizes);
+    }
+
+    @DeleteMapping("/{tenant}")
+    public ResponseEntity<Void> resetTenant(@PathVariable String tenant) {
+        return tenants.reset(tenant) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
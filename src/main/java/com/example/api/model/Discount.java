@@ -1,6 +1,6 @@
 package com.example.api.model;
 
-public class Discount {
+public class Discount implements Identifiable {
 
     private Long id;
     private Price price;
@@ -12,6 +12,11 @@ public class Discount {
         this.discount = discount;
     }
 
+    // Shallow copy: the embedded Price is shared
+    public Discount(Discount other) {
+        this(other.id, other.price, other.discount);
+    }
+
     public Discount() {
     }
 
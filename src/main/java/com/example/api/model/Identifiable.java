@@ -0,0 +1,11 @@
+package com.example.api.model;
+
+/**
+ * Entities kept in an EntityStore; the store assigns ids on create.
+ */
+public interface Identifiable {
+
+    Long getId();
+
+    void setId(Long id);
+}
@@ -1,6 +1,6 @@
 package com.example.api.model;
 
-public class Item {
+public class Item implements Identifiable {
     private Long id;
     private String name;
     private String description;
@@ -15,6 +15,10 @@ public class Item {
         this.quantity = quantity;
     }
 
+    public Item(Item other) {
+        this(other.id, other.name, other.description, other.quantity);
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
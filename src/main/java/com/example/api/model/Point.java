@@ -1,6 +1,6 @@
 package com.example.api.model;
 
-public class Point {
+public class Point implements Identifiable {
 
     private Long id;
     private Discount discount;
@@ -15,6 +15,11 @@ public class Point {
         this.points = points;
     }
 
+    // Shallow copy: the embedded Discount is shared
+    public Point(Point other) {
+        this(other.id, other.discount, other.points);
+    }
+
     public Long getId() {
         return id;
     }
@@ -1,6 +1,6 @@
 package com.example.api.model;
 
-public class Price {
+public class Price implements Identifiable {
 
     private Long id;
     private Item item;
@@ -15,6 +15,11 @@ public class Price {
         this.price = price;
     }
 
+    // Shallow copy: the embedded Item is shared
+    public Price(Price other) {
+        this(other.id, other.item, other.price);
+    }
+
     public Long getId() {
         return id;
     }
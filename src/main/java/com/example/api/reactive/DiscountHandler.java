@@ -0,0 +1,80 @@
+package com.example.api.reactive;
+
+import com.example.api.controller.BatchExecutor;
+import com.example.api.model.Discount;
+import com.example.api.model.Price;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+class DiscountHandler extends EntityHandler<Discount> {
+
+    DiscountHandler(Tenants tenants, EntityTags tags, BatchExecutor batch) {
+        super(tenants, Stores::discounts, Discount.class, tags, batch);
+    }
+
+    @Override
+    Mono<ServerResponse> create(ServerRequest request, Stores stores, Discount discount) {
+        if (discount.getPrice() == null || discount.getPrice().getId() == null) {
+            return serverError();
+        }
+        if (!stores.prices().containsKey(discount.getPrice().getId())) {
+            return notFound();
+        }
+
+        if (discount.getDiscount() < 0) {
+            return serverError();
+        }
+        stores.discounts().create(discount);
+        return created(request, discount);
+    }
+
+    @Override
+    Mono<ServerResponse> update(ServerRequest request, Stores stores, Long id, Discount discount) {
+        if (!stores.discounts().containsKey(id)) {
+            return notFound();
+        }
+        if (discount.getPrice() != null && discount.getPrice().getId() != null
+            && !stores.prices().containsKey(discount.getPrice().getId())) {
+            return notFound();
+        }
+        discount.setId(id);
+        stores.discounts().put(id, discount);
+        return ok(request, discount);
+    }
+
+    @Override
+    Mono<ServerResponse> patch(ServerRequest request, Stores stores, Long id, Map<String, Object> updates) {
+        Discount stored = stores.discounts().get(id);
+        if (stored == null) {
+            return notFound();
+        }
+        Discount discount = new Discount(stored);  // patched as a copy, as in ItemController
+
+        if (updates.containsKey("discount")) {
+            Object priceValue = updates.get("discount");
+            double newDiscount = ((Number) priceValue).doubleValue();
+            discount.setDiscount(newDiscount);
+        }
+
+        // "itemId" names the parent price, as in DiscountController
+        if (updates.containsKey("itemId")) {
+            Object itemIdValue = updates.get("itemId");
+
+            Long itemId = ((Number) itemIdValue).longValue();
+            if (!stores.prices().containsKey(itemId)) {
+                return notFound();
+            }
+            Price price = stores.prices().get(itemId);
+            discount.setPrice(price);
+        }
+
+        stores.discounts().put(id, discount);
+        return ok(request, discount);
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.api.reactive;
+
+import com.example.api.controller.BatchExecutor;
+import com.example.api.controller.BatchOperation;
+import com.example.api.controller.BatchResult;
+import com.example.api.model.Identifiable;
+import com.example.api.store.EntityStore;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import com.example.api.view.ReferenceView;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Functional counterpart of one entity controller: the routes and status codes
+ * shared by all four (GET, GET-all with pagination, DELETE, DELETE-all), with
+ * create/update/patch left to the entity. Mirrors the MVC stack's edge cases so
+ * findings carry over: unparsable ids and missing bodies are 400, exceptions
+ * thrown by entity logic (e.g. unboxing a null quantity) surface as 500, and
+ * OPTIONS answers 200 with an Allow header where the MVC stack would.
+ * GETs carry the same ETags and answer If-None-Match with 304. Each request
+ * works on the stores of its X-Tenant. POST _batch runs its operations one
+ * after another through the same methods, bound and failed by BatchExecutor
+ * as in the MVC stack.
+ */
+abstract class EntityHandler<T extends Identifiable> {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> UPDATES = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<BatchOperation>> OPERATIONS = new ParameterizedTypeReference<>() {
+    };
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private final Tenants tenants;
+    private final Function<Stores, EntityStore<T>> storeOf;
+    private final Class<T> type;
+    private final EntityTags tags;
+    private final BatchExecutor batch;
+
+    EntityHandler(Tenants tenants, Function<Stores, EntityStore<T>> storeOf, Class<T> type, EntityTags tags,
+                  BatchExecutor batch) {
+        this.tenants = tenants;
+        this.storeOf = storeOf;
+        this.type = type;
+        this.tags = tags;
+        this.batch = batch;
+    }
+
+    abstract Mono<ServerResponse> create(ServerRequest request, Stores stores, T entity);
+
+    abstract Mono<ServerResponse> update(ServerRequest request, Stores stores, Long id, T entity);
+
+    abstract Mono<ServerResponse> patch(ServerRequest request, Stores stores, Long id, Map<String, Object> updates);
+
+    // ========================== Routes ==========================
+
+    Mono<ServerResponse> getAll(ServerRequest request) {
+        Integer limit = queryParam(request, "limit", Integer::valueOf);
+        Long cursor = queryParam(request, "cursor", Long::valueOf);
+        if (limit != null && limit <= 0) {
+            return ServerResponse.badRequest().build();
+        }
+        // Tag before reading, as in the MVC controllers
+        Stores stores = stores(request);
+        EntityStore<T> store = storeOf.apply(stores);
+        String etag = tags.collection(stores, store, referenceView(request));
+        return request.checkNotModified(etag).switchIfEmpty(Mono.defer(() -> page(request, store, limit, cursor, etag)));
+    }
+
+    /**
+     * etag is null for batch operations, which are answered untagged.
+     */
+    private Mono<ServerResponse> page(ServerRequest request, EntityStore<T> store, Integer limit, Long cursor, String etag) {
+        List<T> page = store.list(cursor, limit == null || limit == Integer.MAX_VALUE ? Integer.MAX_VALUE : limit + 1);
+        String next = null;
+        if (limit != null && page.size() > limit) {
+            page.remove(limit.intValue());
+            next = String.valueOf(page.get(limit - 1).getId());
+        }
+        EntityResponse.Builder<Object> response = EntityResponse.fromObject(body(request, page));
+        if (etag != null) response.eTag(etag);
+        if (next != null) response.header(NEXT_CURSOR, next);
+        return response.build().cast(ServerResponse.class);
+    }
+
+    Mono<ServerResponse> get(ServerRequest request) {
+        Long id = id(request);
+        Stores stores = stores(request);
+        EntityStore<T> store = storeOf.apply(stores);
+        String etag = tags.entity(stores, store, id, referenceView(request));
+        if (etag == null) {
+            return notFound();
+        }
+        return request.checkNotModified(etag).switchIfEmpty(Mono.defer(() -> {
+            T entity = store.get(id);
+            return entity == null ? notFound() : EntityResponse.fromObject(body(request, entity)).eTag(etag).build()
+                    .cast(ServerResponse.class);
+        }));
+    }
+
+    Mono<ServerResponse> create(ServerRequest request) {
+        Stores stores = stores(request);
+        return body(request).flatMap(entity -> create(request, stores, entity));
+    }
+
+    Mono<ServerResponse> update(ServerRequest request) {
+        Long id = id(request);
+        Stores stores = stores(request);
+        return body(request).flatMap(entity -> update(request, stores, id, entity));
+    }
+
+    Mono<ServerResponse> patch(ServerRequest request) {
+        Long id = id(request);
+        Stores stores = stores(request);
+        return request.bodyToMono(UPDATES)
+                .switchIfEmpty(Mono.error(new ServerWebInputException("Request body is missing")))
+                .flatMap(updates -> patch(request, stores, id, updates));
+    }
+
+    Mono<ServerResponse> delete(ServerRequest request) {
+        return delete(store(request), id(request));
+    }
+
+    // BUG: delete of an existing entity is always a server error, as in the MVC stack
+    private static Mono<ServerResponse> delete(EntityStore<?> store, Long id) {
+        return store.containsKey(id)
+                ? ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR).build()
+                : ServerResponse.notFound().build();
+    }
+
+    Mono<ServerResponse> deleteAll(ServerRequest request) {
+        return deleteAll(store(request));
+    }
+
+    private static Mono<ServerResponse> deleteAll(EntityStore<?> store) {
+        store.clear();
+        return ServerResponse.noContent().build();
+    }
+
+    Mono<ServerResponse> batch(ServerRequest request) {
+        String tenant = request.headers().firstHeader(Tenants.HEADER);
+        return request.bodyToMono(OPERATIONS)
+                .switchIfEmpty(Mono.error(new ServerWebInputException("Request body is missing")))
+                .flatMap(operations -> Flux.range(0, operations.size())
+                        .concatMap(i -> BatchExecutor.execute(operations.get(i), tenant,
+                                (operation, t) -> execute(request, operation, tenants.get(t))
+                                        .map(response -> BatchExecutor.result(operation, result(response)))
+                                        .onErrorResume(e -> Mono.just(BatchExecutor.failure(e))),
+                                Mono::just))
+                        .collectList())
+                .flatMap(results -> ok(request, results));
+    }
+
+    /**
+     * One batch operation, answered as its single request would be, except
+     * that GETs are untagged as in the MVC stack.
+     */
+    Mono<ServerResponse> execute(ServerRequest request, BatchOperation operation, Stores stores) {
+        EntityStore<T> store = storeOf.apply(stores);
+        return switch (operation.getMethod()) {
+            case "GET", "HEAD" -> {
+                if (operation.getId() != null) {
+                    T entity = store.get(BatchExecutor.id(operation));
+                    yield entity == null ? notFound() : ok(request, entity);
+                }
+                Integer limit = BatchExecutor.limit(operation);
+                Long cursor = BatchExecutor.cursor(operation);
+                yield limit != null && limit <= 0
+                        ? ServerResponse.badRequest().build()
+                        : page(request, store, limit, cursor, null);
+            }
+            case "POST" -> create(request, stores, batch.body(operation, type));
+            case "PUT" -> update(request, stores, BatchExecutor.id(operation), batch.body(operation, type));
+            case "PATCH" -> patch(request, stores, BatchExecutor.id(operation), batch.updates(operation));
+            case "DELETE" -> operation.getId() == null ? deleteAll(store) : delete(store, BatchExecutor.id(operation));
+            case "OPTIONS" -> allow(operation.getId());
+            default -> ServerResponse.status(HttpStatus.METHOD_NOT_ALLOWED).build();
+        };
+    }
+
+    // As Spring MVC answers OPTIONS for a path no handler declares it on
+    Mono<ServerResponse> allowed(ServerRequest request) {
+        return allow(request.pathVariables().get("id"));
+    }
+
+    private static Mono<ServerResponse> allow(Object id) {
+        return ServerResponse.ok().header(HttpHeaders.ALLOW, BatchExecutor.allow(id)).build();
+    }
+
+    // ========================== Helpers ==========================
+
+    Stores stores(ServerRequest request) {
+        return tenants.get(request.headers().firstHeader(Tenants.HEADER));
+    }
+
+    EntityStore<T> store(ServerRequest request) {
+        return storeOf.apply(stores(request));
+    }
+
+    // EntityResponse, so a batch can read the body back
+    Mono<ServerResponse> ok(ServerRequest request, Object body) {
+        return EntityResponse.fromObject(body(request, body)).build().cast(ServerResponse.class);
+    }
+
+    Mono<ServerResponse> created(ServerRequest request, Object body) {
+        return EntityResponse.fromObject(body(request, body)).status(HttpStatus.CREATED).build().cast(ServerResponse.class);
+    }
+
+    static Mono<ServerResponse> serverError() {
+        return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+
+    static Mono<ServerResponse> notFound() {
+        return ServerResponse.notFound().build();
+    }
+
+    /**
+     * The batch result of a response built here; the batch as a whole gets the view, not each body.
+     */
+    private static BatchResult result(ServerResponse response) {
+        Object body = response instanceof EntityResponse<?> entity ? entity.entity() : null;
+        if (body instanceof ReferenceView view) {
+            body = view.body();
+        }
+        Map<String, String> headers = response.headers().isEmpty() ? null : response.headers().toSingleValueMap();
+        return new BatchResult(response.statusCode().value(), headers, body);
+    }
+
+    private Mono<T> body(ServerRequest request) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(new ServerWebInputException("Request body is missing")));
+    }
+
+    private static Object body(ServerRequest request, Object body) {
+        return referenceView(request) ? new ReferenceView(body) : body;
+    }
+
+    private static boolean referenceView(ServerRequest request) {
+        return ReferenceView.isRequested(request.headers().firstHeader(ReferenceView.HEADER),
+                request.queryParam(ReferenceView.PARAM).orElse(null));
+    }
+
+    static Long id(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Invalid id: " + request.pathVariable("id"));
+        }
+    }
+
+    private static <V> V queryParam(ServerRequest request, String name, Function<String, V> parse) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) return null;
+        try {
+            return parse.apply(value);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.api.reactive;
+
+import com.example.api.controller.BatchExecutor;
+import com.example.api.controller.BatchOperation;
+import com.example.api.model.Item;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+class ItemHandler extends EntityHandler<Item> {
+
+    ItemHandler(Tenants tenants, EntityTags tags, BatchExecutor batch) {
+        super(tenants, Stores::items, Item.class, tags, batch);
+    }
+
+    @Override
+    Mono<ServerResponse> create(ServerRequest request, Stores stores, Item item) {
+        if (item.getQuantity() < 0) {
+            return serverError();
+        }
+        stores.items().create(item);
+        return created(request, item);
+    }
+
+    @Override
+    Mono<ServerResponse> update(ServerRequest request, Stores stores, Long id, Item item) {
+        if (!stores.items().containsKey(id)) {
+            return notFound();
+        }
+        item.setId(id);
+        stores.items().put(id, item);
+        return ok(request, item);
+    }
+
+    @Override
+    Mono<ServerResponse> patch(ServerRequest request, Stores stores, Long id, Map<String, Object> updates) {
+        Item stored = stores.items().get(id);
+        if (stored == null) {
+            return notFound();
+        }
+        Item item = new Item(stored);  // patched as a copy, as in ItemController
+
+        if (updates.containsKey("name")) {
+            item.setName((String) updates.get("name"));
+        }
+        if (updates.containsKey("description")) {
+            item.setDescription((String) updates.get("description"));
+        }
+        if (updates.containsKey("quantity")) {
+            item.setQuantity((Integer) updates.get("quantity"));
+        }
+
+        stores.items().put(id, item);
+        return ok(request, item);
+    }
+
+    Mono<ServerResponse> head(ServerRequest request) {
+        return head(stores(request), id(request));
+    }
+
+    private static Mono<ServerResponse> head(Stores stores, Long id) {
+        return stores.items().containsKey(id) ? ServerResponse.ok().build() : notFound();
+    }
+
+    Mono<ServerResponse> options(ServerRequest request) {
+        return ServerResponse.ok().header("Allow", "GET, POST, PUT, PATCH, DELETE, HEAD, OPTIONS").build();
+    }
+
+    @Override
+    Mono<ServerResponse> execute(ServerRequest request, BatchOperation operation, Stores stores) {
+        return switch (operation.getMethod()) {
+            case "HEAD" -> operation.getId() == null
+                    ? super.execute(request, operation, stores)
+                    : head(stores, BatchExecutor.id(operation));
+            case "OPTIONS" -> operation.getId() == null
+                    ? super.execute(request, operation, stores)
+                    : options(request);
+            default -> super.execute(request, operation, stores);
+        };
+    }
+}
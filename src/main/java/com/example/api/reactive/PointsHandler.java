@@ -0,0 +1,79 @@
+package com.example.api.reactive;
+
+import com.example.api.controller.BatchExecutor;
+import com.example.api.model.Discount;
+import com.example.api.model.Point;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+class PointsHandler extends EntityHandler<Point> {
+
+    PointsHandler(Tenants tenants, EntityTags tags, BatchExecutor batch) {
+        super(tenants, Stores::points, Point.class, tags, batch);
+    }
+
+    @Override
+    Mono<ServerResponse> create(ServerRequest request, Stores stores, Point point) {
+        if (point.getDiscount() == null || point.getDiscount().getId() == null) {
+            return serverError();
+        }
+        if (!stores.discounts().containsKey(point.getDiscount().getId())) {
+            return notFound();
+        }
+
+        if (point.getPoints() < 0) {
+            return serverError();
+        }
+        stores.points().create(point);
+        return created(request, point);
+    }
+
+    @Override
+    Mono<ServerResponse> update(ServerRequest request, Stores stores, Long id, Point point) {
+        if (!stores.points().containsKey(id)) {
+            return notFound();
+        }
+        if (point.getDiscount() != null && point.getDiscount().getId() != null
+            && !stores.discounts().containsKey(point.getDiscount().getId())) {
+            return notFound();
+        }
+        point.setId(id);
+        stores.points().put(id, point);
+        return ok(request, point);
+    }
+
+    @Override
+    Mono<ServerResponse> patch(ServerRequest request, Stores stores, Long id, Map<String, Object> updates) {
+        Point stored = stores.points().get(id);
+        if (stored == null) {
+            return notFound();
+        }
+        Point point = new Point(stored);  // patched as a copy, as in ItemController
+
+        if (updates.containsKey("point")) {
+            Object pointValue = updates.get("point");
+            int newPoints = ((Number) pointValue).intValue();
+            point.setPoints(newPoints);
+        }
+
+        if (updates.containsKey("discountId")) {
+            Object itemIdValue = updates.get("discountId");
+
+            Long discountId = ((Number) itemIdValue).longValue();
+            if (!stores.discounts().containsKey(discountId)) {
+                return notFound();
+            }
+            Discount discount = stores.discounts().get(discountId);
+            point.setDiscount(discount);
+        }
+
+        stores.points().put(id, point);
+        return ok(request, point);
+    }
+}
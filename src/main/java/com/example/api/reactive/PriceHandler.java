@@ -0,0 +1,79 @@
+package com.example.api.reactive;
+
+import com.example.api.controller.BatchExecutor;
+import com.example.api.model.Item;
+import com.example.api.model.Price;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+class PriceHandler extends EntityHandler<Price> {
+
+    PriceHandler(Tenants tenants, EntityTags tags, BatchExecutor batch) {
+        super(tenants, Stores::prices, Price.class, tags, batch);
+    }
+
+    @Override
+    Mono<ServerResponse> create(ServerRequest request, Stores stores, Price price) {
+        if (price.getItem() == null || price.getItem().getId() == null) {
+            return serverError();
+        }
+        if (!stores.items().containsKey(price.getItem().getId())) {
+            return notFound();
+        }
+        // BUG: Negative price causes server error
+        if (price.getPrice() < 0) {
+            return serverError();
+        }
+        stores.prices().create(price);
+        return created(request, price);
+    }
+
+    @Override
+    Mono<ServerResponse> update(ServerRequest request, Stores stores, Long id, Price price) {
+        if (!stores.prices().containsKey(id)) {
+            return notFound();
+        }
+        if (price.getItem() != null && price.getItem().getId() != null
+            && !stores.items().containsKey(price.getItem().getId())) {
+            return notFound();
+        }
+        price.setId(id);
+        stores.prices().put(id, price);
+        return ok(request, price);
+    }
+
+    @Override
+    Mono<ServerResponse> patch(ServerRequest request, Stores stores, Long id, Map<String, Object> updates) {
+        Price stored = stores.prices().get(id);
+        if (stored == null) {
+            return notFound();
+        }
+        Price price = new Price(stored);  // patched as a copy, as in ItemController
+
+        if (updates.containsKey("price")) {
+            Object priceValue = updates.get("price");
+            double newPrice = ((Number) priceValue).doubleValue();
+            price.setPrice(newPrice);
+        }
+
+        if (updates.containsKey("itemId")) {
+            Object itemIdValue = updates.get("itemId");
+
+            Long itemId = ((Number) itemIdValue).longValue();
+            if (!stores.items().containsKey(itemId)) {
+                return notFound();
+            }
+            Item item = stores.items().get(itemId);
+            price.setItem(item);
+        }
+
+        stores.prices().put(id, price);
+        return ok(request, price);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.api.reactive;
+
+import com.example.api.controller.BatchExecutor;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * The four entity APIs on the WebFlux stack (build with {@code -Preactive}). Same paths,
+ * methods and status codes as the MVC controllers, _batch included, backed by the same
+ * per-tenant stores.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> entityRoutes(Tenants tenants, EntityTags tags, BatchExecutor batch) {
+        ItemHandler itemHandler = new ItemHandler(tenants, tags, batch);
+        return RouterFunctions.route()
+                // HEAD ahead of GET: GET predicates also match HEAD requests
+                .path("/api/items", builder -> entity(builder
+                        .HEAD("/{id}", itemHandler::head)
+                        .OPTIONS("/{id}", itemHandler::options), itemHandler))
+                .path("/api/prices", builder -> entity(builder, new PriceHandler(tenants, tags, batch)))
+                .path("/api/discounts", builder -> entity(builder, new DiscountHandler(tenants, tags, batch)))
+                .path("/api/points", builder -> entity(builder, new PointsHandler(tenants, tags, batch)))
+                .build();
+    }
+
+    private static RouterFunctions.Builder entity(RouterFunctions.Builder builder, EntityHandler<?> handler) {
+        return builder
+                .GET("", handler::getAll)
+                .GET("/{id}", handler::get)
+                .POST("", handler::create)
+                .POST("/_batch", handler::batch)
+                .PUT("/{id}", handler::update)
+                .PATCH("/{id}", handler::patch)
+                .DELETE("/{id}", handler::delete)
+                .DELETE("", handler::deleteAll)
+                .OPTIONS("", handler::allowed)
+                .OPTIONS("/{id}", handler::allowed);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.api.store;
+
+import com.example.api.model.Identifiable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log for one EntityStore, written through a memory-mapped FileChannel.
+ *
+ * Record: [int length][int crc32][byte op][long id][JSON payload]
+ *   length covers op + id + payload, crc32 covers the same bytes.
+ *   op PUT carries the entity; op DELETE (eviction, clear) has no payload.
+ *
+ * The file grows in REGION-sized mappings whose unwritten tail is zeros, so replay
+ * stops at the first zero length, short record or bad checksum: whatever was torn
+ * by a crash. Replay then truncates the file there, and so does a clean close.
+ *
+ * Appends are a memcpy into the mapping under one lock; durability is group
+ * committed by flush(), which the owner calls every fsync interval so one
+ * force() covers every record appended since the last. compact() rewrites the
+ * live entities into a fresh file once the log is mostly superseded records.
+ */
+public class EntityLog<T extends Identifiable> implements StoreListener<T>, Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int FRAME = 8;        // length + crc
+    private static final int BODY_HEADER = 9;  // op + id
+    private static final long REGION = 64L * 1024 * 1024;
+    private static final byte[] NO_PAYLOAD = new byte[0];
+
+    // Compact when records > COMPACT_RATIO * live entities, and at least COMPACT_MIN
+    private static final int COMPACT_RATIO = 4;
+    private static final long COMPACT_MIN = 10_000;
+
+    private final Path path;
+    private final Class<T> type;
+    private final ObjectMapper json;
+
+    // Guarded by this
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private long records;
+    private boolean dirty;
+    private boolean closed;
+    private final CRC32 crc = new CRC32();
+
+    private volatile boolean replaying;
+
+    public EntityLog(Path path, Class<T> type, ObjectMapper json) throws IOException {
+        this.path = path;
+        this.type = type;
+        this.json = json;
+        this.channel = open(path);
+    }
+
+    /**
+     * Rebuilds the store from the log. Call once, after attaching this log as a
+     * listener and before serving requests; the replayed writes are not re-logged.
+     */
+    public synchronized void replayInto(EntityStore<T> store) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(path + " is larger than 2 GB; compact it before restarting");
+        }
+
+        MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        long maxId = 0;
+        replaying = true;
+        try {
+            while (in.remaining() >= FRAME + BODY_HEADER) {
+                int at = in.position();
+                int length = in.getInt(at);
+                if (length < BODY_HEADER || length > in.remaining() - FRAME) break;
+                crc.reset();
+                crc.update(in.slice(at + FRAME, length));
+                if ((int) crc.getValue() != in.getInt(at + 4)) break;
+
+                byte op = in.get(at + FRAME);
+                long id = in.getLong(at + FRAME + 1);
+                if (op == PUT) {
+                    byte[] payload = new byte[length - BODY_HEADER];
+                    in.get(at + FRAME + BODY_HEADER, payload);
+                    store.put(id, json.readValue(payload, type));
+                } else {
+                    store.remove(id);
+                }
+                maxId = Math.max(maxId, id);
+                records++;
+                in.position(at + FRAME + length);
+            }
+        } finally {
+            replaying = false;
+        }
+        position = in.position();
+        if (position < size) {
+            // Drop the torn record and anything after it, or appends would
+            // overwrite it only partly and a later replay could resume past them
+            channel.truncate(position);
+            channel.force(true);
+        }
+        store.reserveIdsThrough(maxId);
+    }
+
+    @Override
+    public void stored(Long id, T entity) {
+        if (replaying) return;
+        byte[] payload;
+        try {
+            payload = json.writeValueAsBytes(entity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize " + type.getSimpleName() + " " + id, e);
+        }
+        append(PUT, id, payload);
+    }
+
+    @Override
+    public void removed(Long id) {
+        if (!replaying) {
+            append(DELETE, id, NO_PAYLOAD);
+        }
+    }
+
+    private synchronized void append(byte op, long id, byte[] payload) {
+        if (closed) return;
+        int length = BODY_HEADER + payload.length;
+        try {
+            ensureRegion(FRAME + length);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not extend " + path, e);
+        }
+        int at = (int) (position - regionStart);
+        writeRecord(region, at, op, id, payload);
+        position += FRAME + length;
+        records++;
+        dirty = true;
+    }
+
+    /**
+     * Writes the body first and the length last, so a torn record never has a valid frame.
+     */
+    private void writeRecord(ByteBuffer buf, int at, byte op, long id, byte[] payload) {
+        int length = BODY_HEADER + payload.length;
+        buf.put(at + FRAME, op);
+        buf.putLong(at + FRAME + 1, id);
+        buf.put(at + FRAME + BODY_HEADER, payload);
+        crc.reset();
+        crc.update(buf.slice(at + FRAME, length));
+        buf.putInt(at + 4, (int) crc.getValue());
+        buf.putInt(at, length);
+    }
+
+    private void ensureRegion(int bytes) throws IOException {
+        if (region != null && position + bytes <= regionStart + region.capacity()) return;
+        if (region != null && dirty) {
+            region.force();  // the flusher only sees the current mapping
+        }
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(REGION, bytes));
+        regionStart = position;
+    }
+
+    /**
+     * Group commit: one force() for every record appended since the last call.
+     */
+    public void flush() {
+        MappedByteBuffer toForce;
+        synchronized (this) {
+            if (!dirty || closed) return;
+            dirty = false;
+            toForce = region;
+        }
+        toForce.force();  // outside the lock, appends keep going
+    }
+
+    public synchronized boolean needsCompaction(EntityStore<T> store) {
+        return records >= COMPACT_MIN && records > (long) COMPACT_RATIO * store.getSize();
+    }
+
+    /**
+     * Rewrites the store's live entities into a new file and swaps it in.
+     *
+     * Appends block meanwhile. Writers that changed the map but are still waiting
+     * on the lock append after the swap; replay is last-writer-wins per id, so a
+     * record duplicated into both the snapshot and the tail is harmless. If the
+     * rewrite or the swap fails, the old file stays the live log.
+     */
+    public synchronized void compact(EntityStore<T> store) throws IOException {
+        if (closed) return;
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        long written = 0;
+        // Kept open across the move: the channel follows the file, so it becomes the live
+        // log without a reopen that could fail after the old channel is gone
+        FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            for (T entity : store.list(null, Integer.MAX_VALUE)) {
+                byte[] payload = json.writeValueAsBytes(entity);
+                ByteBuffer buf = ByteBuffer.allocate(FRAME + BODY_HEADER + payload.length);
+                writeRecord(buf, 0, PUT, entity.getId(), payload);
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+                written++;
+            }
+            out.force(true);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // The old log is untouched and still live; appends carry on into it
+            out.close();
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        // The old file is unlinked now; nothing left to force or truncate
+        FileChannel old = channel;
+        channel = out;
+        region = null;
+        dirty = false;
+        position = out.size();
+        records = written;
+        old.close();
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        closeChannel();
+    }
+
+    private void closeChannel() throws IOException {
+        if (region != null) {
+            region.force();
+            region = null;
+        }
+        channel.truncate(position);
+        channel.force(true);
+        channel.close();
+        dirty = false;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
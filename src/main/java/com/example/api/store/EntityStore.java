@@ -0,0 +1,536 @@
+package com.example.api.store;
+
+import com.example.api.model.Identifiable;
+import com.example.api.store.offheap.OffHeapCodec;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Id-ordered in-memory entity store with an optional capacity.
+ *
+ * Map-like surface (get / containsKey / put / clear) so controllers read as before,
+ * plus create() which owns id generation. Entries sit in a ConcurrentSkipListMap,
+ * which keeps GET-all pagination an O(log n) seek.
+ *
+ * With capacity > 0 the store evicts with CLOCK once full: each entry carries a
+ * referenced bit set on insert and on access, and a hand sweeps the map in id
+ * order, clearing set bits and evicting the first entry found clear. Reads stay
+ * lock-free; only the sweep is serialized, and it runs only on inserts past
+ * capacity.
+ *
+ * Writes for one id are serialized on a lock stripe, and StoreListeners (e.g.
+ * ReferenceIndex) are called under it, so secondary indexes see every id's
+ * writes in the same order as the primary map.
+ *
+ * Given an OffHeapCodec, entities are kept as off-heap rows instead of heap
+ * objects; the heap holds only the index (id -> slot). get() then materializes
+ * a copy, guarded by a per-entry seqlock: writers bump the version to odd,
+ * write, and bump it back to even; readers retry if it moved underneath them.
+ * Mutating a returned copy has no effect until it is put() back.
+ *
+ * Every change bumps a store-wide version, and each entry keeps the version of
+ * its last write, for ETags. Versions are published after the change they
+ * count, so a reader that reads the version first never pairs a newer version
+ * with older content.
+ *
+ * A store restored from a StoreSnapshot starts as a copy-on-write overlay on
+ * it: nothing is copied up front, so the restore is O(1) whatever the snapshot
+ * holds. An entity is linked in from the snapshot on its first access by id or
+ * listing, and from then on lives here like any other; removing it hides the
+ * snapshot's entry. Entities still only in the snapshot count as unreferenced,
+ * so eviction hides them first, and clear() drops the snapshot outright.
+ *
+ * Heap entities are never mutated once stored: every write put()s a new
+ * instance (PATCH patches a copy). So snapshots and the stores restored from
+ * them share entity instances instead of copying them; only the id -> entity
+ * structure is per store.
+ */
+public class EntityStore<T extends Identifiable> {
+
+    private static final class Node<T> {
+        volatile T value;       // heap mode
+        final int slot;         // off-heap mode, else -1
+        volatile int version;   // off-heap seqlock: odd while writing, DEAD once freed
+        volatile boolean referenced;
+        volatile long stamp;    // store version of the last write, 0 until published
+
+        Node(T value, int slot) {
+            this.value = value;
+            this.slot = slot;
+        }
+
+        void touch() {
+            if (!referenced) referenced = true;  // skip the write when already set
+        }
+    }
+
+    private static final int STRIPES = 64;
+    private static final int DEAD = -1;
+
+    private final String name;
+    private final int capacity;
+    private final OffHeapCodec<T> codec;  // null = entities stay on heap
+    private final ConcurrentNavigableMap<Long, Node<T>> entries = new ConcurrentSkipListMap<>();
+    private final AtomicLong idCounter = new AtomicLong(1);
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong modifications = new AtomicLong();
+    private final List<StoreListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    // Copy-on-write base; null once cleared. shadowed holds its ids copied in or removed here.
+    private volatile StoreSnapshot<T> base;
+    private final Set<Long> shadowed = ConcurrentHashMap.newKeySet();
+
+    // Guarded by itself
+    private final Object clock = new Object();
+    private long hand;
+    private long snapshotHand;
+
+    /**
+     * @param capacity maximum entries, or 0 for unbounded
+     */
+    public EntityStore(String name, int capacity) {
+        this(name, capacity, null);
+    }
+
+    /**
+     * @param codec off-heap row layout for T, or null to keep entities on heap
+     */
+    public EntityStore(String name, int capacity, OffHeapCodec<T> codec) {
+        this(name, capacity, codec, null);
+    }
+
+    /**
+     * @param base snapshot to start from, shared rather than copied; null starts empty
+     */
+    public EntityStore(String name, int capacity, OffHeapCodec<T> codec, StoreSnapshot<T> base) {
+        this.name = name;
+        this.capacity = Math.max(0, capacity);
+        this.codec = codec;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        if (base != null) {
+            this.base = base;
+            idCounter.set(base.nextId());
+            modifications.set(base.version());
+            size.set(base.size());
+        }
+    }
+
+    /**
+     * Registers the listener and catches it up with the entities already stored.
+     *
+     * On a restored store that excludes entities still only in the snapshot: the
+     * listener gets stored() for each only once it is accessed and copied in,
+     * removed() without a stored() if eviction hides it first, and nothing for
+     * those clear() drops unread. Listeners that need them all must start from
+     * the snapshot, as a ReferenceIndex starts from its frozen relation.
+     */
+    public void addListener(StoreListener<T> listener) {
+        listeners.add(listener);
+        for (Map.Entry<Long, Node<T>> entry : entries.entrySet()) {
+            synchronized (stripe(entry.getKey())) {
+                Node<T> node = entries.get(entry.getKey());
+                if (node != null) {
+                    listener.stored(entry.getKey(), read(node));
+                }
+            }
+        }
+    }
+
+    public T get(Long id) {
+        Node<T> node = node(id);
+        if (node == null) return null;
+        node.touch();
+        return read(node);
+    }
+
+    public boolean containsKey(Long id) {
+        Node<T> node = node(id);
+        if (node == null) return false;
+        node.touch();
+        return true;
+    }
+
+    /**
+     * Assigns the next id and stores the entity.
+     */
+    public T create(T entity) {
+        Long id = idCounter.getAndIncrement();
+        entity.setId(id);
+        put(id, entity);
+        return entity;
+    }
+
+    /**
+     * Inserts or replaces the entity under id.
+     */
+    public void put(Long id, T entity) {
+        boolean inserted;
+        synchronized (stripe(id)) {
+            Node<T> existing = node(id);
+            if (existing != null) {
+                write(existing, entity);
+                existing.touch();
+                existing.stamp = modifications.incrementAndGet();
+                inserted = false;
+            } else {
+                Node<T> node = new Node<>(null, codec != null ? codec.allocate() : -1);
+                write(node, entity);
+                node.referenced = true;  // else a hand already past every id would evict it next
+                entries.put(id, node);
+                node.stamp = modifications.incrementAndGet();
+                size.incrementAndGet();
+                inserted = true;
+            }
+            for (StoreListener<T> listener : listeners) {
+                listener.stored(id, entity);
+            }
+        }
+        // Outside the stripe: the sweep takes stripes while holding the clock lock
+        if (inserted) {
+            evictIfFull();
+        }
+    }
+
+    /**
+     * Makes create() hand out ids above id, e.g. after a replay.
+     */
+    public void reserveIdsThrough(long id) {
+        idCounter.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Removes without counting an eviction. Only log replay deletes entities.
+     */
+    void remove(Long id) {
+        synchronized (stripe(id)) {
+            node(id);  // copies a snapshot-only entity in, so removing it shadows the snapshot's
+            Node<T> node = entries.remove(id);
+            if (node != null) {
+                release(node);
+                modifications.incrementAndGet();
+                size.decrementAndGet();
+                notifyRemoved(id);
+            }
+        }
+    }
+
+    public void clear() {
+        if (base != null) {
+            dropBase(0);
+        }
+        for (Long id : entries.keySet()) {
+            synchronized (stripe(id)) {
+                Node<T> node = entries.remove(id);
+                if (node != null) {
+                    release(node);
+                    modifications.incrementAndGet();
+                    size.decrementAndGet();
+                    notifyRemoved(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Up to max entities with id greater than cursor (or from the start), in id order.
+     */
+    public List<T> list(Long cursor, int max) {
+        NavigableMap<Long, Node<T>> view = cursor == null ? entries : entries.tailMap(cursor, false);
+        StoreSnapshot<T> frozen = base;
+        if (frozen != null) return listOverlay(view, frozen, cursor, max);
+        List<T> out = new ArrayList<>(Math.min(max, 64));
+        for (Node<T> node : view.values()) {
+            if (out.size() == max) break;
+            T entity = read(node);
+            if (entity != null) out.add(entity);
+        }
+        return out;
+    }
+
+    /**
+     * Store-wide version: changes whenever an entity is stored or removed.
+     */
+    public long getVersion() {
+        return modifications.get();
+    }
+
+    /**
+     * Version of the entity's last write, or 0 if absent. Counts as an access.
+     */
+    public long getVersion(Long id) {
+        Node<T> node = node(id);
+        if (node == null) return 0;
+        node.touch();
+        return node.stamp;
+    }
+
+    /**
+     * Frozen view of every entity in the store, with the current id counter and
+     * version. O(n log n) in map entries; the entities themselves are shared,
+     * not copied, as stored ones are never mutated. Not atomic with concurrent
+     * writes.
+     */
+    public StoreSnapshot<T> snapshot() {
+        long version = modifications.get();
+        long nextId = idCounter.get();
+        TreeMap<Long, StoreSnapshot.Entry<T>> copy = new TreeMap<>();
+        StoreSnapshot<T> frozen = base;
+        if (frozen != null) {
+            // Already frozen, so shared as-is
+            frozen.entries().forEach((id, entry) -> {
+                if (!shadowed.contains(id)) copy.put(id, entry);
+            });
+        }
+        for (Map.Entry<Long, Node<T>> entry : entries.entrySet()) {
+            Node<T> node = entry.getValue();
+            T entity = read(node);
+            if (entity != null) {
+                copy.put(entry.getKey(), new StoreSnapshot.Entry<>(entity, node.stamp));
+            }
+        }
+        return new StoreSnapshot<>(copy, nextId, version);
+    }
+
+    /**
+     * Whether id is still served from the snapshot this store was restored from,
+     * i.e. neither copied in nor removed yet.
+     */
+    public boolean isFromSnapshot(Long id) {
+        StoreSnapshot<T> frozen = base;
+        return frozen != null && frozen.contains(id) && !shadowed.contains(id) && !entries.containsKey(id);
+    }
+
+    public String getName() { return name; }
+    public int getCapacity() { return capacity; }
+    public int getSize() { return size.get(); }
+    public long getEvictions() { return evictions.sum(); }
+    public boolean isOffHeap() { return codec != null; }
+    public long getOffHeapBytes() { return codec != null ? codec.offHeapBytes() : 0; }
+
+    private void evictIfFull() {
+        if (capacity == 0) return;
+        while (size.get() > capacity) {
+            synchronized (clock) {
+                if (size.get() > capacity) {
+                    evictOne();
+                }
+            }
+        }
+    }
+
+    /**
+     * One CLOCK step to a victim. Every referenced entry passed loses its bit, so a
+     * full revolution always finds one.
+     */
+    private void evictOne() {
+        if (evictFromSnapshot()) return;
+        while (true) {
+            Map.Entry<Long, Node<T>> entry = entries.higherEntry(hand);
+            if (entry == null) {
+                entry = entries.firstEntry();
+                if (entry == null) return;
+            }
+            hand = entry.getKey();
+            Node<T> node = entry.getValue();
+            if (node.referenced) {
+                node.referenced = false;
+            } else {
+                synchronized (stripe(hand)) {
+                    if (entries.remove(hand, node)) {
+                        release(node);
+                        modifications.incrementAndGet();
+                        size.decrementAndGet();
+                        evictions.increment();
+                        notifyRemoved(hand);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // ========================== Snapshot base ==========================
+
+    /**
+     * The id's node, first linking it in from the snapshot if it is still only there.
+     */
+    private Node<T> node(Long id) {
+        Node<T> node = entries.get(id);
+        if (node != null || base == null) return node;
+        synchronized (stripe(id)) {
+            node = entries.get(id);
+            StoreSnapshot<T> frozen = base;
+            if (node != null || frozen == null || shadowed.contains(id)) return node;
+            StoreSnapshot.Entry<T> entry = frozen.get(id);
+            if (entry == null) return null;
+            T entity = entry.value();  // shared on heap, written to a fresh row off heap
+            node = new Node<>(null, codec != null ? codec.allocate() : -1);
+            write(node, entity);
+            node.stamp = entry.stamp();
+            entries.put(id, node);
+            shadowed.add(id);
+            for (StoreListener<T> listener : listeners) {
+                listener.stored(id, entity);
+            }
+            return node;
+        }
+    }
+
+    /**
+     * list() over a restored store: merges the store's ids with the snapshot's
+     * unshadowed ones, copying the latter in as they are listed.
+     */
+    private List<T> listOverlay(NavigableMap<Long, Node<T>> view, StoreSnapshot<T> frozen, Long cursor, int max) {
+        List<T> out = new ArrayList<>(Math.min(max, 64));
+        Iterator<Long> own = view.keySet().iterator();
+        Iterator<Long> snapshotted = frozen.idsAfter(cursor).iterator();
+        Long nextOwn = own.hasNext() ? own.next() : null;
+        Long nextSnapshotted = nextFromSnapshot(snapshotted);
+        long last = Long.MIN_VALUE;
+        while (out.size() < max && (nextOwn != null || nextSnapshotted != null)) {
+            Long id;
+            if (nextSnapshotted == null || (nextOwn != null && nextOwn <= nextSnapshotted)) {
+                id = nextOwn;
+                nextOwn = own.hasNext() ? own.next() : null;
+            } else {
+                id = nextSnapshotted;
+                nextSnapshotted = nextFromSnapshot(snapshotted);
+            }
+            if (id <= last) continue;  // copied in while both iterators held it
+            last = id;
+            Node<T> node = node(id);
+            T entity = node != null ? read(node) : null;
+            if (entity != null) out.add(entity);
+        }
+        return out;
+    }
+
+    /**
+     * Entries still only in the snapshot haven't been accessed since the restore,
+     * so they are evicted first, in id order, by hiding them. Caller holds clock.
+     */
+    private boolean evictFromSnapshot() {
+        StoreSnapshot<T> frozen = base;
+        if (frozen == null) return false;
+        Iterator<Long> ids = frozen.idsAfter(snapshotHand).iterator();
+        Long id;
+        while ((id = nextFromSnapshot(ids)) != null) {
+            snapshotHand = id;
+            synchronized (stripe(id)) {
+                if (base == frozen && !entries.containsKey(id) && shadowed.add(id)) {
+                    modifications.incrementAndGet();
+                    size.decrementAndGet();
+                    evictions.increment();
+                    notifyRemoved(id);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the snapshot holding every stripe, from index i on, so no node()
+     * links an entity in or evicts one between reading what is shadowed and
+     * forgetting it.
+     */
+    private void dropBase(int i) {
+        if (i < STRIPES) {
+            synchronized (stripes[i]) {
+                dropBase(i + 1);
+            }
+            return;
+        }
+        StoreSnapshot<T> dropped = base;
+        if (dropped == null) return;
+        base = null;
+        size.addAndGet(-(dropped.size() - shadowed.size()));
+        shadowed.clear();
+        modifications.incrementAndGet();
+    }
+
+    private Long nextFromSnapshot(Iterator<Long> ids) {
+        while (ids.hasNext()) {
+            Long id = ids.next();
+            if (!shadowed.contains(id)) return id;
+        }
+        return null;
+    }
+
+    // ========================== Values ==========================
+
+    /**
+     * The stored entity, or null if the entry was removed while reading.
+     */
+    private T read(Node<T> node) {
+        if (codec == null) return node.value;
+        while (true) {
+            int version = node.version;
+            if (version == DEAD) return null;
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            T entity;
+            try {
+                entity = codec.read(node.slot);
+            } catch (RuntimeException e) {
+                if (node.version == version) throw e;
+                continue;  // decoded a half-written row
+            }
+            VarHandle.acquireFence();  // row reads above may not drift past the recheck
+            if (node.version == version) return entity;
+        }
+    }
+
+    /**
+     * Caller holds the entry's stripe.
+     */
+    private void write(Node<T> node, T entity) {
+        if (codec == null) {
+            node.value = entity;
+            return;
+        }
+        node.version++;
+        VarHandle.storeStoreFence();  // odd version is visible before any row write
+        codec.write(node.slot, entity);
+        node.version++;
+    }
+
+    /**
+     * Caller holds the entry's stripe and has unlinked the node.
+     */
+    private void release(Node<T> node) {
+        if (codec == null) return;
+        node.version = DEAD;
+        codec.free(node.slot);
+    }
+
+    private void notifyRemoved(Long id) {
+        for (StoreListener<T> listener : listeners) {
+            listener.removed(id);
+        }
+    }
+
+    private Object stripe(Long id) {
+        return stripes[Long.hashCode(id) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.api.store;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Secondary index from parent id to the ids of child entities referencing it
+ * (itemId -> prices, priceId -> discounts, discountId -> points).
+ *
+ * Registered as a StoreListener on the child store, so it moves with every put,
+ * eviction and clear. It remembers each child's current parent itself, so a put
+ * can unlink the old parent without reading the replaced entity back (an
+ * off-heap read would materialize it). Lookups are O(1) regardless of store size.
+ *
+ * An index over a store restored from a snapshot starts from the relation
+ * frozen with it. A frozen child still counts only while the store serves it
+ * from the snapshot; once copied in or removed, the listener calls take over.
+ */
+public class ReferenceIndex<T> implements StoreListener<T> {
+
+    private final Function<T, Long> parentOf;
+    private final Map<Long, Set<Long>> children = new ConcurrentHashMap<>();
+    private final Map<Long, Long> parents = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> base;
+    private final Predicate<Long> inBase;
+
+    public ReferenceIndex(Function<T, Long> parentOf) {
+        this(parentOf, Map.of(), id -> false);
+    }
+
+    /**
+     * @param base frozen parent -> children relation, see freeze()
+     * @param inBase whether a child is still served from the snapshot
+     */
+    public ReferenceIndex(Function<T, Long> parentOf, Map<Long, Set<Long>> base, Predicate<Long> inBase) {
+        this.parentOf = parentOf;
+        this.base = base;
+        this.inBase = inBase;
+    }
+
+    /**
+     * Snapshot of the child ids currently referencing parentId.
+     */
+    public Set<Long> childrenOf(Long parentId) {
+        Set<Long> ids = children.get(parentId);
+        Set<Long> frozen = base.get(parentId);
+        if (frozen == null) return ids != null ? Set.copyOf(ids) : Collections.emptySet();
+        Set<Long> all = ids != null ? new HashSet<>(ids) : new HashSet<>();
+        for (Long id : frozen) {
+            if (inBase.test(id)) all.add(id);
+        }
+        return Set.copyOf(all);
+    }
+
+    /**
+     * Immutable copy of the whole relation, for a snapshot of the store. O(n).
+     */
+    public Map<Long, Set<Long>> freeze() {
+        Map<Long, Set<Long>> frozen = new HashMap<>();
+        for (Long parent : children.keySet()) {
+            frozen.put(parent, childrenOf(parent));
+        }
+        for (Long parent : base.keySet()) {
+            frozen.computeIfAbsent(parent, this::childrenOf);
+        }
+        frozen.values().removeIf(Set::isEmpty);
+        return Map.copyOf(frozen);
+    }
+
+    @Override
+    public void stored(Long id, T entity) {
+        Long parent = parentOf.apply(entity);
+        Long previous = parent != null ? parents.put(id, parent) : parents.remove(id);
+        if (Objects.equals(previous, parent)) return;
+        if (previous != null) unlink(previous, id);
+        if (parent != null) link(parent, id);
+    }
+
+    @Override
+    public void removed(Long id) {
+        Long previous = parents.remove(id);
+        if (previous != null) unlink(previous, id);
+    }
+
+    // compute() keeps add/remove atomic per parent, so a set emptied and dropped
+    // by one thread can't swallow another thread's add
+    private void link(Long parent, Long child) {
+        children.compute(parent, (k, ids) -> {
+            if (ids == null) ids = ConcurrentHashMap.newKeySet();
+            ids.add(child);
+            return ids;
+        });
+    }
+
+    private void unlink(Long parent, Long child) {
+        children.computeIfPresent(parent, (k, ids) -> {
+            ids.remove(child);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
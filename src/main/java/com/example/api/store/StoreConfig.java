@@ -0,0 +1,88 @@
+package com.example.api.store;
+
+import com.example.api.model.Discount;
+import com.example.api.model.Item;
+import com.example.api.model.Point;
+import com.example.api.model.Price;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One EntityStore per entity type. store.capacity bounds each of them
+ * (default 0: unbounded, the original grow-forever behavior).
+ * Each child store also maintains a ReferenceIndex back to its parent.
+ * With store.persistence.dir set, every store is rebuilt from and logged to
+ * an append-only file there. store.off-heap keeps entity rows off-heap.
+ * These are the default tenant's stores; Tenants hands out in-memory sets for
+ * requests with an X-Tenant header, at most store.tenants.max of them (default
+ * 1024, 0: unbounded), evicting the least recently used.
+ */
+@Configuration
+public class StoreConfig {
+
+    @Bean
+    public StorePersistence storePersistence(@Value("${store.persistence.dir:}") String dir,
+                                             @Value("${store.persistence.fsync-ms:100}") long fsyncMillis,
+                                             @Value("${store.persistence.compact-ms:60000}") long compactMillis,
+                                             ObjectMapper objectMapper) {
+        return new StorePersistence(dir, fsyncMillis, compactMillis, objectMapper);
+    }
+
+    @Bean
+    public StoreFactory storeFactory(@Value("${store.capacity:0}") int capacity,
+                                     @Value("${store.off-heap:false}") boolean offHeap) {
+        return new StoreFactory(capacity, offHeap);
+    }
+
+    @Bean
+    public EntityStore<Item> itemStore(StorePersistence persistence, StoreFactory factory) {
+        return persistence.attach(factory.items(null), Item.class);
+    }
+
+    @Bean
+    public EntityStore<Price> priceStore(StorePersistence persistence, StoreFactory factory) {
+        return persistence.attach(factory.prices(null), Price.class);
+    }
+
+    @Bean
+    public EntityStore<Discount> discountStore(StorePersistence persistence, StoreFactory factory) {
+        return persistence.attach(factory.discounts(null), Discount.class);
+    }
+
+    @Bean
+    public EntityStore<Point> pointStore(StorePersistence persistence, StoreFactory factory) {
+        return persistence.attach(factory.points(null), Point.class);
+    }
+
+    @Bean
+    public ReferenceIndex<Price> pricesByItem(EntityStore<Price> priceStore) {
+        return StoreFactory.indexPricesByItem(priceStore);
+    }
+
+    @Bean
+    public ReferenceIndex<Discount> discountsByPrice(EntityStore<Discount> discountStore) {
+        return StoreFactory.indexDiscountsByPrice(discountStore);
+    }
+
+    @Bean
+    public ReferenceIndex<Point> pointsByDiscount(EntityStore<Point> pointStore) {
+        return StoreFactory.indexPointsByDiscount(pointStore);
+    }
+
+    /**
+     * The beans above are the default tenant; other tenants get fresh, unpersisted
+     * stores from the factory.
+     */
+    @Bean
+    public Tenants tenants(@Value("${store.tenants.max:1024}") int maxTenants,
+                           StoreFactory factory, EntityStore<Item> itemStore, EntityStore<Price> priceStore,
+                           EntityStore<Discount> discountStore, EntityStore<Point> pointStore,
+                           ReferenceIndex<Price> pricesByItem, ReferenceIndex<Discount> discountsByPrice,
+                           ReferenceIndex<Point> pointsByDiscount) {
+        Stores defaults = new Stores(0, itemStore, priceStore, discountStore, pointStore,
+                pricesByItem, discountsByPrice, pointsByDiscount);
+        return new Tenants(defaults, factory, maxTenants);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.api.store;
+
+import com.example.api.model.Discount;
+import com.example.api.model.Identifiable;
+import com.example.api.model.Item;
+import com.example.api.model.Point;
+import com.example.api.model.Price;
+import com.example.api.store.offheap.OffHeapCodec;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Builds stores with the configured capacity and layout: the default tenant's,
+ * other tenants' (empty or restored from a snapshot), and snapshots of them.
+ */
+public class StoreFactory {
+
+    private static final Function<Price, Long> PRICE_PARENT =
+            p -> p.getItem() != null ? p.getItem().getId() : null;
+    private static final Function<Discount, Long> DISCOUNT_PARENT =
+            d -> d.getPrice() != null ? d.getPrice().getId() : null;
+    private static final Function<Point, Long> POINT_PARENT =
+            p -> p.getDiscount() != null ? p.getDiscount().getId() : null;
+
+    private final int capacity;
+    private final boolean offHeap;
+
+    public StoreFactory(int capacity, boolean offHeap) {
+        this.capacity = capacity;
+        this.offHeap = offHeap;
+    }
+
+    public EntityStore<Item> items(StoreSnapshot<Item> base) {
+        return new EntityStore<>("items", capacity, offHeap ? OffHeapCodec.items() : null, base);
+    }
+
+    public EntityStore<Price> prices(StoreSnapshot<Price> base) {
+        return new EntityStore<>("prices", capacity, offHeap ? OffHeapCodec.prices() : null, base);
+    }
+
+    public EntityStore<Discount> discounts(StoreSnapshot<Discount> base) {
+        return new EntityStore<>("discounts", capacity, offHeap ? OffHeapCodec.discounts() : null, base);
+    }
+
+    public EntityStore<Point> points(StoreSnapshot<Point> base) {
+        return new EntityStore<>("points", capacity, offHeap ? OffHeapCodec.points() : null, base);
+    }
+
+    /**
+     * A tenant's stores: empty, or layered over the snapshot in O(1).
+     */
+    public Stores create(long generation, TenantSnapshot from) {
+        if (from == null) {
+            EntityStore<Price> prices = prices(null);
+            EntityStore<Discount> discounts = discounts(null);
+            EntityStore<Point> points = points(null);
+            return new Stores(generation, items(null), prices, discounts, points,
+                    indexPricesByItem(prices), indexDiscountsByPrice(discounts), indexPointsByDiscount(points));
+        }
+        EntityStore<Price> prices = prices(from.prices());
+        EntityStore<Discount> discounts = discounts(from.discounts());
+        EntityStore<Point> points = points(from.points());
+        return new Stores(generation, items(from.items()), prices, discounts, points,
+                index(prices, PRICE_PARENT, from.pricesByItem()),
+                index(discounts, DISCOUNT_PARENT, from.discountsByPrice()),
+                index(points, POINT_PARENT, from.pointsByDiscount()));
+    }
+
+    /**
+     * Freezes the stores' current contents, sharing their entities. O(n log n)
+     * in entries, one store at a time, so take it while the tenant is idle.
+     */
+    public TenantSnapshot snapshot(Stores stores) {
+        return new TenantSnapshot(
+                stores.items().snapshot(),
+                stores.prices().snapshot(),
+                stores.discounts().snapshot(),
+                stores.points().snapshot(),
+                stores.pricesByItem().freeze(),
+                stores.discountsByPrice().freeze(),
+                stores.pointsByDiscount().freeze());
+    }
+
+    // ========================== Reference indexes ==========================
+
+    public static ReferenceIndex<Price> indexPricesByItem(EntityStore<Price> priceStore) {
+        return index(priceStore, PRICE_PARENT, Map.of());
+    }
+
+    public static ReferenceIndex<Discount> indexDiscountsByPrice(EntityStore<Discount> discountStore) {
+        return index(discountStore, DISCOUNT_PARENT, Map.of());
+    }
+
+    public static ReferenceIndex<Point> indexPointsByDiscount(EntityStore<Point> pointStore) {
+        return index(pointStore, POINT_PARENT, Map.of());
+    }
+
+    private static <T extends Identifiable> ReferenceIndex<T> index(EntityStore<T> store, Function<T, Long> parentOf,
+                                                                    Map<Long, Set<Long>> base) {
+        ReferenceIndex<T> index = new ReferenceIndex<>(parentOf, base, store::isFromSnapshot);
+        store.addListener(index);
+        return index;
+    }
+}
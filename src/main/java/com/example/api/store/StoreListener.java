@@ -0,0 +1,19 @@
+package com.example.api.store;
+
+/**
+ * Observes EntityStore writes. Called under the store's lock for that id, so
+ * calls for one id never interleave; keep implementations short and non-blocking.
+ */
+public interface StoreListener<T> {
+
+    /**
+     * The entity under id was inserted or replaced. The replaced entity is not
+     * passed; a listener that needs its fields has to remember them.
+     */
+    void stored(Long id, T entity);
+
+    /**
+     * The entity under id was evicted or cleared.
+     */
+    void removed(Long id);
+}
@@ -0,0 +1,113 @@
+package com.example.api.store;
+
+import com.example.api.model.Identifiable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional durability for the entity stores: one EntityLog per store under dir,
+ * plus a single background thread that group-commits (fsync every fsyncMillis,
+ * 0 = leave write-back to the OS) and checks for compaction every compactMillis.
+ *
+ * With no dir configured attach() is a no-op and the stores stay in-memory only.
+ */
+public class StorePersistence implements AutoCloseable {
+
+    private record Attached<T extends Identifiable>(EntityStore<T> store, EntityLog<T> log) {
+        void compactIfNeeded() throws IOException {
+            if (log.needsCompaction(store)) {
+                log.compact(store);
+            }
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(StorePersistence.class);
+
+    private final Path dir;
+    private final ObjectMapper json;
+    private final List<Attached<?>> attached = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    public StorePersistence(String dir, long fsyncMillis, long compactMillis, ObjectMapper json) {
+        this.dir = dir == null || dir.isBlank() ? null : Path.of(dir);
+        this.json = json;
+        if (this.dir == null) {
+            this.scheduler = null;
+            return;
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "store-log");
+            t.setDaemon(true);
+            return t;
+        });
+        if (fsyncMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::flushAll, fsyncMillis, fsyncMillis, TimeUnit.MILLISECONDS);
+        }
+        if (compactMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::compactAll, compactMillis, compactMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Replays the store's log into it and logs every write from now on.
+     */
+    public <T extends Identifiable> EntityStore<T> attach(EntityStore<T> store, Class<T> type) {
+        if (dir == null) return store;
+        try {
+            Files.createDirectories(dir);
+            EntityLog<T> log = new EntityLog<>(dir.resolve(store.getName() + ".log"), type, json);
+            store.addListener(log);
+            log.replayInto(store);
+            attached.add(new Attached<>(store, log));
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open log for " + store.getName(), e);
+        }
+    }
+
+    private void flushAll() {
+        for (Attached<?> a : attached) {
+            a.log().flush();
+        }
+    }
+
+    private void compactAll() {
+        for (Attached<?> a : attached) {
+            try {
+                a.compactIfNeeded();
+            } catch (IOException e) {
+                LOG.warn("Compaction of {} failed; keeping the current log", a.store().getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Attached<?> a : attached) {
+            a.log().close();
+        }
+    }
+}
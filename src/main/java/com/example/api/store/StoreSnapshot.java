@@ -0,0 +1,53 @@
+package com.example.api.store;
+
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+
+/**
+ * Frozen, id-ordered view of one EntityStore, with the id counter and version
+ * it was taken at. Never written after construction, and neither are the
+ * entities it holds, so any number of stores restored from it share it, and
+ * the entities, as their copy-on-write base.
+ */
+public final class StoreSnapshot<T> {
+
+    /**
+     * An entity as snapshotted, with the version of its last write.
+     */
+    record Entry<T>(T value, long stamp) {}
+
+    private final NavigableMap<Long, Entry<T>> entries;
+    private final long nextId;
+    private final long version;
+
+    StoreSnapshot(TreeMap<Long, Entry<T>> entries, long nextId, long version) {
+        this.entries = Collections.unmodifiableNavigableMap(entries);
+        this.nextId = nextId;
+        this.version = version;
+    }
+
+    Entry<T> get(Long id) {
+        return entries.get(id);
+    }
+
+    boolean contains(Long id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Ids greater than cursor (or all of them), ascending.
+     */
+    NavigableSet<Long> idsAfter(Long cursor) {
+        return cursor == null ? entries.navigableKeySet() : entries.navigableKeySet().tailSet(cursor, false);
+    }
+
+    NavigableMap<Long, Entry<T>> entries() {
+        return entries;
+    }
+
+    long nextId() { return nextId; }
+    long version() { return version; }
+    public int size() { return entries.size(); }
+}
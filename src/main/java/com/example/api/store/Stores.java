@@ -0,0 +1,37 @@
+package com.example.api.store;
+
+import com.example.api.model.Discount;
+import com.example.api.model.Item;
+import com.example.api.model.Point;
+import com.example.api.model.Price;
+
+import java.util.List;
+
+/**
+ * One tenant's world: the four entity stores and the reference indexes over
+ * them. generation is unique per instance (0 for the default tenant), so a
+ * tenant that is reset and recreated never reuses the ETags of its earlier stores.
+ */
+public record Stores(long generation,
+                     EntityStore<Item> items,
+                     EntityStore<Price> prices,
+                     EntityStore<Discount> discounts,
+                     EntityStore<Point> points,
+                     ReferenceIndex<Price> pricesByItem,
+                     ReferenceIndex<Discount> discountsByPrice,
+                     ReferenceIndex<Point> pointsByDiscount) {
+
+    /**
+     * Stores whose entities the given store's entities embed, nearest first.
+     */
+    public List<EntityStore<?>> parentsOf(EntityStore<?> store) {
+        if (store == prices) return List.of(items);
+        if (store == discounts) return List.of(prices, items);
+        if (store == points) return List.of(discounts, prices, items);
+        return List.of();
+    }
+
+    public List<EntityStore<?>> all() {
+        return List.of(items, prices, discounts, points);
+    }
+}
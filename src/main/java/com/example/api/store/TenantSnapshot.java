@@ -0,0 +1,22 @@
+package com.example.api.store;
+
+import com.example.api.model.Discount;
+import com.example.api.model.Item;
+import com.example.api.model.Point;
+import com.example.api.model.Price;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Frozen copy of one tenant's Stores, taken store by store. Restoring it hands
+ * a tenant new stores layered over these, in O(1).
+ */
+public record TenantSnapshot(StoreSnapshot<Item> items,
+                             StoreSnapshot<Price> prices,
+                             StoreSnapshot<Discount> discounts,
+                             StoreSnapshot<Point> points,
+                             Map<Long, Set<Long>> pricesByItem,
+                             Map<Long, Set<Long>> discountsByPrice,
+                             Map<Long, Set<Long>> pointsByDiscount) {
+}
@@ -0,0 +1,156 @@
+package com.example.api.store;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of per-tenant stores, keyed by the X-Tenant request header.
+ *
+ *   GET /api/items                      default tenant (the persisted store beans)
+ *   GET /api/items   X-Tenant: agent-3  agent-3's own stores, created on first use
+ *
+ * Tenants other than the default are in-memory only, with the same capacity and
+ * layout settings. reset() drops a tenant's stores from the map, which is O(1)
+ * whatever they hold; its next request starts from empty ones. A request still
+ * in flight during a reset finishes against the dropped stores.
+ *
+ * With maxTenants > 0, creating or restoring a tenant past that many evicts
+ * the one least recently used, as if it had been reset. Finding it is a scan
+ * of the tenants, but only on creation past the cap; requests just stamp
+ * their tenant's last use.
+ *
+ * snapshot() freezes a tenant's stores under a name, in O(n log n) without
+ * copying entities; restore() gives a tenant new stores layered copy-on-write
+ * over a snapshot, in O(1), so one seeded snapshot can reset many tenants
+ * cheaply. The default tenant can be snapshotted but not restored, as its
+ * stores are the persisted beans.
+ */
+public class Tenants {
+
+    public static final String HEADER = "X-Tenant";
+
+    private static final class Tenant {
+        final Stores stores;
+        volatile long lastUsed = System.nanoTime();
+
+        Tenant(Stores stores) {
+            this.stores = stores;
+        }
+    }
+
+    private final Stores defaults;
+    private final StoreFactory factory;
+    private final int maxTenants;
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private final Map<String, TenantSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Object evictLock = new Object();  // one eviction scan at a time
+
+    /**
+     * @param factory creates the stores of new and restored tenants
+     */
+    public Tenants(Stores defaults, StoreFactory factory) {
+        this(defaults, factory, 0);
+    }
+
+    /**
+     * @param maxTenants tenants kept besides the default one, or 0 for unbounded
+     */
+    public Tenants(Stores defaults, StoreFactory factory, int maxTenants) {
+        this.defaults = defaults;
+        this.factory = factory;
+        this.maxTenants = Math.max(0, maxTenants);
+    }
+
+    /**
+     * The tenant's stores; null or blank is the default tenant.
+     */
+    public Stores get(String tenant) {
+        if (tenant == null || tenant.isBlank()) return defaults;
+        Tenant existing = tenants.get(tenant);  // skip computeIfAbsent's bin lock on the common path
+        if (existing != null) {
+            existing.lastUsed = System.nanoTime();
+            return existing.stores;
+        }
+        Tenant created = tenants.computeIfAbsent(tenant, t -> new Tenant(factory.create(generations.incrementAndGet(), null)));
+        evictIfFull();
+        return created.stores;
+    }
+
+    /**
+     * Drops the tenant's stores. Returns false if it had none.
+     */
+    public boolean reset(String tenant) {
+        return tenants.remove(tenant) != null;
+    }
+
+    public Map<String, Stores> getTenants() {
+        Map<String, Stores> stores = new HashMap<>();
+        tenants.forEach((name, tenant) -> stores.put(name, tenant.stores));
+        return stores;
+    }
+
+    public int getMaxTenants() { return maxTenants; }
+    public long getEvictions() { return evictions.get(); }
+
+    /**
+     * Freezes the tenant's current stores (null or blank: the default tenant)
+     * as the named snapshot, replacing any of that name.
+     */
+    public TenantSnapshot snapshot(String tenant, String name) {
+        TenantSnapshot snapshot = factory.snapshot(get(tenant));
+        snapshots.put(name, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Replaces a non-default tenant's stores with ones layered over the named
+     * snapshot. Returns false if there is no such snapshot.
+     */
+    public boolean restore(String tenant, String name) {
+        if (tenant == null || tenant.isBlank()) {
+            throw new IllegalArgumentException("The default tenant can't be restored");
+        }
+        TenantSnapshot snapshot = snapshots.get(name);
+        if (snapshot == null) return false;
+        tenants.put(tenant, new Tenant(factory.create(generations.incrementAndGet(), snapshot)));
+        evictIfFull();
+        return true;
+    }
+
+    /**
+     * Drops the named snapshot. Tenants restored from it keep sharing it.
+     */
+    public boolean dropSnapshot(String name) {
+        return snapshots.remove(name) != null;
+    }
+
+    public Map<String, TenantSnapshot> getSnapshots() {
+        return Map.copyOf(snapshots);
+    }
+
+    /**
+     * Evicts least recently used tenants down to maxTenants. The one just
+     * created or restored was used last, so it stays.
+     */
+    private void evictIfFull() {
+        if (maxTenants == 0 || tenants.size() <= maxTenants) return;
+        synchronized (evictLock) {
+            while (tenants.size() > maxTenants) {
+                Map.Entry<String, Tenant> idlest = null;
+                for (Map.Entry<String, Tenant> entry : tenants.entrySet()) {
+                    if (idlest == null || entry.getValue().lastUsed < idlest.getValue().lastUsed) {
+                        idlest = entry;
+                    }
+                }
+                if (idlest == null) return;
+                if (tenants.remove(idlest.getKey(), idlest.getValue())) {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.api.store.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed set of 8-byte columns in direct memory, indexed by slot.
+ *
+ * Each column is paged separately (PAGE_ROWS slots per page), so a column scan
+ * touches only that column's pages. Doubles and ints are stored widened to a long.
+ * Pages are only ever added, never released or moved: a reader racing a writer
+ * may see stale bits but never an invalid address.
+ */
+final class LongColumns {
+
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_ROWS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_ROWS - 1;
+    private static final int PAGE_BYTES = PAGE_ROWS * Long.BYTES;
+
+    private final int columns;
+
+    // pages[page * columns + column]; replaced (never mutated) when growing
+    private volatile ByteBuffer[] pages = new ByteBuffer[0];
+
+    LongColumns(int columns) {
+        this.columns = columns;
+    }
+
+    long get(int slot, int column) {
+        return page(slot, column).getLong((slot & PAGE_MASK) << 3);
+    }
+
+    void set(int slot, int column, long value) {
+        page(slot, column).putLong((slot & PAGE_MASK) << 3, value);
+    }
+
+    /**
+     * Makes slot addressable. Callers serialize growth (the slot allocator lock).
+     */
+    void ensureCapacity(int slot) {
+        int needed = ((slot >>> PAGE_SHIFT) + 1) * columns;
+        ByteBuffer[] current = pages;
+        if (needed <= current.length) return;
+        ByteBuffer[] grown = Arrays.copyOf(current, needed);
+        for (int i = current.length; i < needed; i++) {
+            grown[i] = ByteBuffer.allocateDirect(PAGE_BYTES);
+        }
+        pages = grown;
+    }
+
+    long offHeapBytes() {
+        return (long) pages.length * PAGE_BYTES;
+    }
+
+    private ByteBuffer page(int slot, int column) {
+        return pages[(slot >>> PAGE_SHIFT) * columns + column];
+    }
+}
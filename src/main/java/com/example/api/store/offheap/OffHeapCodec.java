@@ -0,0 +1,237 @@
+package com.example.api.store.offheap;
+
+import com.example.api.model.Discount;
+import com.example.api.model.Item;
+import com.example.api.model.Point;
+import com.example.api.model.Price;
+
+import java.util.Arrays;
+
+/**
+ * Flattens an entity graph into off-heap columns, one row (slot) per entity.
+ *
+ * Nested objects are inlined as column fragments, so a Point row also carries
+ * the Discount -> Price -> Item it embeds:
+ *
+ *   Item      present, id, name, description, quantity
+ *   Price     present, id, price,    Item...
+ *   Discount  present, id, discount, Price...
+ *   Point     present, id, points,   Discount...
+ *
+ * Column 0 is a null bitmask (bit n = column n is null / fragment absent).
+ * Strings live in a StringArena and the column holds the handle. Entities are
+ * materialized by read() only when a caller asks for one.
+ *
+ * Not synchronized per slot: EntityStore serializes writes to a slot and guards
+ * reads with a per-entry version, retrying reads that raced a write.
+ */
+public final class OffHeapCodec<T> {
+
+    private static final int NULLS = 0;
+    private static final int ITEM = 5;
+    private static final int PRICE = 3 + ITEM;
+    private static final int DISCOUNT = 3 + PRICE;
+    private static final int POINT = 3 + DISCOUNT;
+
+    private interface Writer<T> {
+        long write(OffHeapCodec<T> codec, int slot, T entity);
+    }
+
+    private interface Reader<T> {
+        T read(OffHeapCodec<T> codec, int slot, long nulls);
+    }
+
+    public static OffHeapCodec<Item> items() {
+        return new OffHeapCodec<>(1 + ITEM, (c, s, e) -> c.writeItem(s, 1, e), (c, s, n) -> c.readItem(s, 1, n));
+    }
+
+    public static OffHeapCodec<Price> prices() {
+        return new OffHeapCodec<>(1 + PRICE, (c, s, e) -> c.writePrice(s, 1, e), (c, s, n) -> c.readPrice(s, 1, n));
+    }
+
+    public static OffHeapCodec<Discount> discounts() {
+        return new OffHeapCodec<>(1 + DISCOUNT, (c, s, e) -> c.writeDiscount(s, 1, e), (c, s, n) -> c.readDiscount(s, 1, n));
+    }
+
+    public static OffHeapCodec<Point> points() {
+        return new OffHeapCodec<>(1 + POINT, (c, s, e) -> c.writePoint(s, 1, e), (c, s, n) -> c.readPoint(s, 1, n));
+    }
+
+    private final Writer<T> writer;
+    private final Reader<T> reader;
+    private final LongColumns cols;
+    private final StringArena strings = new StringArena();
+    private final long stringColumns;  // bitmask
+
+    // Guarded by this
+    private int nextSlot;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private OffHeapCodec(int columns, Writer<T> writer, Reader<T> reader) {
+        this.writer = writer;
+        this.reader = reader;
+        this.cols = new LongColumns(columns);
+        long mask = 0;
+        for (int c = 1; c < columns; c++) {
+            if (isStringColumn(columns, c)) mask |= bit(c);
+        }
+        this.stringColumns = mask;
+    }
+
+    /**
+     * A fresh slot with every column null.
+     */
+    public synchronized int allocate() {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = nextSlot++;
+            cols.ensureCapacity(slot);
+        }
+        cols.set(slot, NULLS, -1L);
+        return slot;
+    }
+
+    public void free(int slot) {
+        releaseStrings(slot);
+        synchronized (this) {
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    public void write(int slot, T entity) {
+        releaseStrings(slot);
+        cols.set(slot, NULLS, writer.write(this, slot, entity));
+    }
+
+    public T read(int slot) {
+        return reader.read(this, slot, cols.get(slot, NULLS));
+    }
+
+    public long offHeapBytes() {
+        return cols.offHeapBytes() + strings.offHeapBytes();
+    }
+
+    private void releaseStrings(int slot) {
+        long live = stringColumns & ~cols.get(slot, NULLS);
+        while (live != 0) {
+            int c = Long.numberOfTrailingZeros(live);
+            strings.free(cols.get(slot, c));
+            live &= live - 1;
+        }
+        cols.set(slot, NULLS, -1L);
+    }
+
+    // ========================== Fragments ==========================
+
+    private long writeItem(int slot, int base, Item item) {
+        if (item == null) return range(base, ITEM);
+        return putLong(slot, base + 1, item.getId())
+                | putString(slot, base + 2, item.getName())
+                | putString(slot, base + 3, item.getDescription())
+                | putInt(slot, base + 4, item.getQuantity());
+    }
+
+    private Item readItem(int slot, int base, long nulls) {
+        if (isNull(nulls, base)) return null;
+        return new Item(getLong(slot, base + 1, nulls), getString(slot, base + 2, nulls),
+                getString(slot, base + 3, nulls), getInt(slot, base + 4, nulls));
+    }
+
+    private long writePrice(int slot, int base, Price price) {
+        if (price == null) return range(base, PRICE);
+        cols.set(slot, base + 2, Double.doubleToRawLongBits(price.getPrice()));
+        return putLong(slot, base + 1, price.getId()) | writeItem(slot, base + 3, price.getItem());
+    }
+
+    private Price readPrice(int slot, int base, long nulls) {
+        if (isNull(nulls, base)) return null;
+        return new Price(getLong(slot, base + 1, nulls), readItem(slot, base + 3, nulls),
+                Double.longBitsToDouble(cols.get(slot, base + 2)));
+    }
+
+    private long writeDiscount(int slot, int base, Discount discount) {
+        if (discount == null) return range(base, DISCOUNT);
+        cols.set(slot, base + 2, Double.doubleToRawLongBits(discount.getDiscount()));
+        return putLong(slot, base + 1, discount.getId()) | writePrice(slot, base + 3, discount.getPrice());
+    }
+
+    private Discount readDiscount(int slot, int base, long nulls) {
+        if (isNull(nulls, base)) return null;
+        return new Discount(getLong(slot, base + 1, nulls), readPrice(slot, base + 3, nulls),
+                Double.longBitsToDouble(cols.get(slot, base + 2)));
+    }
+
+    private long writePoint(int slot, int base, Point point) {
+        if (point == null) return range(base, POINT);
+        cols.set(slot, base + 2, point.getPoints());
+        return putLong(slot, base + 1, point.getId()) | writeDiscount(slot, base + 3, point.getDiscount());
+    }
+
+    private Point readPoint(int slot, int base, long nulls) {
+        if (isNull(nulls, base)) return null;
+        return new Point(getLong(slot, base + 1, nulls), readDiscount(slot, base + 3, nulls),
+                (int) cols.get(slot, base + 2));
+    }
+
+    // ========================== Columns ==========================
+
+    private long putLong(int slot, int column, Long value) {
+        if (value == null) return bit(column);
+        cols.set(slot, column, value);
+        return 0;
+    }
+
+    private long putInt(int slot, int column, Integer value) {
+        if (value == null) return bit(column);
+        cols.set(slot, column, value);
+        return 0;
+    }
+
+    private long putString(int slot, int column, String value) {
+        if (value == null) return bit(column);
+        cols.set(slot, column, strings.put(value));
+        return 0;
+    }
+
+    private Long getLong(int slot, int column, long nulls) {
+        return isNull(nulls, column) ? null : cols.get(slot, column);
+    }
+
+    private Integer getInt(int slot, int column, long nulls) {
+        return isNull(nulls, column) ? null : (int) cols.get(slot, column);
+    }
+
+    private String getString(int slot, int column, long nulls) {
+        return isNull(nulls, column) ? null : strings.get(cols.get(slot, column));
+    }
+
+    private static boolean isNull(long nulls, int column) {
+        return (nulls & bit(column)) != 0;
+    }
+
+    private static long bit(int column) {
+        return 1L << column;
+    }
+
+    /**
+     * Bits for a whole absent fragment, so its string columns are never freed.
+     */
+    private static long range(int base, int width) {
+        return ((1L << width) - 1) << base;
+    }
+
+    /**
+     * Item fragments sit at the tail of every layout; name and description are
+     * its columns 2 and 3.
+     */
+    private static boolean isStringColumn(int columns, int column) {
+        int itemBase = columns - ITEM;
+        return column == itemBase + 2 || column == itemBase + 3;
+    }
+}
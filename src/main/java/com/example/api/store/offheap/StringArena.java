@@ -0,0 +1,99 @@
+package com.example.api.store.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Off-heap storage for strings, as UTF-8 in power-of-two size classes.
+ *
+ * Block: [int byteLength][bytes], size class = next power of two >= 4 + length,
+ * minimum 16 bytes. Classes up to CHUNK_BYTES are carved from shared chunks;
+ * larger blocks get a dedicated chunk. Freed blocks go on a per-class free list
+ * and are reused, so steady PUT/PATCH traffic doesn't grow the arena.
+ *
+ * Handle = chunk index << 32 | offset. Chunks are never released, so reading a
+ * freed handle returns garbage rather than faulting; callers validate reads
+ * with their own version check.
+ */
+final class StringArena {
+
+    private static final int MIN_CLASS = 4;  // 16 bytes
+    private static final int CHUNK_CLASS = 20;
+    private static final int CHUNK_BYTES = 1 << CHUNK_CLASS;
+
+    // Replaced (never mutated in place) when a chunk is added
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    // Guarded by this
+    private final long[][] free = new long[31][];
+    private final int[] freeCount = new int[31];
+    private int chunk = -1;
+    private int chunkOffset = CHUNK_BYTES;
+    private long bytes;
+
+    long put(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        long handle = allocate(sizeClass(utf8.length));
+        ByteBuffer buf = chunks[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        buf.putInt(offset, utf8.length);
+        buf.put(offset + 4, utf8);
+        return handle;
+    }
+
+    String get(long handle) {
+        ByteBuffer buf = chunks[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        byte[] utf8 = new byte[buf.getInt(offset)];
+        buf.get(offset + 4, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    synchronized void free(long handle) {
+        ByteBuffer buf = chunks[(int) (handle >>> 32)];
+        int sizeClass = sizeClass(buf.getInt((int) handle));
+        long[] list = free[sizeClass];
+        if (list == null || freeCount[sizeClass] == list.length) {
+            list = free[sizeClass] = Arrays.copyOf(list == null ? new long[0] : list, Math.max(16, freeCount[sizeClass] * 2));
+        }
+        list[freeCount[sizeClass]++] = handle;
+    }
+
+    synchronized long offHeapBytes() {
+        return bytes;
+    }
+
+    private synchronized long allocate(int sizeClass) {
+        if (freeCount[sizeClass] > 0) {
+            return free[sizeClass][--freeCount[sizeClass]];
+        }
+        int blockBytes = 1 << sizeClass;
+        if (sizeClass > CHUNK_CLASS) {
+            return (long) addChunk(blockBytes) << 32;
+        }
+        if (chunkOffset + blockBytes > CHUNK_BYTES) {
+            chunk = addChunk(CHUNK_BYTES);  // the old chunk's tail is abandoned
+            chunkOffset = 0;
+        }
+        long handle = (long) chunk << 32 | chunkOffset;
+        chunkOffset += blockBytes;
+        return handle;
+    }
+
+    private int addChunk(int size) {
+        ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        grown[chunks.length] = ByteBuffer.allocateDirect(size);
+        chunks = grown;
+        bytes += size;
+        return chunks.length - 1;
+    }
+
+    private static int sizeClass(int length) {
+        int needed = Integer.BYTES + length;
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("String of " + length + " bytes is too large for the arena");
+        }
+        return Math.max(MIN_CLASS, 32 - Integer.numberOfLeadingZeros(needed - 1));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.api.view;
+
+import com.example.api.store.EntityStore;
+import com.example.api.store.Stores;
+import org.springframework.stereotype.Component;
+
+/**
+ * Strong ETags for entity and collection GETs, built from store versions so a
+ * tag can be checked against If-None-Match before anything is read or serialized.
+ *
+ *   "lq3x0-17-ref"        entity / page in the reference view: own version only
+ *   "lq3x0-17-4-9"        full view: plus the versions of the parent stores
+ *   "lq3x0.3-17-ref"      same, for a tenant's stores of generation 3
+ *
+ * The full view embeds parent entities as they were when the child was written,
+ * but which parent instance that is changes with every child write, so any
+ * parent-store change retags it conservatively; the reference view renders
+ * parents as ids only. The leading part is fixed per process and
+ * store generation, so tags from before a restart or a tenant reset never match.
+ */
+@Component
+public class EntityTags {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Tag for any GET-all page of the store, one of stores'.
+     */
+    public String collection(Stores stores, EntityStore<?> store, boolean referenceView) {
+        return tag(stores, store.getVersion(), store, referenceView);
+    }
+
+    /**
+     * Tag for one entity, or null if it is absent.
+     */
+    public String entity(Stores stores, EntityStore<?> store, Long id, boolean referenceView) {
+        long version = store.getVersion(id);
+        return version == 0 ? null : tag(stores, version, store, referenceView);
+    }
+
+    private String tag(Stores stores, long version, EntityStore<?> store, boolean referenceView) {
+        StringBuilder tag = new StringBuilder(32).append('"').append(EPOCH);
+        if (stores.generation() != 0) {
+            tag.append('.').append(Long.toString(stores.generation(), 36));
+        }
+        tag.append('-').append(version);
+        if (referenceView) {
+            tag.append("-ref");
+        } else {
+            for (EntityStore<?> parent : stores.parentsOf(store)) {
+                tag.append('-').append(parent.getVersion());
+            }
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.api.view;
+
+import com.example.api.controller.BatchResult;
+import com.example.api.model.Discount;
+import com.example.api.model.Identifiable;
+import com.example.api.model.Item;
+import com.example.api.model.Point;
+import com.example.api.model.Price;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Response body rendered in the reference view: nested entities collapse to
+ * {"id": n} instead of repeating the whole Discount -> Price -> Item chain.
+ *
+ *   full: {"id":9,"discount":{"id":4,"price":{"id":2,"item":{...}},...},"points":5}
+ *   ref:  {"id":9,"discount":{"id":4},"points":5}
+ *
+ * Written field by field straight onto the response's JsonGenerator; lists are
+ * streamed element by element with no intermediate tree. Batch results keep
+ * their status and headers and render their body the same way.
+ */
+@JsonSerialize(using = ReferenceView.Serializer.class)
+public record ReferenceView(Object body) {
+
+    public static final String HEADER = "X-View";
+    public static final String PARAM = "view";
+    public static final String REF = "ref";
+
+    public static boolean isRequested(String header, String param) {
+        return REF.equalsIgnoreCase(header) || REF.equalsIgnoreCase(param);
+    }
+
+    static class Serializer extends JsonSerializer<ReferenceView> {
+
+        @Override
+        public void serialize(ReferenceView view, JsonGenerator json, SerializerProvider provider) throws IOException {
+            writeBody(json, view.body(), provider);
+        }
+
+        private static void writeBody(JsonGenerator json, Object body, SerializerProvider provider) throws IOException {
+            if (body instanceof Collection<?> list) {
+                json.writeStartArray();
+                for (Object entity : list) {
+                    writeEntity(json, entity, provider);
+                }
+                json.writeEndArray();
+            } else {
+                writeEntity(json, body, provider);
+            }
+        }
+
+        private static void writeEntity(JsonGenerator json, Object entity, SerializerProvider provider) throws IOException {
+            if (entity instanceof Item item) {
+                json.writeStartObject();
+                writeId(json, item.getId());
+                json.writeStringField("name", item.getName());
+                json.writeStringField("description", item.getDescription());
+                json.writeFieldName("quantity");
+                if (item.getQuantity() != null) json.writeNumber(item.getQuantity()); else json.writeNull();
+                json.writeEndObject();
+            } else if (entity instanceof Price price) {
+                json.writeStartObject();
+                writeId(json, price.getId());
+                writeRef(json, "item", price.getItem());
+                json.writeNumberField("price", price.getPrice());
+                json.writeEndObject();
+            } else if (entity instanceof Discount discount) {
+                json.writeStartObject();
+                writeId(json, discount.getId());
+                writeRef(json, "price", discount.getPrice());
+                json.writeNumberField("discount", discount.getDiscount());
+                json.writeEndObject();
+            } else if (entity instanceof Point point) {
+                json.writeStartObject();
+                writeId(json, point.getId());
+                writeRef(json, "discount", point.getDiscount());
+                json.writeNumberField("points", point.getPoints());
+                json.writeEndObject();
+            } else if (entity instanceof BatchResult result) {
+                json.writeStartObject();
+                json.writeNumberField("status", result.status());
+                if (result.headers() != null && !result.headers().isEmpty()) {
+                    json.writeObjectFieldStart("headers");
+                    for (Map.Entry<String, String> header : result.headers().entrySet()) {
+                        json.writeStringField(header.getKey(), header.getValue());
+                    }
+                    json.writeEndObject();
+                }
+                json.writeFieldName("body");
+                writeBody(json, result.body(), provider);
+                json.writeEndObject();
+            } else {
+                provider.defaultSerializeValue(entity, json);
+            }
+        }
+
+        private static void writeRef(JsonGenerator json, String field, Identifiable ref) throws IOException {
+            json.writeFieldName(field);
+            if (ref == null) {
+                json.writeNull();
+                return;
+            }
+            json.writeStartObject();
+            writeId(json, ref.getId());
+            json.writeEndObject();
+        }
+
+        private static void writeId(JsonGenerator json, Long id) throws IOException {
+            json.writeFieldName("id");
+            if (id != null) json.writeNumber(id); else json.writeNull();
+        }
+    }
+}
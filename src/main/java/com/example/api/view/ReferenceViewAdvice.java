@@ -0,0 +1,51 @@
+package com.example.api.view;
+
+import com.example.api.controller.DiscountController;
+import com.example.api.controller.ItemController;
+import com.example.api.controller.PointsController;
+import com.example.api.controller.PriceController;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Switches entity responses to the reference view when the request asks for it:
+ *
+ *   GET /api/points?view=ref
+ *   GET /api/points            with header X-View: ref
+ *
+ * Without either, responses keep the full nested representation.
+ */
+@ControllerAdvice(assignableTypes = {ItemController.class, PriceController.class,
+        DiscountController.class, PointsController.class})
+public class ReferenceViewAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !isReferenceView(request)) {
+            return body;
+        }
+        return new ReferenceView(body);
+    }
+
+    private static boolean isReferenceView(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String param = query != null && query.contains(ReferenceView.PARAM + "=")
+                ? UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst(ReferenceView.PARAM)
+                : null;
+        return ReferenceView.isRequested(request.getHeaders().getFirst(ReferenceView.HEADER), param);
+    }
+}
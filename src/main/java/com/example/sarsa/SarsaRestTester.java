@@ -1,14 +1,33 @@
 package com.example.sarsa;
 
 import com.example.ann.TinyQNetwork;
+import com.example.sarsa.dashboard.DashboardServer;
 import com.example.sarsa.generator.PayloadGenerator;
+import com.example.sarsa.http.EtagCache;
+import com.example.sarsa.http.H2cTransport;
+import com.example.sarsa.http.HttpReply;
+import com.example.sarsa.http.RestAssuredTransport;
+import com.example.sarsa.http.Transport;
+import com.example.sarsa.jfr.BugFoundEvent;
+import com.example.sarsa.jfr.EpisodeEvent;
+import com.example.sarsa.jfr.RequestEvent;
+import com.example.sarsa.json.BatchCodec;
+import com.example.sarsa.json.IdScanner;
+import com.example.sarsa.metrics.AllocationProfiler;
+import com.example.sarsa.metrics.AllocationProfiler.Scope;
+import com.example.sarsa.metrics.MetricsRegistry;
+import com.example.sarsa.metrics.Phase;
+import com.example.sarsa.metrics.PhaseProfiler;
+import com.example.sarsa.model.ApiResponse;
 import com.example.sarsa.model.State;
+import com.example.sarsa.report.*;
 import com.example.sarsa.strategy.*;
-import io.restassured.RestAssured;
-import io.restassured.response.Response;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class SarsaRestTester {
 
@@ -16,6 +35,37 @@ public class SarsaRestTester {
     private int LOG_EVERY = 10_000;
     private int SEED = 1234;
     private int STEP_LIMIT = 35;
+    private String LATENCY_DUMP = "latency-histograms.txt";
+
+    //REPORTING (console always; file sinks when the property is set)
+    private String REPORT_FILE = System.getProperty("sarsa.report.file");
+    private String REPORT_JSONL = System.getProperty("sarsa.report.jsonl");
+    private long REPORT_FILE_MAX_BYTES = 10L * 1024 * 1024;
+    private int REPORT_FILE_COUNT = 5;
+    private int REPORT_QUEUE = 16;
+    private int DASHBOARD_PORT = Integer.getInteger("sarsa.dashboard.port", 0);  // 0 = off
+
+    //BATCHING (environments run in lock-step, their EXECUTEs go out as one _batch request per endpoint)
+    private int ENVIRONMENTS = Integer.getInteger("sarsa.batch.environments", 1);  // 1 = one request per EXECUTE
+
+    //VIEW (X-View sent on every request: ref = nested entities come back as {"id": n}; full = no header)
+    private String VIEW = System.getProperty("sarsa.view", "ref");
+
+    //CONDITIONAL GET (If-None-Match with the last ETag per URL; a 304 reads as the cached 200)
+    private boolean CONDITIONAL_GETS = Boolean.parseBoolean(System.getProperty("sarsa.conditional", "true"));
+    private int ETAG_CACHE_SIZE = 1024;
+
+    //TRANSPORT (http1 = RestAssured keep-alive; h2c = HTTP/2 streams over a few connections,
+    //environments then send their EXECUTEs as concurrent streams instead of _batch)
+    private String TRANSPORT = System.getProperty("sarsa.transport", "http1");
+    private int H2C_CONNECTIONS = Integer.getInteger("sarsa.h2c.connections", 1);
+
+    //TENANT (X-Tenant: the agent's own stores on the target; environment k uses <tenant>-k)
+    private String TENANT = System.getProperty("sarsa.tenant");  // null = default tenant
+
+    //RESET (the target tenant's state at each episode start: clean = empty stores, else a snapshot
+    //name to restore; tenant defaults to "sarsa", as the default tenant can't be reset)
+    private String RESET = System.getProperty("sarsa.reset");  // null = keep state across episodes
 
     //HYPER PARAMS
     private double EPSILON = 0.01;
@@ -31,170 +81,277 @@ public class SarsaRestTester {
     //URL
     private static final String BASE_URL = "http://localhost:8080/api/";
     private static final String ITEMS = "items";
+    private static final String TENANT_HEADER = "X-Tenant";
+    private static final String ADMIN_URL = "http://localhost:8080/admin/";
 
     //HELPERS
     PayloadGenerator pbt;
-    private String lastItemId;
-    private String lastPriceId;
-    private String lastDiscountId;
-    private String lastPointsId;
-    
-    // Tracking - raw actions
-    private static LinkedHashMap<Integer, Integer> allActionCounts = new LinkedHashMap<>();
-    
-    // Tracking - strategy-level (what actually got executed)
-    private static LinkedHashMap<HttpType, Integer> httpTypeCounts = new LinkedHashMap<>();
-    private static LinkedHashMap<Endpoint, Integer> endpointCounts = new LinkedHashMap<>();
-    private static LinkedHashMap<Strategy, Integer> strategyCounts = new LinkedHashMap<>();
-    private static LinkedHashMap<Field, Integer> fieldCounts = new LinkedHashMap<>();
-    private static LinkedHashMap<Intensity, Integer> intensityCounts = new LinkedHashMap<>();
+    private EtagCache etags;
+    private Transport transport;
+    private static final byte[] NO_BODY = new byte[0];
     
-    // Tracking - bugs by strategy combo
-    private static LinkedHashMap<String, Integer> bugsByCombo = new LinkedHashMap<>();
-    private static Set<String> uniqueBugCombos = new HashSet<>();
-    
-    // Tracking - execute vs dial-turner ratio
-    private static int executeCount = 0;
-    private static int dialTurnerCount = 0;
+    // Tracking - shared by all workers, reported per LOG_EVERY window.
+    // Sliding windows: epochs of EPOCH_EPISODES, ring covers the whole default run.
+    private static final int EPOCH_EPISODES = 1_000;
+    private static final int[] SLIDING_WINDOW_EPOCHS = {10, 50, 100};
+    private static final MetricsRegistry metrics =
+            new MetricsRegistry(StrategyBuilder.getActionCount(), 256, SLIDING_WINDOW_EPOCHS);
+
 
+    // Step phase timing, off unless -Dsarsa.profile=true or PhaseProfiler.setEnabled(true)
+    private final PhaseProfiler profiler = new PhaseProfiler();
+    // Allocated bytes per episode/step/request, off unless -Dsarsa.allocations=true
+    private final AllocationProfiler allocations = new AllocationProfiler();
 
     TinyQNetwork ann;
 
     @Test
     public void executeSarsaTester(){
         pbt = new PayloadGenerator(SEED);
+        etags = new EtagCache(ETAG_CACHE_SIZE);
         ann = new TinyQNetwork(ANN_INPUTS, ANN_NEURONS, ANN_ACTIONS, SEED);
-        executeSarsa(EPISODES);
+        if (RESET != null && TENANT == null) {
+            TENANT = "sarsa";
+        }
+        // Only ids are read back, so by default ask for nested entities as {"id": n}
+        Map<String, String> headers = "full".equalsIgnoreCase(VIEW) ? Map.of() : Map.of("X-View", VIEW);
+        try (Transport t = openTransport(headers)) {
+            transport = t;
+            executeSarsa(EPISODES);
+        }
+    }
+
+    private Transport openTransport(Map<String, String> headers) {
+        if ("h2c".equals(TRANSPORT)) {
+            H2cTransport h2c = new H2cTransport(H2C_CONNECTIONS, headers);
+            System.out.println("Transport: h2c x" + H2C_CONNECTIONS + " (" + h2c.connect(BASE_URL + ITEMS + "?limit=1") + ")");
+            return h2c;
+        }
+        return new RestAssuredTransport(headers);
     }
 
     private void executeSarsa(int episodes) {
         Random rng = new Random(SEED);
-        // Tracking stats
-        double totalReward = 0;
-        double totalBugs = 0;
-        long startTime = System.currentTimeMillis();
-        
-        for (int i = 1; i <= episodes; i++) {
-            double[] result = executeEpisode(rng);
-            totalReward += result[0];
-            totalBugs += result[1];
-            
-            if (i % LOG_EVERY == 0) {
-                double avgReward = totalReward / LOG_EVERY;
-                double elapsed = (System.currentTimeMillis() - startTime) / 1000.0;
-                double executeRatio = executeCount > 0 ? (double) executeCount / (executeCount + dialTurnerCount) * 100 : 0;
-                
-                System.out.println("\n" + "=".repeat(60));
-                System.out.printf("Episode %,d | Avg Reward: %.3f | Unique Bug Combos: %d | Time: %.1fs%n",
-                        i, avgReward, uniqueBugCombos.size(), elapsed);
-                System.out.printf("Execute ratio: %.1f%% (%d executes, %d dial-turners)%n", 
-                        executeRatio, executeCount, dialTurnerCount);
-                
-                // HttpType distribution (GET, POST, PUT, etc.)
-                System.out.println("\n--- HttpType Distribution ---");
-                for (Map.Entry<HttpType, Integer> e : httpTypeCounts.entrySet()) {
-                    System.out.printf("  %-10s: %d%n", e.getKey(), e.getValue());
-                }
-                
-                // Resource/Endpoint distribution (ITEMS, PRICES)
-                System.out.println("\n--- Resource Distribution ---");
-                for (Map.Entry<Endpoint, Integer> e : endpointCounts.entrySet()) {
-                    System.out.printf("  %-10s: %d%n", e.getKey(), e.getValue());
-                }
-                
-                // Strategy distribution
-                System.out.println("\n--- Strategy Distribution ---");
-                for (Map.Entry<Strategy, Integer> e : strategyCounts.entrySet()) {
-                    System.out.printf("  %-15s: %d%n", e.getKey(), e.getValue());
-                }
-                
-                // Field distribution
-                System.out.println("\n--- Field Distribution ---");
-                for (Map.Entry<Field, Integer> e : fieldCounts.entrySet()) {
-                    System.out.printf("  %-12s: %d%n", e.getKey(), e.getValue());
-                }
-                
-                // Intensity distribution
-                System.out.println("\n--- Intensity Distribution ---");
-                for (Map.Entry<Intensity, Integer> e : intensityCounts.entrySet()) {
-                    System.out.printf("  %-12s: %d%n", e.getKey(), e.getValue());
-                }
-                
-                // Bugs by combo (top 5)
-                if (!bugsByCombo.isEmpty()) {
-                    System.out.println("\n--- Top Bug-Triggering Combos ---");
-                    bugsByCombo.entrySet().stream()
-                            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                            .limit(5)
-                            .forEach(e -> System.out.printf("  %s: %d times%n", e.getKey(), e.getValue()));
+
+        try (AsyncReporter reporter = new AsyncReporter(metrics, reportSinks(), REPORT_QUEUE)) {
+            for (int i = 1; i <= episodes; ) {
+                int environments = Math.min(ENVIRONMENTS, episodes - i + 1);
+                List<double[]> results = environments == 1
+                        ? List.of(executeEpisode(i, rng))
+                        : executeEpisodes(i, environments, rng);
+                for (double[] result : results) {
+                    metrics.recordEpisode(result[0], (int) result[1]);
+
+                    if (i % EPOCH_EPISODES == 0) {
+                        metrics.closeEpoch();
+                    }
+                    if (i % LOG_EVERY == 0) {
+                        reporter.windowClosed(i, profiler, allocations);
+                    }
+                    i++;
                 }
-                
-                // Raw action distribution (compact)
-                System.out.println("\n--- Raw Action Distribution ---");
-                System.out.print("  ");
-                allActionCounts.entrySet().stream()
-                        .sorted(Map.Entry.comparingByKey())
-                        .forEach(e -> System.out.printf("[%d]:%d ", e.getKey(), e.getValue()));
-                System.out.println();
-                
-                // Reset for next window
-                totalReward = 0;
-                totalBugs = 0;
-                startTime = System.currentTimeMillis();
-                allActionCounts.clear();
-                httpTypeCounts.clear();
-                endpointCounts.clear();
-                strategyCounts.clear();
-                fieldCounts.clear();
-                intensityCounts.clear();
-                bugsByCombo.clear();
-                executeCount = 0;
-                dialTurnerCount = 0;
             }
         }
+
+        try {
+            metrics.getLatencies().dump(Path.of(LATENCY_DUMP));
+        } catch (IOException e) {
+            System.err.println("Could not write latency histograms: " + e.getMessage());
+        }
+    }
+
+    private List<ReportSink> reportSinks() {
+        List<ReportSink> sinks = new ArrayList<>();
+        sinks.add(new ConsoleSink());
+        try {
+            if (REPORT_FILE != null) {
+                sinks.add(new RollingFileSink(Path.of(REPORT_FILE), REPORT_FILE_MAX_BYTES, REPORT_FILE_COUNT));
+            }
+            if (REPORT_JSONL != null) {
+                sinks.add(new JsonLinesSink(Path.of(REPORT_JSONL)));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not open report file: " + e.getMessage());
+        }
+        if (DASHBOARD_PORT > 0) {
+            try {
+                DashboardServer dashboard = new DashboardServer(DASHBOARD_PORT, metrics);
+                sinks.add(dashboard);
+                System.out.println("Dashboard: http://localhost:" + dashboard.getPort() + "/");
+            } catch (IOException e) {
+                System.err.println("Could not start dashboard: " + e.getMessage());
+            }
+        }
+        return sinks;
     }
 
-    private double[] executeEpisode(Random rng) {
-        StrategyBuilder strategy = new StrategyBuilder();
-        lastItemId = null;
-        lastPriceId = null;
-        lastDiscountId = null;
-        lastPointsId = null;
-        State currentState = initState();
-        boolean[] mask = getValidMask(currentState, strategy);
-        int currentAction = ann.epsilonGreedyMasked(currentState.scale(), EPSILON, mask, rng);
-        
-        double episodeReward = 0;
-        int bugsFound = 0;
-
-        Response response = null;
-        strategy.reset();
-        
+    /**
+     * One episode, one HTTP round trip per EXECUTE.
+     */
+    private double[] executeEpisode(long number, Random rng) {
+        long episodeAlloc = allocations.start();
+        resetTenant(TENANT);
+        Episode episode = new Episode(number, TENANT, rng);
         for (int step = 0; step < STEP_LIMIT; step++) {
-            allActionCounts.merge(currentAction, 1, Integer::sum);
-
-            String executedCombo = null;
-            if(strategy.isExecute(currentAction)){
-                // Track strategy combo before executing
-                trackStrategyExecution(strategy);
-                executedCombo = String.format("%s+%s+%s+%s", 
-                        strategy.getHttpType(), strategy.getEndpoint(), strategy.getStrategy(), strategy.getField());
-                // Pass IDs to PayloadGenerator for PRICES/DISCOUNTS/POINTS endpoints
-                pbt.setLastItemId(lastItemId != null ? Long.parseLong(lastItemId) : null);
-                pbt.setLastPriceId(lastPriceId != null ? Long.parseLong(lastPriceId) : null);
-                pbt.setLastDiscountId(lastDiscountId != null ? Long.parseLong(lastDiscountId) : null);
-                response = executeWithStrategy(strategy);
-                executeCount++;
-            }else{
+            long stepStart = profiler.start();
+            long stepAlloc = allocations.start();
+            ApiRequest request = episode.beginStep(step);
+            episode.endStep(request != null ? send(request) : null, rng);
+            profiler.stop(Phase.STEP, stepStart);
+            allocations.stop(Scope.STEP, stepAlloc);
+        }
+        double[] result = episode.finish();
+        allocations.stop(Scope.EPISODE, episodeAlloc);
+        return result;
+    }
+
+    /**
+     * Puts the tenant's stores back to the RESET state before an episode, so its
+     * outcome doesn't depend on earlier ones. Both calls are O(1) on the target.
+     */
+    private void resetTenant(String tenant) {
+        if (RESET == null) return;
+        if ("clean".equals(RESET)) {
+            transport.send("DELETE", ADMIN_URL + "tenants/" + tenant, null);  // 404 = nothing to drop
+            return;
+        }
+        HttpReply reply = transport.send("POST", ADMIN_URL + "snapshots/" + RESET + "/restore", null, TENANT_HEADER, tenant);
+        if (reply.status() != 204) {
+            throw new IllegalStateException("Restoring snapshot " + RESET + " failed with " + reply.status());
+        }
+    }
+
+    /**
+     * count episodes stepped in lock-step. Each step's EXECUTEs are sent together,
+     * one _batch request per endpoint, and every environment then reads its own
+     * result. The endpoint runs the operations in order with their single-request
+     * status codes, so rewards (500 = bug) are the same as for one call per EXECUTE.
+     * On h2c the EXECUTEs go out as concurrent single requests instead.
+     */
+    private List<double[]> executeEpisodes(long first, int count, Random rng) {
+        long episodeAlloc = allocations.start();
+        List<Episode> episodes = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            String tenant = TENANT != null ? TENANT + "-" + k : null;
+            resetTenant(tenant);
+            episodes.add(new Episode(first + k, tenant, rng));
+        }
+        ApiRequest[] requests = new ApiRequest[count];
+        for (int step = 0; step < STEP_LIMIT; step++) {
+            long stepStart = profiler.start();
+            long stepAlloc = allocations.start();
+            for (int k = 0; k < count; k++) {
+                requests[k] = episodes.get(k).beginStep(step);
+            }
+            ApiResponse[] responses = "h2c".equals(TRANSPORT) ? sendConcurrently(requests) : sendBatched(requests);
+            for (int k = 0; k < count; k++) {
+                episodes.get(k).endStep(responses[k], rng);
+            }
+            profiler.stop(Phase.STEP, stepStart, count);
+            allocations.stop(Scope.STEP, stepAlloc, count);
+        }
+        List<double[]> results = new ArrayList<>(count);
+        for (Episode episode : episodes) {
+            results.add(episode.finish());
+        }
+        allocations.stop(Scope.EPISODE, episodeAlloc, count);
+        return results;
+    }
+
+    /**
+     * An EXECUTE's API call, built before it is sent so it can go out alone or in a batch.
+     */
+    private record ApiRequest(Episode episode, HttpType httpType, Endpoint endpoint, String targetId, String payload) {
+    }
+
+    /**
+     * One environment: the episode's state, strategy and remembered ids. A step is
+     * split around its API call, beginStep up to the request and endStep from the
+     * response on, so that several environments can share a round trip.
+     */
+    private final class Episode {
+
+        private final long number;
+        private final String tenant;
+        private final EpisodeEvent episodeEvent = new EpisodeEvent();
+        private final StrategyBuilder strategy = new StrategyBuilder();
+        private String lastItemId;
+        private String lastPriceId;
+        private String lastDiscountId;
+        private String lastPointsId;
+
+        private State currentState;
+        private int currentAction;
+        private ApiResponse response;  // last EXECUTE's, kept through dial-turner steps
+        private int currentStep;
+        private boolean executing;
+        private int executedCombo;
+
+        private double episodeReward;
+        private int bugsFound;
+        private int executes;
+
+        Episode(long number, String tenant, Random rng) {
+            this.number = number;
+            this.tenant = tenant;
+            episodeEvent.begin();
+            currentState = initState();
+            boolean[] mask = getValidMask(currentState, strategy);
+            currentAction = ann.epsilonGreedyMasked(currentState.scale(), EPSILON, mask, rng);
+            strategy.reset();
+        }
+
+        /**
+         * Applies a dial-turner, or prepares the API call of an EXECUTE and returns it.
+         */
+        ApiRequest beginStep(int step) {
+            currentStep = step;
+            metrics.recordAction(currentAction);
+
+            executedCombo = StrategyCombo.NONE;
+            executing = strategy.isExecute(currentAction);
+            if (!executing) {
                 currentState = strategy.applyAction(currentAction, currentState);
                 currentState.setStepsSinceExecute(Math.min(currentState.getStepsSinceExecute() + 1, 10));
-                dialTurnerCount++;
+                metrics.recordDialTurner();
+                return null;
+            }
+            // Track strategy combo before executing
+            metrics.recordExecute(strategy);
+            executedCombo = strategy.getCombo();
+            // Pass IDs to PayloadGenerator for PRICES/DISCOUNTS/POINTS endpoints
+            pbt.setLastItemId(lastItemId != null ? Long.parseLong(lastItemId) : null);
+            pbt.setLastPriceId(lastPriceId != null ? Long.parseLong(lastPriceId) : null);
+            pbt.setLastDiscountId(lastDiscountId != null ? Long.parseLong(lastDiscountId) : null);
+            executes++;
+
+            Endpoint endpoint = strategy.getEndpoint();
+            // Generate endpoint-aware payload
+            long t = profiler.start();
+            String payload = pbt.generate(endpoint, strategy.getField(), strategy.getStrategy(), strategy.getIntensity());
+            profiler.stop(Phase.PAYLOAD, t);
+            return new ApiRequest(this, strategy.getHttpType(), endpoint, getEndpointTarget(endpoint), payload);
+        }
+
+        /**
+         * Finishes the step with the EXECUTE's response (null for dial-turners and HttpType.NONE).
+         */
+        void endStep(ApiResponse executed, Random rng) {
+            if (executing) {
+                response = executed;
+                if (response != null && strategy.getHttpType() == HttpType.POST && response.statusCode() == 201) {
+                    rememberCreatedId(response, strategy.getEndpoint());
+                }
             }
 
             //NEXT
             State nextState = updateStateFromResponse(currentState, strategy, response);
+            long t = profiler.start();
             boolean[] nextMask = getValidMask(nextState, strategy);
+            profiler.stop(Phase.MASK, t);
+            t = profiler.start();
             int nextAction = ann.epsilonGreedyMasked(nextState.scale(), EPSILON, nextMask, rng);
+            profiler.stop(Phase.SELECT, t);
 
             if(response != null) {
                 strategy.reset();
@@ -203,164 +360,340 @@ public class SarsaRestTester {
 
             double reward = calculateReward(response, executedCombo);
             episodeReward += reward;
-            if (reward > 0) bugsFound++;  // Only count novel bugs
-            
-            boolean terminal = (step == STEP_LIMIT - 1);
+            if (reward > 0) {
+                bugsFound++;  // Only count novel bugs
+                emitBugFound(currentAction, executedCombo, response);
+            }
+
+            boolean terminal = (currentStep == STEP_LIMIT - 1);
+            t = profiler.start();
             ann.sarsaUpdate(currentState.scale(), currentAction, reward, nextState.scale(), nextAction, terminal, ALPHA, GAMMA);
+            profiler.stop(Phase.UPDATE, t);
 //            ann.qLearningUpdate(currentState.scale(), currentAction, reward, nextState.scale(), terminal, ALPHA, GAMMA);
 
             currentState = nextState;
             currentAction = nextAction;
         }
-        
-        return new double[]{episodeReward, bugsFound};
-    }
 
-    private double calculateReward(Response response, String executedCombo){
-        if (response == null) {
-            return -0.15;
-        }
-        if(response.getStatusCode() != 500){
-            return 0;
+        double[] finish() {
+            episodeEvent.end();
+            if (episodeEvent.shouldCommit()) {
+                episodeEvent.episode = number;
+                episodeEvent.reward = episodeReward;
+                episodeEvent.bugs = bugsFound;
+                episodeEvent.executes = executes;
+                episodeEvent.commit();
+            }
+            return new double[]{episodeReward, bugsFound};
         }
 
-        // Track bug by strategy combo (captured before reset)
-        if (executedCombo != null) {
-            bugsByCombo.merge(executedCombo, 1, Integer::sum);
-            uniqueBugCombos.add(executedCombo);
+        private void emitBugFound(int action, int combo, ApiResponse response) {
+            BugFoundEvent event = new BugFoundEvent();
+            if (event.shouldCommit()) {
+                event.episode = number;
+                event.step = currentStep;
+                event.action = action;
+                event.combo = StrategyCombo.label(combo);  // NONE: a dial-turner still scoring the last 500
+                event.status = response.statusCode();
+                event.commit();
+            }
         }
-        return 10;
-    }
-    
-    private void trackStrategyExecution(StrategyBuilder strategy) {
-        httpTypeCounts.merge(strategy.getHttpType(), 1, Integer::sum);
-        endpointCounts.merge(strategy.getEndpoint(), 1, Integer::sum);
-        strategyCounts.merge(strategy.getStrategy(), 1, Integer::sum);
-        fieldCounts.merge(strategy.getField(), 1, Integer::sum);
-        intensityCounts.merge(strategy.getIntensity(), 1, Integer::sum);
-    }
 
+        private State updateStateFromResponse(State state, StrategyBuilder strategy, ApiResponse response) {
+            if (response == null) return state;  // Dial-turner, no response yet
 
-    private Response executeWithStrategy(StrategyBuilder s) {
-        HttpType httpType = s.getHttpType();
-        Endpoint endpoint = s.getEndpoint();
-        // Generate endpoint-aware payload
-        String payload = pbt.generate(endpoint, s.getField(), s.getStrategy(), s.getIntensity());
-
-        String lastId;
-        if(endpoint == Endpoint.ITEMS){
-            lastId = lastItemId;
-        } else if (endpoint == Endpoint.PRICES) {
-            lastId = lastPriceId;
-        }else if (endpoint == Endpoint.DISCOUNTS){
-            lastId = lastDiscountId;
-        }else{
-            lastId = lastPointsId;
-        }
+            state.setLastStatusCall(response.statusCode());
+            HttpType httpType = strategy.getHttpType();
+            state.setLastMethod(getMethodForEndpoint(httpType));
+            state.setEndpoint(strategy.getEndpoint().ordinal());
 
-        // Use lowercase endpoint name for URL (items, prices)
-        String endpointPath = endpoint.name().toLowerCase();
+            // POST success
+            if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.ITEMS) {
+                state.setHasValidItemId(1);
+                //removing for now
+    //            state.setHasAnyItems(1);
+            }
 
-        return switch (httpType) {
-            case POST -> postItem(payload, endpoint);
-            case PUT -> putItem(payload, endpoint);
-            case PATCH -> patchItem(payload, endpoint);
-            case DELETE -> RestAssured.delete(BASE_URL + endpointPath + "/" + lastId);
-            case GET -> RestAssured.get(BASE_URL + endpointPath + "/" + lastId);
-            case GET_ALL -> RestAssured.get(BASE_URL + endpointPath);
-            default -> null;
-        };
-    }
+            if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.PRICES) {
+                state.setHasValidPriceId(1);
+                // removing for now
+    //            state.setHasAnyItems(1);
+            }
 
-    private State updateStateFromResponse(State state, StrategyBuilder strategy, Response response) {
-        if (response == null) return state;  // Dial-turner, no response yet
+            if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.DISCOUNTS) {
+                state.setHasValidDiscountId(1);
+                // removing for now
+    //            state.setHasAnyItems(1);
+            }
+
+            if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.POINTS) {
+                state.setHasValidPointsId(1);
+            }
 
-        state.setLastStatusCall(response.statusCode());
-        HttpType httpType = strategy.getHttpType();
-        state.setLastMethod(getMethodForEndpoint(httpType));
-        state.setEndpoint(strategy.getEndpoint().ordinal());
 
-        // POST success
-        if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.ITEMS) {
-            state.setHasValidItemId(1);
-            //removing for now
-//            state.setHasAnyItems(1);
-        }
+            // DELETE success
+            if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.ITEMS) {
+                state.setHasValidItemId(0);
+                lastItemId = null;
+            }
+
+            if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.PRICES) {
+                state.setHasValidPriceId(0);
+                lastPriceId = null;
+            }
+
+            if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.DISCOUNTS) {
+                state.setHasValidDiscountId(0);
+                lastDiscountId = null;
+            }
+
+            if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.POINTS) {
+                state.setHasValidPointsId(0);
+                lastPointsId = null;
+            }
+
+            // GET_ALL - check if items exist
+            if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.ITEMS) {
+                extractIdFromGetAll(response, Endpoint.ITEMS);
+                if (lastItemId != null) {
+                    state.setHasValidItemId(1);
+                    state.setHasAnyItems(1);
+                } else {
+                    state.setHasAnyItems(0);
+                }
+            }
+
+            if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.PRICES) {
+                extractIdFromGetAll(response, Endpoint.PRICES);
+                if (lastPriceId != null) {
+                    state.setHasValidPriceId(1);
+    //                state.setHasAnyItems(1);
+    //            } else {
+    //                state.setHasAnyItems(0);
+                }
+            }
+
+            if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.DISCOUNTS) {
+                extractIdFromGetAll(response, Endpoint.DISCOUNTS);
+                if (lastDiscountId != null) {
+                    state.setHasValidDiscountId(1);
+                }
+            }
+
+            if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.POINTS) {
+                extractIdFromGetAll(response, Endpoint.POINTS);
+                if (lastPointsId != null) {
+                    state.setHasValidPointsId(1);
+                }
+            }
 
-        if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.PRICES) {
-            state.setHasValidPriceId(1);
-            // removing for now
-//            state.setHasAnyItems(1);
+            return state;
         }
 
-        if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.DISCOUNTS) {
-            state.setHasValidDiscountId(1);
-            // removing for now
-//            state.setHasAnyItems(1);
+        private void rememberCreatedId(ApiResponse response, Endpoint endpoint) {
+            long t = profiler.start();
+            String id = IdScanner.objectId(response.body());
+            profiler.stop(Phase.ID_EXTRACT, t);
+            if(endpoint == Endpoint.ITEMS) {
+                lastItemId = id;
+            }else if (endpoint == Endpoint.PRICES){
+                lastPriceId = id;
+            }else if(endpoint == Endpoint.DISCOUNTS){
+                lastDiscountId = id;
+            }else{
+                lastPointsId = id;
+            }
         }
 
-        if (httpType == HttpType.POST && response.statusCode() == 201 && strategy.getEndpoint() == Endpoint.POINTS) {
-            state.setHasValidPointsId(1);
+        String getEndpointTarget(Endpoint endpoint){
+            if(endpoint == Endpoint.ITEMS){
+                return lastItemId;
+            } else if (endpoint == Endpoint.PRICES) {
+                return lastPriceId;
+            }else if (endpoint == Endpoint.DISCOUNTS){
+                return lastDiscountId;
+            }else{
+                return lastPointsId;
+            }
         }
 
+        private void extractIdFromGetAll(ApiResponse response, Endpoint endpoint) {
+            if (response.statusCode() != 200) return;
 
-        // DELETE success
-        if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.ITEMS) {
-            state.setHasValidItemId(0);
-            lastItemId = null;
+            long t = profiler.start();
+            String firstId = IdScanner.firstElementId(response.body());  // null on empty list or invalid JSON
+            profiler.stop(Phase.ID_EXTRACT, t);
+            if (firstId != null) {
+                if (endpoint == Endpoint.ITEMS) {
+                    lastItemId = firstId;
+                } else if (endpoint == Endpoint.PRICES) {
+                    lastPriceId = firstId;
+                } else if (endpoint == Endpoint.DISCOUNTS) {
+                    lastDiscountId = firstId;
+                } else{
+                    lastPointsId = firstId;
+                }
+            }
         }
+    }
 
-        if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.PRICES) {
-            state.setHasValidPriceId(0);
-            lastPriceId = null;
+    private double calculateReward(ApiResponse response, int executedCombo){
+        if (response == null) {
+            return -0.15;
         }
-
-        if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.DISCOUNTS) {
-            state.setHasValidDiscountId(0);
-            lastDiscountId = null;
+        if(response.statusCode() != 500){
+            return 0;
         }
 
-        if (httpType == HttpType.DELETE && (response.statusCode() == 200 || response.statusCode() == 204)  && strategy.getEndpoint() == Endpoint.POINTS) {
-            state.setHasValidPointsId(0);
-            lastPointsId = null;
+        // Track bug by strategy combo (captured before reset)
+        if (executedCombo != StrategyCombo.NONE) {
+            metrics.recordBug(executedCombo);
         }
+        return 10;
+    }
 
-        // GET_ALL - check if items exist
-        if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.ITEMS) {
-            extractIdFromGetAll(response, Endpoint.ITEMS);
-            if (lastItemId != null) {
-                state.setHasValidItemId(1);
-                state.setHasAnyItems(1);
-            } else {
-                state.setHasAnyItems(0);
-            }
-        }
+    private ApiResponse send(ApiRequest request) {
+        String url = url(request);
+        if (url == null) return null;
+
+        RequestEvent event = RequestEvent.beginIfEnabled();
+        long requestAlloc = allocations.start();
+        long start = System.nanoTime();
+        HttpReply reply = transport.send(method(request), url, body(request), headers(request, url));
+        long elapsed = System.nanoTime() - start;
+        allocations.stop(Scope.REQUEST, requestAlloc);
+        metrics.recordLatency(request.httpType(), request.endpoint(), reply.status(), elapsed);  // 304s as sent
+        profiler.add(Phase.TRANSPORT, elapsed);
+
+        commitRequestEvent(event, request, reply.status());
+        return toResponse(request, url, reply);
+    }
 
-        if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.PRICES) {
-            extractIdFromGetAll(response, Endpoint.PRICES);
-            if (lastPriceId != null) {
-                state.setHasValidPriceId(1);
-//                state.setHasAnyItems(1);
-//            } else {
-//                state.setHasAnyItems(0);
-            }
+    /**
+     * Sends the pending EXECUTEs of all environments at once, each as its own
+     * request, and waits for all of them. On h2c they are concurrent streams on
+     * the transport's connections. Each latency runs from the common send to that
+     * request's own completion; TRANSPORT time and REQUEST allocations are split
+     * over the requests like a batch's.
+     */
+    private ApiResponse[] sendConcurrently(ApiRequest[] requests) {
+        ApiResponse[] responses = new ApiResponse[requests.length];
+        String[] urls = new String[requests.length];
+        RequestEvent[] events = new RequestEvent[requests.length];
+        List<CompletableFuture<HttpReply>> replies = new ArrayList<>(Collections.nCopies(requests.length, null));
+        long[] done = new long[requests.length];
+        int n = 0;
+
+        long requestAlloc = allocations.start();
+        long start = System.nanoTime();
+        for (int k = 0; k < requests.length; k++) {
+            ApiRequest request = requests[k];
+            urls[k] = request != null ? url(request) : null;
+            if (urls[k] == null) continue;
+            events[k] = RequestEvent.beginIfEnabled();
+            int slot = k;
+            replies.set(k, transport.sendAsync(method(request), urls[k], body(request), headers(request, urls[k]))
+                    .whenComplete((reply, error) -> done[slot] = System.nanoTime()));
+            n++;
         }
+        if (n == 0) return responses;
+        CompletableFuture.allOf(replies.stream().filter(Objects::nonNull).toArray(CompletableFuture[]::new)).join();
+        allocations.stop(Scope.REQUEST, requestAlloc, n);
+        profiler.add(Phase.TRANSPORT, System.nanoTime() - start, n);
+
+        for (int k = 0; k < requests.length; k++) {
+            if (urls[k] == null) continue;
+            ApiRequest request = requests[k];
+            HttpReply reply = replies.get(k).join();
+            metrics.recordLatency(request.httpType(), request.endpoint(), reply.status(), done[k] - start);
+            commitRequestEvent(events[k], request, reply.status());
+            responses[k] = toResponse(request, urls[k], reply);
+        }
+        return responses;
+    }
 
-        if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.DISCOUNTS) {
-            extractIdFromGetAll(response, Endpoint.DISCOUNTS);
-            if (lastDiscountId != null) {
-                state.setHasValidDiscountId(1);
+    /**
+     * Sends the pending EXECUTEs of all environments, one _batch round trip per
+     * endpoint, and returns each environment's result at its index (null where
+     * there was no call). Latencies recorded for batched calls are the batch's
+     * round trip; TRANSPORT time and REQUEST allocations are split over its operations.
+     */
+    private ApiResponse[] sendBatched(ApiRequest[] requests) {
+        ApiResponse[] responses = new ApiResponse[requests.length];
+        int[] slots = new int[requests.length];
+        List<BatchCodec.Operation> operations = new ArrayList<>(requests.length);
+        for (Endpoint endpoint : Endpoint.values()) {
+            operations.clear();
+            int n = 0;
+            for (int k = 0; k < requests.length; k++) {
+                ApiRequest request = requests[k];
+                if (request != null && request.endpoint() == endpoint && request.httpType() != HttpType.NONE) {
+                    operations.add(toOperation(request));
+                    slots[n++] = k;
+                }
             }
-        }
+            if (n == 0) continue;
 
-        if (httpType == HttpType.GET_ALL && response.statusCode() == 200 && strategy.getEndpoint() == Endpoint.POINTS) {
-            extractIdFromGetAll(response, Endpoint.POINTS);
-            if (lastPointsId != null) {
-                state.setHasValidPointsId(1);
+            RequestEvent[] events = new RequestEvent[n];
+            for (int j = 0; j < n; j++) {
+                events[j] = RequestEvent.beginIfEnabled();
+            }
+            long requestAlloc = allocations.start();
+            long start = System.nanoTime();
+            HttpReply response = transport.send("POST", BASE_URL + endpoint.name().toLowerCase() + "/_batch",
+                    BatchCodec.encode(operations));
+            long elapsed = System.nanoTime() - start;
+            allocations.stop(Scope.REQUEST, requestAlloc, n);
+            profiler.add(Phase.TRANSPORT, elapsed, n);
+
+            // A batch that failed as a whole answers every operation with its own status
+            List<ApiResponse> results = response.status() == 200 ? BatchCodec.decode(response.body()) : null;
+            for (int j = 0; j < n; j++) {
+                ApiRequest request = requests[slots[j]];
+                ApiResponse result = results != null && j < results.size()
+                        ? results.get(j)
+                        : new ApiResponse(response.status(), NO_BODY);
+                metrics.recordLatency(request.httpType(), endpoint, result.statusCode(), elapsed);
+                commitRequestEvent(events[j], request, result.statusCode());
+                responses[slots[j]] = result;
             }
         }
+        return responses;
+    }
 
-        return state;
+    private static BatchCodec.Operation toOperation(ApiRequest request) {
+        // Ids go as text, so a missing one is "null" (400) exactly as in the URL form
+        String id = String.valueOf(request.targetId());
+        String tenant = request.episode().tenant;
+        return switch (request.httpType()) {
+            case POST -> new BatchCodec.Operation("POST", null, null, request.payload(), tenant);
+            case PUT -> new BatchCodec.Operation("PUT", id, null, request.payload(), tenant);
+            case PATCH -> new BatchCodec.Operation("PATCH", id, null, request.payload(), tenant);
+            case DELETE -> new BatchCodec.Operation("DELETE", id, null, null, tenant);
+            case GET -> new BatchCodec.Operation("GET", id, null, null, tenant);
+            case GET_ALL -> new BatchCodec.Operation("GET", null, "1", null, tenant);  // only [0].id is read
+            case NONE -> throw new IllegalArgumentException("No call for HttpType.NONE");
+        };
+    }
+
+    /**
+     * Ends the event, if one was begun, and commits it if the recording wants it.
+     */
+    private void commitRequestEvent(RequestEvent event, ApiRequest request, int status) {
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            StrategyBuilder s = request.episode().strategy;
+            event.episode = request.episode().number;
+            event.step = request.episode().currentStep;
+            event.method = request.httpType().name();
+            event.endpoint = request.endpoint().name();
+            event.strategy = s.getStrategy().name();
+            event.field = s.getField().name();
+            event.intensity = s.getIntensity().name();
+            event.status = status;
+            event.commit();
+        }
     }
 
     private int getMethodForEndpoint(HttpType httpType) {
@@ -374,7 +707,7 @@ public class SarsaRestTester {
         };
     }
 
-    private boolean[] getValidMask(State state, StrategyBuilder strategy) {
+    boolean[] getValidMask(State state, StrategyBuilder strategy) {
         boolean[] mask = new boolean[ANN_ACTIONS];
         boolean hasItemId = state.getHasValidItemId() == 1;
         boolean hasPriceId = state.getHasValidPriceId() == 1;
@@ -406,76 +739,47 @@ public class SarsaRestTester {
     }
 
     // Helper methods
-    private Response postItem(String payload, Endpoint endpoint) {
-        Response response = RestAssured.given()
-                .contentType("application/json")
-                .body(payload)
-                .post(BASE_URL + endpoint.name().toLowerCase());
-
-        if (response.statusCode() == 201) {
-            String id = response.jsonPath().getString("id");
-            if(endpoint == Endpoint.ITEMS) {
-                lastItemId = id;
-            }else if (endpoint == Endpoint.PRICES){
-                lastPriceId = id;
-            }else if(endpoint == Endpoint.DISCOUNTS){
-                lastDiscountId = id;
-            }else{
-                lastPointsId = id;
-            }
-        }
-        return response;
+    private static String url(ApiRequest request) {
+        String path = BASE_URL + request.endpoint().name().toLowerCase();
+        return switch (request.httpType()) {
+            case POST -> path;
+            case PUT, PATCH, DELETE, GET -> path + "/" + request.targetId();
+            case GET_ALL -> path + "?limit=1";  // only [0].id is read
+            case NONE -> null;
+        };
     }
 
-    public String getEndpointTarget(Endpoint endpoint){
-        if(endpoint == Endpoint.ITEMS){
-            return lastItemId;
-        } else if (endpoint == Endpoint.PRICES) {
-            return lastPriceId;
-        }else if (endpoint == Endpoint.DISCOUNTS){
-            return lastDiscountId;
-        }else{
-            return lastPointsId;
-        }
+    private static String method(ApiRequest request) {
+        return request.httpType() == HttpType.GET_ALL ? "GET" : request.httpType().name();
     }
 
-    private Response putItem(String payload, Endpoint endpoint) {
-        String targetId = getEndpointTarget(endpoint);
-
-        return RestAssured.given()
-                .contentType("application/json")
-                .body(payload)
-                .put(BASE_URL + endpoint.name().toLowerCase() + "/" + targetId);
+    private static String body(ApiRequest request) {
+        return switch (request.httpType()) {
+            case POST, PUT, PATCH -> request.payload();
+            default -> null;
+        };
     }
 
-    private Response patchItem(String payload, Endpoint endpoint) {
-        String targetId = getEndpointTarget(endpoint);
-
-        return RestAssured.given()
-                .contentType("application/json")
-                .body(payload)
-                .patch(BASE_URL + endpoint.name().toLowerCase() + "/" + targetId);
+    private static boolean isGet(HttpType httpType) {
+        return httpType == HttpType.GET || httpType == HttpType.GET_ALL;
     }
 
-    private void extractIdFromGetAll(Response response, Endpoint endpoint) {
-        if (response.statusCode() != 200) return;
+    private String[] headers(ApiRequest request, String url) {
+        String etag = isGet(request.httpType()) && CONDITIONAL_GETS ? etags.etag(etagKey(request, url)) : null;
+        return new String[]{"If-None-Match", etag, TENANT_HEADER, request.episode().tenant};
+    }
 
-        try {
-            String firstId = response.jsonPath().getString("[0].id");
-            if (firstId != null) {
-                if (endpoint == Endpoint.ITEMS) {
-                    lastItemId = firstId;
-                } else if (endpoint == Endpoint.PRICES) {
-                    lastPriceId = firstId;
-                } else if (endpoint == Endpoint.DISCOUNTS) {
-                    lastDiscountId = firstId;
-                } else{
-                    lastPointsId = firstId;
-                }
-            }
-        } catch (Exception ignored) {
-            // Empty list or invalid JSON
+    private ApiResponse toResponse(ApiRequest request, String url, HttpReply reply) {
+        if (isGet(request.httpType()) && CONDITIONAL_GETS) {
+            return etags.resolve(etagKey(request, url), reply.status(), reply.etag(), reply.body());
         }
+        return new ApiResponse(reply.status(), reply.body());
+    }
+
+    // Tenants share URLs, not entities
+    private static String etagKey(ApiRequest request, String url) {
+        String tenant = request.episode().tenant;
+        return tenant == null ? url : tenant + " " + url;
     }
 
     private State initState(){
@@ -0,0 +1,167 @@
+package com.example.sarsa.dashboard;
+
+import com.example.sarsa.metrics.MetricsRegistry;
+import com.example.sarsa.metrics.WindowStats;
+import com.example.sarsa.report.Report;
+import com.example.sarsa.report.ReportJson;
+import com.example.sarsa.report.ReportSink;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional live dashboard for a running campaign, on the JDK's built-in HttpServer.
+ *
+ *   GET /             static page polling /api/metrics
+ *   GET /api/metrics  live throughput + latest window report + reward curve
+ *
+ * Registered as a ReportSink, so the JSON for the latest report is rendered once
+ * on the reporter thread and published through a volatile field. Live numbers
+ * come from the last closed sliding-window epoch, itself a lock-free read.
+ * Requests are served on one daemon thread and never touch training state.
+ */
+public class DashboardServer implements ReportSink {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int CURVE_POINTS = 1_000;
+
+    private final HttpServer server;
+    private final MetricsRegistry metrics;
+    private final byte[] page;
+
+    // Reporter-owned reward curve; every other thread reads latestReport only
+    private final long[] curveEpisodes = new long[CURVE_POINTS];
+    private final double[] curveRewards = new double[CURVE_POINTS];
+    private int curveSize;
+
+    private volatile byte[] latestReport;
+
+    public DashboardServer(int port, MetricsRegistry metrics) throws IOException {
+        this.metrics = metrics;
+        this.page = loadPage();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/api/metrics", this::serveMetrics);
+        this.server.createContext("/", this::servePage);
+        this.server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "sarsa-dashboard");
+            t.setDaemon(true);
+            return t;
+        }));
+        this.server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // ========================== ReportSink ==========================
+
+    @Override
+    public void accept(Report report) throws IOException {
+        appendCurvePoint(report.getEpisode(), report.getMetrics().getAvgReward());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024);
+        try (JsonGenerator json = JSON.createGenerator(bytes)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("rewardCurve");
+            for (int i = 0; i < curveSize; i++) {
+                json.writeStartArray();
+                json.writeNumber(curveEpisodes[i]);
+                json.writeNumber(curveRewards[i]);
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+            json.writeFieldName("report");
+            ReportJson.write(json, report);
+            json.writeEndObject();
+        }
+        latestReport = bytes.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Keeps at most CURVE_POINTS points by dropping every other one when full.
+     */
+    private void appendCurvePoint(long episode, double avgReward) {
+        if (curveSize == CURVE_POINTS) {
+            for (int i = 0; i < CURVE_POINTS / 2; i++) {
+                curveEpisodes[i] = curveEpisodes[i * 2 + 1];
+                curveRewards[i] = curveRewards[i * 2 + 1];
+            }
+            curveSize = CURVE_POINTS / 2;
+        }
+        curveEpisodes[curveSize] = episode;
+        curveRewards[curveSize] = avgReward;
+        curveSize++;
+    }
+
+    // ========================== HTTP ==========================
+
+    private void serveMetrics(HttpExchange exchange) throws IOException {
+        WindowStats last = metrics.getSliding().window(1);
+        double seconds = last.getElapsedSeconds();
+        byte[] report = latestReport;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(report != null ? report.length + 256 : 256);
+        try (JsonGenerator json = JSON.createGenerator(bytes)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("live");
+            json.writeNumberField("epochs", metrics.getSliding().getEpochs());
+            json.writeNumberField("episodesPerSec", seconds > 0 ? last.getEpisodes() / seconds : 0);
+            json.writeNumberField("requestsPerSec", seconds > 0 ? last.getRequests() / seconds : 0);
+            json.writeNumberField("avgReward", last.getAvgReward());
+            json.writeNumberField("bugRate", last.getBugRate());
+            json.writeNumberField("uniqueBugCombos", metrics.getUniqueBugCombos());
+            json.writeEndObject();
+            json.writeFieldName("latest");
+            if (report != null) {
+                json.writeRawValue(new String(report, StandardCharsets.UTF_8));
+            } else {
+                json.writeNull();
+            }
+            json.writeEndObject();
+        }
+        send(exchange, "application/json", bytes.toByteArray());
+    }
+
+    private void servePage(HttpExchange exchange) throws IOException {
+        if (!"/".equals(exchange.getRequestURI().getPath())) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        send(exchange, "text/html; charset=utf-8", page);
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] loadPage() throws IOException {
+        try (InputStream in = DashboardServer.class.getResourceAsStream("/sarsa/dashboard.html")) {
+            if (in == null) {
+                throw new IOException("dashboard.html missing from classpath");
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.sarsa.http;
+
+import com.example.sarsa.model.ApiResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client half of conditional GET: the last ETag and body seen per URL (or per
+ * any key that identifies the resource, e.g. tenant plus URL).
+ *
+ *   String etag = cache.etag(url);          // send as If-None-Match when non-null
+ *   ApiResponse r = cache.resolve(url, status, responseEtag, body);
+ *
+ * A 304 is resolved back into the 200 and body it stands for, so the agent's
+ * state and reward see the same response whether or not the target re-sent it.
+ * LRU-bounded; single owner like the rest of the per-worker tester state.
+ */
+public class EtagCache {
+
+    private static final int NOT_MODIFIED = 304;
+    private static final int OK = 200;
+
+    private record Entry(String etag, byte[] body) {
+    }
+
+    private final Map<String, Entry> entries;
+
+    public EtagCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public String etag(String url) {
+        Entry entry = entries.get(url);
+        return entry != null ? entry.etag() : null;
+    }
+
+    public ApiResponse resolve(String url, int status, String etag, byte[] body) {
+        if (status == NOT_MODIFIED) {
+            Entry entry = entries.get(url);
+            if (entry != null) {
+                return new ApiResponse(OK, entry.body());
+            }
+            return new ApiResponse(status, body);  // never sent a tag for it; pass through
+        }
+        if (status == OK && etag != null) {
+            entries.put(url, new Entry(etag, body));
+        } else {
+            entries.remove(url);
+        }
+        return new ApiResponse(status, body);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.sarsa.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * HTTP/2 over cleartext with java.net.http: a fixed set of connections, each
+ * carrying any number of concurrent requests as streams. Requests go to the
+ * connections round-robin.
+ *
+ * The JDK client only reaches h2c through an Upgrade from HTTP/1.1, so
+ * connect() sends one GET per connection first; otherwise concurrent first
+ * requests would each open and upgrade a connection of their own (and Netty
+ * answers an Upgrade that carries a body with 413).
+ * The target must allow as many concurrent streams per connection as there
+ * are requests in flight on it (http2.max-concurrent-streams); streams
+ * beyond that fail with "too many concurrent streams".
+ */
+public class H2cTransport implements Transport {
+
+    private final HttpClient[] connections;
+    private final String[] headers;
+    private int next;
+
+    public H2cTransport(int connections, Map<String, String> headers) {
+        this.connections = new HttpClient[connections];
+        for (int i = 0; i < connections; i++) {
+            // One client each: a client holds at most one HTTP/2 connection per origin
+            this.connections[i] = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+        }
+        this.headers = headers.entrySet().stream()
+                .flatMap(e -> Stream.of(e.getKey(), e.getValue()))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Upgrades every connection with a GET of url. Returns the protocol the
+     * last one ended up on; HTTP_1_1 means the target did not accept h2c.
+     */
+    public HttpClient.Version connect(String url) {
+        HttpClient.Version version = null;
+        for (HttpClient connection : connections) {
+            try {
+                version = connection.send(request("GET", url, null), HttpResponse.BodyHandlers.discarding()).version();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return version;
+    }
+
+    @Override
+    public HttpReply send(String method, String url, String body, String... headers) {
+        try {
+            return reply(nextConnection().send(request(method, url, body, headers), HttpResponse.BodyHandlers.ofByteArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpReply> sendAsync(String method, String url, String body, String... headers) {
+        return nextConnection().sendAsync(request(method, url, body, headers), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(H2cTransport::reply);
+    }
+
+    private HttpClient nextConnection() {
+        HttpClient connection = connections[next];
+        next = (next + 1) % connections.length;
+        return connection;
+    }
+
+    private HttpRequest request(String method, String url, String body, String... extraHeaders) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        for (int i = 0; i < extraHeaders.length; i += 2) {
+            if (extraHeaders[i + 1] != null) {
+                request.header(extraHeaders[i], extraHeaders[i + 1]);
+            }
+        }
+        return request.build();
+    }
+
+    private static HttpReply reply(HttpResponse<byte[]> response) {
+        return new HttpReply(response.statusCode(), response.headers().firstValue("ETag").orElse(null), response.body());
+    }
+}
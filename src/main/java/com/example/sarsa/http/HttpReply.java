@@ -0,0 +1,8 @@
+package com.example.sarsa.http;
+
+/**
+ * One HTTP response as a Transport returns it: the wire status (304s included),
+ * the ETag header if any, and the raw body.
+ */
+public record HttpReply(int status, String etag, byte[] body) {
+}
@@ -0,0 +1,36 @@
+package com.example.sarsa.http;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Map;
+
+/**
+ * HTTP/1.1 through RestAssured, one blocking call at a time over its pooled
+ * keep-alive connection. The tester's original transport.
+ */
+public class RestAssuredTransport implements Transport {
+
+    private final RequestSpecification defaults;
+
+    public RestAssuredTransport(Map<String, String> headers) {
+        this.defaults = new RequestSpecBuilder().addHeaders(headers).build();
+    }
+
+    @Override
+    public HttpReply send(String method, String url, String body, String... headers) {
+        RequestSpecification request = RestAssured.given(defaults);
+        if (body != null) {
+            request.contentType("application/json").body(body);
+        }
+        for (int i = 0; i < headers.length; i += 2) {
+            if (headers[i + 1] != null) {
+                request.header(headers[i], headers[i + 1]);
+            }
+        }
+        Response response = request.request(method, url);
+        return new HttpReply(response.statusCode(), response.header("ETag"), response.asByteArray());
+    }
+}
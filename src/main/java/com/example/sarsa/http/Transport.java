@@ -0,0 +1,31 @@
+package com.example.sarsa.http;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * How the tester reaches the target. Every call carries the transport's
+ * default headers plus its own, given as name/value pairs (pairs with a null
+ * value are left out); body is JSON (sent as application/json) or null.
+ *
+ *   HttpReply r = transport.send("PUT", url, payload);
+ *   CompletableFuture<HttpReply> f = transport.sendAsync("GET", url, null, "If-None-Match", etag);
+ *
+ * sendAsync only overlaps requests on transports that can have several in
+ * flight; the default runs the call before returning.
+ */
+public interface Transport extends AutoCloseable {
+
+    HttpReply send(String method, String url, String body, String... headers);
+
+    default CompletableFuture<HttpReply> sendAsync(String method, String url, String body, String... headers) {
+        try {
+            return CompletableFuture.completedFuture(send(method, url, body, headers));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    default void close() {
+    }
+}
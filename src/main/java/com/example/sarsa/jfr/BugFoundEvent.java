@@ -0,0 +1,29 @@
+package com.example.sarsa.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A 500 response, tagged with the strategy combo that produced it.
+ */
+@Name("com.example.sarsa.BugFound")
+@Label("SARSA Bug Found")
+@Category({"SARSA", "Training"})
+@StackTrace(false)
+public class BugFoundEvent extends Event {
+
+    @Label("Episode")
+    public long episode;
+
+    @Label("Step")
+    public int step;
+
+    @Label("Action")
+    public int action;
+
+    @Label("Combo")
+    @Description("HttpType+Endpoint+Strategy+Field")
+    public String combo;
+
+    @Label("Status")
+    public int status;
+}
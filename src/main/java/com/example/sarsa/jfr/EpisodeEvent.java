@@ -0,0 +1,26 @@
+package com.example.sarsa.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * One SARSA episode, from reset to the last step. Duration is the episode wall time.
+ */
+@Name("com.example.sarsa.Episode")
+@Label("SARSA Episode")
+@Category({"SARSA", "Training"})
+@StackTrace(false)
+public class EpisodeEvent extends Event {
+
+    @Label("Episode")
+    public long episode;
+
+    @Label("Reward")
+    public double reward;
+
+    @Label("Bugs Found")
+    public int bugs;
+
+    @Label("Executes")
+    @Description("Steps that fired an API call")
+    public int executes;
+}
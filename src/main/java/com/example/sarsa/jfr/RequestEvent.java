@@ -0,0 +1,50 @@
+package com.example.sarsa.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * One API call fired by EXECUTE. Duration covers the HTTP round trip only.
+ * Created through beginIfEnabled(), so runs without a recording allocate none.
+ */
+@Name("com.example.sarsa.Request")
+@Label("SARSA Request")
+@Category({"SARSA", "HTTP"})
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    @Label("Episode")
+    public long episode;
+
+    @Label("Step")
+    public int step;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Field")
+    public String field;
+
+    @Label("Intensity")
+    public String intensity;
+
+    @Label("Status")
+    public int status;
+
+    private static final EventType TYPE = EventType.getEventType(RequestEvent.class);
+
+    /**
+     * A begun event if a running recording has this event enabled, else null.
+     */
+    public static RequestEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) return null;
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.sarsa.json;
+
+import com.example.sarsa.model.ApiResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format of POST /api/{resource}/_batch, written and read with the streaming API.
+ *
+ *   request:  [{"method":"POST","body":"{\"name\":\"a\"}"},{"method":"GET","id":"7"}]
+ *   response: [{"status":201,"body":{"id":8,...}},{"status":404,"body":null}]
+ *
+ * Bodies go out as JSON strings holding the payload verbatim, so malformed
+ * payloads still reach the endpoint and fail there. Each result's body comes
+ * back as its own JSON bytes, as a single response would carry it.
+ */
+public final class BatchCodec {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * One operation; null fields are left out.
+     */
+    public record Operation(String method, String id, String limit, String body, String tenant) {
+    }
+
+    private BatchCodec() {
+    }
+
+    public static String encode(List<Operation> operations) {
+        StringWriter out = new StringWriter(64 * operations.size());
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartArray();
+            for (Operation operation : operations) {
+                json.writeStartObject();
+                json.writeStringField("method", operation.method());
+                if (operation.id() != null) json.writeStringField("id", operation.id());
+                if (operation.limit() != null) json.writeStringField("limit", operation.limit());
+                if (operation.body() != null) json.writeStringField("body", operation.body());
+                if (operation.tenant() != null) json.writeStringField("tenant", operation.tenant());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // in-memory, does not happen
+        }
+        return out.toString();
+    }
+
+    /**
+     * Results in request order, or null if the body is not a batch response.
+     */
+    public static List<ApiResponse> decode(byte[] body) {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) return null;
+            List<ApiResponse> results = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                results.add(readResult(parser));
+            }
+            return results;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static ApiResponse readResult(JsonParser parser) throws IOException {
+        int status = 0;
+        byte[] body = EMPTY;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("status".equals(field)) {
+                status = parser.getIntValue();
+            } else if ("body".equals(field) && value != JsonToken.VALUE_NULL) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (JsonGenerator json = JSON.createGenerator(out)) {
+                    json.copyCurrentStructure(parser);
+                }
+                body = out.toByteArray();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new ApiResponse(status, body);
+    }
+}
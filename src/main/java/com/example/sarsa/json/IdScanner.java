@@ -0,0 +1,57 @@
+package com.example.sarsa.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Streaming lookup of the top-level "id" in a response body.
+ *
+ *   objectId("{"id":7,"item":{"id":3}}")   -> "7"
+ *   firstElementId("[{"id":1},{"id":2}]")  -> "1"
+ *
+ * Reads tokens only until the id is found; nested objects before it are skipped
+ * without being materialized, and nothing after it is looked at. Returns the id
+ * as text (same as jsonPath().getString), or null if absent, null or malformed.
+ */
+public final class IdScanner {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private IdScanner() {
+    }
+
+    public static String objectId(byte[] body) {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? scanObject(parser) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static String firstElementId(byte[] body) {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) return null;
+            return parser.nextToken() == JsonToken.START_OBJECT ? scanObject(parser) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parser is positioned on START_OBJECT; scans that object's own fields only.
+     */
+    private static String scanObject(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean isId = "id".equals(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (isId) {
+                return value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+}
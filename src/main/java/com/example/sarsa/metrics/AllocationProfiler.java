@@ -0,0 +1,77 @@
+package com.example.sarsa.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Per-worker allocation accounting from the thread's allocated-bytes counter.
+ *
+ * Usage:
+ *   long a = allocations.start();
+ *   ... scope ...
+ *   allocations.stop(AllocationProfiler.Scope.STEP, a);
+ *
+ * Switched globally with setEnabled (default: -Dsarsa.allocations=true), and only
+ * when the JVM supports thread allocation accounting. Same contract as
+ * PhaseProfiler: one field read when off, single owner, snapshot by the owner.
+ */
+public class AllocationProfiler {
+
+    public enum Scope {
+        EPISODE, STEP, REQUEST;
+
+        static final int COUNT = values().length;
+    }
+
+    private static final long OFF = Long.MIN_VALUE;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile boolean enabled;
+
+    static {
+        setEnabled(Boolean.getBoolean("sarsa.allocations"));
+    }
+
+    private final long[] bytes = new long[Scope.COUNT];
+    private final long[] calls = new long[Scope.COUNT];
+
+    public static void setEnabled(boolean on) {
+        if (on && THREADS.isThreadAllocatedMemorySupported()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+            enabled = true;
+        } else {
+            enabled = false;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public long start() {
+        return enabled ? THREADS.getCurrentThreadAllocatedBytes() : OFF;
+    }
+
+    public void stop(Scope scope, long start) {
+        stop(scope, start, 1);
+    }
+
+    /**
+     * Stops a scope that covered count calls at once, such as one batched round trip.
+     */
+    public void stop(Scope scope, long start, int count) {
+        if (start != OFF) {
+            bytes[scope.ordinal()] += THREADS.getCurrentThreadAllocatedBytes() - start;
+            calls[scope.ordinal()] += count;
+        }
+    }
+
+    public AllocationSnapshot snapshotAndReset() {
+        AllocationSnapshot snapshot = new AllocationSnapshot(bytes.clone(), calls.clone());
+        Arrays.fill(bytes, 0);
+        Arrays.fill(calls, 0);
+        return snapshot;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.metrics.AllocationProfiler.Scope;
+import lombok.AllArgsConstructor;
+
+/**
+ * Allocation totals for one reporting window, indexed by Scope ordinal.
+ */
+@AllArgsConstructor
+public class AllocationSnapshot {
+
+    private final long[] bytes;
+    private final long[] calls;
+
+    public boolean isEmpty() {
+        return calls[Scope.STEP.ordinal()] == 0;
+    }
+
+    public long bytes(Scope scope) { return bytes[scope.ordinal()]; }
+    public long calls(Scope scope) { return calls[scope.ordinal()]; }
+
+    public double bytesPer(Scope scope) {
+        long n = calls(scope);
+        return n > 0 ? (double) bytes(scope) / n : 0;
+    }
+
+    /**
+     * Step allocation outside the HTTP call, averaged over all steps.
+     * This is the part the agent loop itself owns.
+     */
+    public double nonHttpBytesPerStep() {
+        long steps = calls(Scope.STEP);
+        return steps > 0 ? (double) Math.max(0, bytes(Scope.STEP) - bytes(Scope.REQUEST)) / steps : 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.sarsa.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact, lock-free set of int codes in [0, space), one bit per code.
+ * Memory is fixed by the code space (StrategyCombo.SPACE bits = 4 KB today).
+ */
+public class ComboSet {
+
+    private final AtomicLongArray words;
+    private final LongAdder size = new LongAdder();
+
+    public ComboSet(int space) {
+        this.words = new AtomicLongArray((space + 63) >>> 6);
+    }
+
+    /**
+     * @return true if the code was not in the set yet
+     */
+    public boolean add(int code) {
+        int word = code >>> 6;
+        long bit = 1L << code;
+        long current = words.get(word);
+        while ((current & bit) == 0) {
+            long witness = words.compareAndExchange(word, current, current | bit);
+            if (witness == current) {
+                size.increment();
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    public boolean contains(int code) {
+        return (words.get(code >>> 6) & (1L << code)) != 0;
+    }
+
+    public int size() {
+        return size.intValue();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.strategy.*;
+
+/**
+ * Offsets of the registry's counters in one flat vector, shared by the live
+ * LongAdders, the sliding-window epochs and WindowStats:
+ *
+ *   [episodes, bugs, executes, dial-turners, requests | HttpType.. | Endpoint.. | Strategy.. | Field.. | Intensity.. | actions..]
+ */
+final class CounterLayout {
+
+    static final int EPISODES = 0;
+    static final int BUGS = 1;
+    static final int EXECUTES = 2;
+    static final int DIAL_TURNERS = 3;
+    static final int REQUESTS = 4;  // API calls actually sent (batched operations count singly)
+
+    static final int HTTP_TYPES = 5;
+    static final int ENDPOINTS = HTTP_TYPES + HttpType.values().length;
+    static final int STRATEGIES = ENDPOINTS + Endpoint.values().length;
+    static final int FIELDS = STRATEGIES + Strategy.values().length;
+    static final int INTENSITIES = FIELDS + Field.values().length;
+    static final int ACTIONS = INTENSITIES + Intensity.values().length;
+
+    private CounterLayout() {
+    }
+
+    static int size(int actionCount) {
+        return ACTIONS + actionCount;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.strategy.Endpoint;
+import com.example.sarsa.strategy.HttpType;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One LatencyHistogram per (HttpType, Endpoint, status class), preallocated,
+ * so recording an API call never allocates.
+ */
+public class LatencyRecorder {
+
+    private static final int STATUS_CLASSES = 6;  // other, 1xx..5xx
+    private static final HttpType[] HTTP_TYPES = HttpType.values();
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+
+    private final LatencyHistogram[] histograms =
+            new LatencyHistogram[HTTP_TYPES.length * ENDPOINTS.length * STATUS_CLASSES];
+
+    public LatencyRecorder() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public void record(HttpType httpType, Endpoint endpoint, int statusCode, long nanos) {
+        histograms[slot(httpType.ordinal(), endpoint.ordinal(), statusClass(statusCode))].record(nanos);
+    }
+
+    /**
+     * Percentiles over the whole run (everything drained so far).
+     */
+    public List<LatencySummary> cumulative() {
+        long[][] counts = new long[histograms.length][];
+        for (int i = 0; i < histograms.length; i++) {
+            counts[i] = histograms[i].cumulative();
+        }
+        return summarize(counts);
+    }
+
+    /**
+     * Raw window counts per histogram since the last drain, null where empty.
+     * Cheap next to summarize(), so it can run at the window boundary.
+     */
+    long[][] drainWindows() {
+        long[][] counts = new long[histograms.length][];
+        for (int i = 0; i < histograms.length; i++) {
+            long[] drained = histograms[i].drainWindow();
+            counts[i] = LatencyHistogram.countOf(drained) > 0 ? drained : null;
+        }
+        return counts;
+    }
+
+    /**
+     * Percentiles of drained counts, non-empty histograms only.
+     */
+    List<LatencySummary> summarize(long[][] counts) {
+        List<LatencySummary> result = new ArrayList<>();
+        for (HttpType t : HTTP_TYPES) {
+            for (Endpoint e : ENDPOINTS) {
+                for (int c = 0; c < STATUS_CLASSES; c++) {
+                    long[] slotCounts = counts[slot(t.ordinal(), e.ordinal(), c)];
+                    if (slotCounts != null && LatencyHistogram.countOf(slotCounts) > 0) {
+                        result.add(LatencySummary.of(t, e, c, slotCounts));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes cumulative percentiles plus the full bucket distribution of every
+     * non-empty histogram. First drains whatever the last report window left
+     * (a run that doesn't end on a window boundary), so call it only once the
+     * reporter has stopped.
+     */
+    public void dump(Path file) throws IOException {
+        drainWindows();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.printf("%-8s %-10s %-6s %10s %12s %12s %12s %12s%n",
+                    "method", "endpoint", "status", "count", "p50_us", "p99_us", "p999_us", "max_us");
+            for (LatencySummary s : cumulative()) {
+                out.printf("%-8s %-10s %-6s %10d %12.1f %12.1f %12.1f %12.1f%n",
+                        s.getHttpType(), s.getEndpoint(), s.getStatusLabel(), s.getCount(),
+                        s.getP50() / 1e3, s.getP99() / 1e3, s.getP999() / 1e3, s.getMax() / 1e3);
+            }
+
+            for (HttpType t : HTTP_TYPES) {
+                for (Endpoint e : ENDPOINTS) {
+                    for (int c = 0; c < STATUS_CLASSES; c++) {
+                        long[] counts = histograms[slot(t.ordinal(), e.ordinal(), c)].cumulative();
+                        long n = LatencyHistogram.countOf(counts);
+                        if (n == 0) continue;
+
+                        out.printf("%n# %s %s %s%n", t, e, c == 0 ? "other" : c + "xx");
+                        out.printf("%14s %10s %10s%n", "value_us", "percentile", "count");
+                        long seen = 0;
+                        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                            if (counts[i] == 0) continue;
+                            seen += counts[i];
+                            out.printf("%14.1f %10.5f %10d%n",
+                                    LatencyHistogram.highestValueAt(i) / 1e3, (double) seen / n, counts[i]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int statusClass(int statusCode) {
+        int c = statusCode / 100;
+        return c >= 1 && c <= 5 ? c : 0;
+    }
+
+    private static int slot(int httpType, int endpoint, int statusClass) {
+        return (httpType * ENDPOINTS.length + endpoint) * STATUS_CLASSES + statusClass;
+    }
+}
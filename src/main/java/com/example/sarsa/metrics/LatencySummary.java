@@ -0,0 +1,36 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.strategy.Endpoint;
+import com.example.sarsa.strategy.HttpType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Percentiles of one (HttpType, Endpoint, status class) histogram. Values in nanoseconds.
+ */
+@Getter
+@AllArgsConstructor
+public class LatencySummary {
+
+    private final HttpType httpType;
+    private final Endpoint endpoint;
+    private final int statusClass;  // 2 = 2xx, 4 = 4xx, 5 = 5xx, 0 = other
+    private final long count;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    static LatencySummary of(HttpType httpType, Endpoint endpoint, int statusClass, long[] counts) {
+        long n = LatencyHistogram.countOf(counts);
+        return new LatencySummary(httpType, endpoint, statusClass, n,
+                LatencyHistogram.valueAtPercentile(counts, n, 50.0),
+                LatencyHistogram.valueAtPercentile(counts, n, 99.0),
+                LatencyHistogram.valueAtPercentile(counts, n, 99.9),
+                counts[LatencyHistogram.BUCKETS]);
+    }
+
+    public String getStatusLabel() {
+        return statusClass == 0 ? "other" : statusClass + "xx";
+    }
+}
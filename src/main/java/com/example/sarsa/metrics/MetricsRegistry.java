@@ -0,0 +1,192 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.strategy.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.sarsa.metrics.CounterLayout.*;
+
+/**
+ * Training metrics shared by all SARSA workers.
+ *
+ * Counters are striped (LongAdder), cumulative for the run and laid out in one
+ * flat vector (CounterLayout), so concurrent workers never contend on a lock and
+ * nothing is boxed per step.
+ *
+ * Windows are differences of cumulative samples, nothing is ever cleared:
+ *   closeEpoch()       - every EPOCH episodes, feeds the sliding-window ring
+ *   sampleWindow()     - every report boundary, totals since the previous one
+ *                        plus the configured sliding windows
+ * Workers keep running during either call; a racing increment simply lands on
+ * one side of the boundary. snapshotOf() then labels and summarizes a sample
+ * off the training thread.
+ */
+public class MetricsRegistry {
+
+    private final LongAdder[] counters;
+    private final DoubleAdder totalReward = new DoubleAdder();
+
+    // Bugs by StrategyCombo code (intensity dropped): bounded heavy hitters per window,
+    // guarded by its monitor since bugs are rare next to steps; exact distinct set for the run.
+    private static final int TOP_K_CAPACITY = 256;
+    private static final int TOP_K_REPORTED = 20;
+    private final SpaceSavingTopK bugsByCombo = new SpaceSavingTopK(TOP_K_CAPACITY);
+    private final ComboSet uniqueBugCombos = new ComboSet(StrategyCombo.SPACE);
+
+    // API call latency per (HttpType, Endpoint, status class)
+    private final LatencyRecorder latencies = new LatencyRecorder();
+
+    // Sliding windows over closed epochs
+    private final SlidingWindowStats sliding;
+    private final int[] slidingWindowEpochs;
+
+    // Owned by the thread closing windows: cumulative sample at the previous boundary
+    private long[] lastReported;
+    private double lastReportedReward;
+    private long lastReportedNanos = System.nanoTime();
+
+    /**
+     * @param actionCount         size of the action space
+     * @param epochCapacity       epochs kept in the sliding-window ring
+     * @param slidingWindowEpochs window lengths (in epochs) included in each snapshot
+     */
+    public MetricsRegistry(int actionCount, int epochCapacity, int... slidingWindowEpochs) {
+        this.counters = new LongAdder[CounterLayout.size(actionCount)];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        this.lastReported = new long[counters.length];
+        this.sliding = new SlidingWindowStats(epochCapacity, counters.length);
+        this.slidingWindowEpochs = slidingWindowEpochs.clone();
+    }
+
+    // ========================== Recording ==========================
+
+    public void recordAction(int action) {
+        counters[ACTIONS + action].increment();
+    }
+
+    public void recordExecute(StrategyBuilder strategy) {
+        counters[EXECUTES].increment();
+        counters[HTTP_TYPES + strategy.getHttpType().ordinal()].increment();
+        counters[ENDPOINTS + strategy.getEndpoint().ordinal()].increment();
+        counters[STRATEGIES + strategy.getStrategy().ordinal()].increment();
+        counters[FIELDS + strategy.getField().ordinal()].increment();
+        counters[INTENSITIES + strategy.getIntensity().ordinal()].increment();
+    }
+
+    public void recordDialTurner() {
+        counters[DIAL_TURNERS].increment();
+    }
+
+    public void recordBug(int combo) {
+        int key = StrategyCombo.withoutIntensity(combo);
+        uniqueBugCombos.add(key);
+        synchronized (bugsByCombo) {
+            bugsByCombo.offer(key);
+        }
+    }
+
+    /**
+     * One API call actually sent: EXECUTEs of HttpType.NONE never get here.
+     */
+    public void recordLatency(HttpType httpType, Endpoint endpoint, int statusCode, long nanos) {
+        counters[REQUESTS].increment();
+        latencies.record(httpType, endpoint, statusCode, nanos);
+    }
+
+    public void recordEpisode(double reward, int bugs) {
+        counters[EPISODES].increment();
+        counters[BUGS].add(bugs);
+        totalReward.add(reward);
+    }
+
+    /**
+     * Closes the current sliding-window epoch. Called by one thread only.
+     */
+    public void closeEpoch() {
+        sliding.closeEpoch(counters, totalReward);
+    }
+
+    // ========================== Reporting ==========================
+
+    public int getUniqueBugCombos() {
+        return uniqueBugCombos.size();
+    }
+
+    public LatencyRecorder getLatencies() {
+        return latencies;
+    }
+
+    public SlidingWindowStats getSliding() {
+        return sliding;
+    }
+
+    /**
+     * Raw totals of one window, taken at its boundary; see snapshotOf().
+     */
+    public record WindowSample(long[] counts, double reward, long windowNanos, int uniqueBugCombos,
+                               int[] comboKeys, long[] comboCounts, long[][] latencies,
+                               List<WindowStats> slidingWindows) {
+    }
+
+    /**
+     * Totals since the previous call plus the sliding windows: adder sums and
+     * array copies only, so the thread that closes the window takes it at the
+     * boundary and a report covers exactly its episodes. Single caller.
+     * Unique bug combos are cumulative; top combos and latencies are per window.
+     */
+    public WindowSample sampleWindow() {
+        long now = System.nanoTime();
+        long[] current = new long[counters.length];
+        long[] delta = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            current[i] = counters[i].sum();
+            delta[i] = current[i] - lastReported[i];
+        }
+        double reward = totalReward.sum();
+        double rewardDelta = reward - lastReportedReward;
+        long windowNanos = now - lastReportedNanos;
+        lastReported = current;
+        lastReportedReward = reward;
+        lastReportedNanos = now;
+
+        int[] comboKeys = new int[TOP_K_REPORTED];
+        long[] comboCounts = new long[TOP_K_REPORTED];
+        int n;
+        synchronized (bugsByCombo) {
+            n = bugsByCombo.top(comboKeys, comboCounts);
+            bugsByCombo.clear();
+        }
+
+        List<WindowStats> windows = new ArrayList<>(slidingWindowEpochs.length);
+        for (int epochs : slidingWindowEpochs) {
+            windows.add(sliding.window(epochs));
+        }
+
+        return new WindowSample(delta, rewardDelta, windowNanos, uniqueBugCombos.size(),
+                Arrays.copyOf(comboKeys, n), Arrays.copyOf(comboCounts, n),
+                latencies.drainWindows(), List.copyOf(windows));
+    }
+
+    /**
+     * The report view of a sample: combo labels and latency percentiles. Called
+     * by the reporter, so decoding never runs on the hot path.
+     */
+    public MetricsSnapshot snapshotOf(WindowSample sample) {
+        List<Map.Entry<String, Long>> combos = new ArrayList<>(sample.comboKeys().length);
+        for (int i = 0; i < sample.comboKeys().length; i++) {
+            combos.add(Map.entry(StrategyCombo.toString(sample.comboKeys()[i]), sample.comboCounts()[i]));
+        }
+        return new MetricsSnapshot(sample.counts(), sample.reward(), sample.windowNanos(),
+                sample.uniqueBugCombos(),
+                List.copyOf(combos),
+                latencies.summarize(sample.latencies()),
+                sample.slidingWindows());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.sarsa.metrics;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of one reporting window, produced by MetricsRegistry.snapshotOf().
+ * Counter totals cover the episodes since the previous report; the sliding
+ * windows cover the last N epochs regardless of report boundaries.
+ */
+@Getter
+public class MetricsSnapshot extends WindowStats {
+
+    private final int uniqueBugCombos;
+
+    // Heavy hitters of the window, highest first (Space-Saving estimates)
+    private final List<Map.Entry<String, Long>> bugsByCombo;
+
+    // Non-empty API latency histograms for this window
+    private final List<LatencySummary> latencies;
+
+    // One entry per configured sliding window, shortest first
+    private final List<WindowStats> slidingWindows;
+
+    MetricsSnapshot(long[] counts, double totalReward, long windowNanos,
+                    int uniqueBugCombos,
+                    List<Map.Entry<String, Long>> bugsByCombo,
+                    List<LatencySummary> latencies,
+                    List<WindowStats> slidingWindows) {
+        super(counts, totalReward, windowNanos);
+        this.uniqueBugCombos = uniqueBugCombos;
+        this.bugsByCombo = bugsByCombo;
+        this.latencies = latencies;
+        this.slidingWindows = slidingWindows;
+    }
+
+    public List<Map.Entry<String, Long>> topBugCombos(int n) {
+        return bugsByCombo.subList(0, Math.min(n, bugsByCombo.size()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.sarsa.metrics;
+
+/**
+ * Parts of a SARSA step timed by PhaseProfiler.
+ */
+public enum Phase {
+    PAYLOAD,    // PayloadGenerator.generate
+    TRANSPORT,  // HTTP round trip
+    ID_EXTRACT, // streaming id extraction from POST / GET_ALL responses
+    MASK,       // getValidMask
+    SELECT,     // State.scale + epsilonGreedyMasked
+    UPDATE,     // sarsaUpdate
+    STEP;       // whole step, the remainder is bookkeeping
+
+    public static final int COUNT = values().length;
+}
@@ -0,0 +1,76 @@
+package com.example.sarsa.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Per-worker step profiler: System.nanoTime deltas summed into primitive arrays.
+ *
+ * Usage:
+ *   long t = profiler.start();
+ *   ... phase ...
+ *   profiler.stop(Phase.MASK, t);
+ *
+ * Switched globally at runtime with setEnabled (default: -Dsarsa.profile=true).
+ * When disabled start() is one field read and stop() one compare, no clock reads.
+ * Not thread-safe: each worker owns its profiler and snapshots it itself.
+ */
+public class PhaseProfiler {
+
+    private static final long OFF = Long.MIN_VALUE;
+
+    private static volatile boolean enabled = Boolean.getBoolean("sarsa.profile");
+
+    private final long[] nanos = new long[Phase.COUNT];
+    private final long[] calls = new long[Phase.COUNT];
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : OFF;
+    }
+
+    public void stop(Phase phase, long start) {
+        if (start != OFF) {
+            add(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stops an interval that covered several calls at once (e.g. lock-stepped environments).
+     */
+    public void stop(Phase phase, long start, int count) {
+        if (start != OFF) {
+            add(phase, System.nanoTime() - start, count);
+        }
+    }
+
+    /**
+     * Adds an interval the caller already measured (e.g. the latency timer).
+     */
+    public void add(Phase phase, long elapsedNanos) {
+        add(phase, elapsedNanos, 1);
+    }
+
+    /**
+     * Adds an interval shared by count calls, such as one batched round trip.
+     */
+    public void add(Phase phase, long elapsedNanos, int count) {
+        if (enabled) {
+            nanos[phase.ordinal()] += elapsedNanos;
+            calls[phase.ordinal()] += count;
+        }
+    }
+
+    public PhaseSnapshot snapshotAndReset() {
+        PhaseSnapshot snapshot = new PhaseSnapshot(nanos.clone(), calls.clone());
+        Arrays.fill(nanos, 0);
+        Arrays.fill(calls, 0);
+        return snapshot;
+    }
+}
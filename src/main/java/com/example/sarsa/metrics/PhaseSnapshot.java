@@ -0,0 +1,44 @@
+package com.example.sarsa.metrics;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Phase totals for one reporting window, indexed by Phase ordinal.
+ */
+@AllArgsConstructor
+public class PhaseSnapshot {
+
+    private final long[] nanos;
+    private final long[] calls;
+
+    public boolean isEmpty() {
+        return calls[Phase.STEP.ordinal()] == 0;
+    }
+
+    public long nanos(Phase phase) { return nanos[phase.ordinal()]; }
+    public long calls(Phase phase) { return calls[phase.ordinal()]; }
+
+    public double avgMicros(Phase phase) {
+        long n = calls(phase);
+        return n > 0 ? nanos(phase) / 1e3 / n : 0;
+    }
+
+    /**
+     * Share of total step time spent in the phase.
+     */
+    public double percentOfStep(Phase phase) {
+        long step = nanos(Phase.STEP);
+        return step > 0 ? nanos(phase) * 100.0 / step : 0;
+    }
+
+    /**
+     * Step time not covered by any measured phase.
+     */
+    public long otherNanos() {
+        long measured = 0;
+        for (Phase p : Phase.values()) {
+            if (p != Phase.STEP) measured += nanos[p.ordinal()];
+        }
+        return Math.max(0, nanos(Phase.STEP) - measured);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.sarsa.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding-window aggregates over a ring of preallocated epoch buckets.
+ *
+ * At every epoch close the cumulative counter vector (CounterLayout) is copied
+ * into the next ring slot. A window of the last k epochs is then the difference
+ * of two slots, so a read costs the same for 1 epoch or the whole ring and no
+ * per-episode data is kept.
+ *
+ * One thread closes epochs; any thread may read. A reader only touches slots
+ * already published through the volatile epoch count, and the writer only
+ * overwrites the slot just past them, so windows are capped at capacity - 2.
+ */
+public class SlidingWindowStats {
+
+    private final long[][] counts;   // [slot][CounterLayout]
+    private final double[] reward;   // [slot]
+    private final long[] nanoTime;   // [slot]
+    private final int capacity;
+
+    // Closed epochs; slot (epochs % capacity) holds the boundary after the last one
+    private volatile long epochs;
+
+    public SlidingWindowStats(int capacity, int vectorSize) {
+        if (capacity < 3) {
+            throw new IllegalArgumentException("capacity must be >= 3");
+        }
+        this.capacity = capacity;
+        this.counts = new long[capacity][vectorSize];
+        this.reward = new double[capacity];
+        this.nanoTime = new long[capacity];
+        this.nanoTime[0] = System.nanoTime();  // boundary 0: everything zero
+    }
+
+    /**
+     * Records the boundary at the end of the current epoch. Single writer.
+     */
+    void closeEpoch(LongAdder[] live, DoubleAdder liveReward) {
+        int slot = (int) ((epochs + 1) % capacity);
+        long[] dst = counts[slot];
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = live[i].sum();
+        }
+        reward[slot] = liveReward.sum();
+        nanoTime[slot] = System.nanoTime();
+        epochs = epochs + 1;
+    }
+
+    public long getEpochs() {
+        return epochs;
+    }
+
+    public int getMaxWindow() {
+        return capacity - 2;
+    }
+
+    /**
+     * Totals over the last `epochs` closed epochs (fewer if the run is younger).
+     */
+    public WindowStats window(int epochs) {
+        long end = this.epochs;
+        int k = (int) Math.min(Math.min(epochs, end), getMaxWindow());
+        int to = (int) (end % capacity);
+        int from = (int) ((end - k) % capacity);
+
+        long[] a = counts[from];
+        long[] b = counts[to];
+        long[] delta = new long[b.length];
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] = b[i] - a[i];
+        }
+        return new WindowStats(delta, reward[to] - reward[from], nanoTime[to] - nanoTime[from]);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.sarsa.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Space-Saving heavy-hitter tracker (Metwally et al.) with the Stream-Summary layout,
+ * keyed by primitive int (e.g. StrategyCombo codes).
+ *
+ * Keeps at most `capacity` counters. Counters sharing a count hang off one bucket,
+ * buckets form an ascending linked list, so offer() is O(1):
+ *   - tracked key:   move its counter to the next bucket (count + 1)
+ *   - new key, room: new counter in the count-1 bucket
+ *   - new key, full: take over a counter from the minimum bucket
+ *
+ * Keys are found through an open-addressing int table (linear probing,
+ * backward-shift delete), so nothing is boxed.
+ *
+ * Guarantees: every key with true frequency > N / capacity is tracked, and a
+ * reported count overestimates the true one by at most the minimum count.
+ *
+ * Not thread-safe; callers synchronize (bugs are rare next to steps, so it is cheap).
+ */
+public class SpaceSavingTopK {
+
+    private final int capacity;
+    private int size;
+    private Bucket min;  // lowest count
+    private Bucket max;  // highest count
+    private long total;
+
+    // key -> counter index
+    private final int[] tableKeys;
+    private final Counter[] tableCounters;
+    private final int tableMask;
+
+    private static final class Counter {
+        int key;
+        long error;
+        Bucket bucket;
+        Counter prev, next;
+    }
+
+    private static final class Bucket {
+        final long count;
+        Counter head;
+        Bucket prev, next;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.tableKeys = new int[tableSize];
+        this.tableCounters = new Counter[tableSize];
+        this.tableMask = tableSize - 1;
+    }
+
+    public void offer(int key) {
+        total++;
+        Counter c = lookup(key);
+        if (c != null) {
+            increment(c);
+            return;
+        }
+
+        if (size < capacity) {
+            c = new Counter();
+            c.key = key;
+            insert(c);
+            size++;
+            Bucket ones = (min != null && min.count == 1) ? min : insertBucketBefore(min, 1);
+            attach(c, ones);
+            return;
+        }
+
+        // Replace a minimum counter; its count becomes the new key's error bound
+        c = min.head;
+        delete(c.key);
+        c.key = key;
+        c.error = min.count;
+        insert(c);
+        increment(c);
+    }
+
+    /**
+     * Fills keys/counts with up to keys.length tracked entries, highest count first.
+     *
+     * @return number of entries written
+     */
+    public int top(int[] keys, long[] counts) {
+        int n = 0;
+        for (Bucket b = max; b != null && n < keys.length; b = b.prev) {
+            for (Counter c = b.head; c != null && n < keys.length; c = c.next) {
+                keys[n] = c.key;
+                counts[n] = b.count;
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Upper bound on how much a tracked key's count may be overestimated.
+     */
+    public long errorOf(int key) {
+        Counter c = lookup(key);
+        return c != null ? c.error : 0;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(tableCounters, null);
+        size = 0;
+        min = null;
+        max = null;
+        total = 0;
+    }
+
+    // ========================== Key Table ==========================
+
+    private int slotOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & tableMask;
+    }
+
+    private Counter lookup(int key) {
+        for (int i = slotOf(key); tableCounters[i] != null; i = (i + 1) & tableMask) {
+            if (tableKeys[i] == key) return tableCounters[i];
+        }
+        return null;
+    }
+
+    private void insert(Counter c) {
+        int i = slotOf(c.key);
+        while (tableCounters[i] != null) {
+            i = (i + 1) & tableMask;
+        }
+        tableKeys[i] = c.key;
+        tableCounters[i] = c;
+    }
+
+    private void delete(int key) {
+        int i = slotOf(key);
+        while (tableKeys[i] != key || tableCounters[i] == null) {
+            i = (i + 1) & tableMask;
+        }
+        // Backward-shift: pull later entries of the probe run into the hole
+        int hole = i;
+        for (int j = (hole + 1) & tableMask; tableCounters[j] != null; j = (j + 1) & tableMask) {
+            int home = slotOf(tableKeys[j]);
+            if (((j - home) & tableMask) >= ((j - hole) & tableMask)) {
+                tableKeys[hole] = tableKeys[j];
+                tableCounters[hole] = tableCounters[j];
+                hole = j;
+            }
+        }
+        tableCounters[hole] = null;
+    }
+
+    // ========================== Stream-Summary ==========================
+
+    private void increment(Counter c) {
+        Bucket from = c.bucket;
+        long target = from.count + 1;
+        Bucket to = (from.next != null && from.next.count == target)
+                ? from.next
+                : insertBucketBefore(from.next, target);
+        detach(c);
+        attach(c, to);
+    }
+
+    private void attach(Counter c, Bucket b) {
+        c.bucket = b;
+        c.prev = null;
+        c.next = b.head;
+        if (b.head != null) b.head.prev = c;
+        b.head = c;
+    }
+
+    private void detach(Counter c) {
+        Bucket b = c.bucket;
+        if (c.prev != null) c.prev.next = c.next; else b.head = c.next;
+        if (c.next != null) c.next.prev = c.prev;
+        c.prev = null;
+        c.next = null;
+        if (b.head == null) removeBucket(b);
+    }
+
+    /**
+     * Inserts a bucket before `at` (or at the max end when `at` is null).
+     */
+    private Bucket insertBucketBefore(Bucket at, long count) {
+        Bucket b = new Bucket(count);
+        if (at == null) {
+            b.prev = max;
+            if (max != null) max.next = b; else min = b;
+            max = b;
+        } else {
+            b.next = at;
+            b.prev = at.prev;
+            if (at.prev != null) at.prev.next = b; else min = b;
+            at.prev = b;
+        }
+        return b;
+    }
+
+    private void removeBucket(Bucket b) {
+        if (b.prev != null) b.prev.next = b.next; else min = b.next;
+        if (b.next != null) b.next.prev = b.prev; else max = b.prev;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.strategy.*;
+
+import java.util.Arrays;
+
+import static com.example.sarsa.metrics.CounterLayout.*;
+
+/**
+ * Counter totals over a span of episodes (a report window or a sliding window).
+ * Immutable; enum distributions are indexed by ordinal.
+ */
+public class WindowStats {
+
+    private final long[] counts;  // CounterLayout vector
+    private final double totalReward;
+    private final long windowNanos;
+
+    WindowStats(long[] counts, double totalReward, long windowNanos) {
+        this.counts = counts;
+        this.totalReward = totalReward;
+        this.windowNanos = windowNanos;
+    }
+
+    public long getEpisodes() { return counts[EPISODES]; }
+    public long getBugs() { return counts[BUGS]; }
+    public long getExecutes() { return counts[EXECUTES]; }
+    public long getDialTurners() { return counts[DIAL_TURNERS]; }
+    public long getRequests() { return counts[REQUESTS]; }
+    public double getTotalReward() { return totalReward; }
+    public long getWindowNanos() { return windowNanos; }
+
+    public double getAvgReward() {
+        long episodes = getEpisodes();
+        return episodes > 0 ? totalReward / episodes : 0;
+    }
+
+    /**
+     * Bugs (500 responses) per episode.
+     */
+    public double getBugRate() {
+        long episodes = getEpisodes();
+        return episodes > 0 ? (double) getBugs() / episodes : 0;
+    }
+
+    public double getExecuteRatio() {
+        long steps = getExecutes() + getDialTurners();
+        return steps > 0 ? (double) getExecutes() / steps * 100 : 0;
+    }
+
+    public double getElapsedSeconds() {
+        return windowNanos / 1e9;
+    }
+
+    public long[] getActionCounts() { return Arrays.copyOfRange(counts, ACTIONS, counts.length); }
+    public long[] getHttpTypeCounts() { return Arrays.copyOfRange(counts, HTTP_TYPES, ENDPOINTS); }
+    public long[] getEndpointCounts() { return Arrays.copyOfRange(counts, ENDPOINTS, STRATEGIES); }
+    public long[] getStrategyCounts() { return Arrays.copyOfRange(counts, STRATEGIES, FIELDS); }
+    public long[] getFieldCounts() { return Arrays.copyOfRange(counts, FIELDS, INTENSITIES); }
+    public long[] getIntensityCounts() { return Arrays.copyOfRange(counts, INTENSITIES, ACTIONS); }
+
+    public long httpTypeCount(HttpType t) { return counts[HTTP_TYPES + t.ordinal()]; }
+    public long endpointCount(Endpoint e) { return counts[ENDPOINTS + e.ordinal()]; }
+    public long strategyCount(Strategy s) { return counts[STRATEGIES + s.ordinal()]; }
+    public long fieldCount(Field f) { return counts[FIELDS + f.ordinal()]; }
+    public long intensityCount(Intensity i) { return counts[INTENSITIES + i.ordinal()]; }
+}
@@ -0,0 +1,8 @@
+package com.example.sarsa.model;
+
+/**
+ * What the agent reads back from one API call: the status and the raw body.
+ * Comes from a single HTTP response or from one result of a batch.
+ */
+public record ApiResponse(int statusCode, byte[] body) {
+}
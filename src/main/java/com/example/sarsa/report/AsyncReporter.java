@@ -0,0 +1,110 @@
+package com.example.sarsa.report;
+
+import com.example.sarsa.metrics.AllocationProfiler;
+import com.example.sarsa.metrics.AllocationSnapshot;
+import com.example.sarsa.metrics.MetricsRegistry;
+import com.example.sarsa.metrics.MetricsRegistry.WindowSample;
+import com.example.sarsa.metrics.PhaseProfiler;
+import com.example.sarsa.metrics.PhaseSnapshot;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds and writes window reports on a background thread.
+ *
+ * The training thread calls windowClosed() at each boundary. It samples the
+ * registry and profilers there (adder sums and array copies, see
+ * MetricsRegistry.sampleWindow) and makes a non-blocking offer of the sample,
+ * so a report covers exactly the episodes up to its boundary. The reporter
+ * thread then summarizes the sample, renders it and hands it to every sink,
+ * so labelling, percentiles, formatting and I/O never run on a training thread.
+ *
+ * If the reporter falls behind and the queue is full, nothing is sampled: the
+ * window's counts, phases and allocations all roll into the next one, which
+ * then spans both, rather than blocking training.
+ */
+public class AsyncReporter implements AutoCloseable {
+
+    private static final WindowMark STOP = new WindowMark(-1, null, null, null);
+
+    private final MetricsRegistry metrics;
+    private final List<ReportSink> sinks;
+    private final BlockingQueue<WindowMark> queue;
+    private final Thread thread;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private record WindowMark(long episode, WindowSample sample, PhaseSnapshot phases, AllocationSnapshot allocations) {
+    }
+
+    public AsyncReporter(MetricsRegistry metrics, List<ReportSink> sinks, int capacity) {
+        this.metrics = metrics;
+        this.sinks = List.copyOf(sinks);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, "sarsa-reporter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Marks the end of a reporting window. Never blocks. Called by the one thread
+     * that closes windows, so a free slot seen here is still free for the offer.
+     *
+     * @return false if the window was merged into the next because the reporter is behind
+     */
+    public boolean windowClosed(long episode, PhaseProfiler phases, AllocationProfiler allocations) {
+        if (queue.remainingCapacity() == 0) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return queue.offer(new WindowMark(episode, metrics.sampleWindow(),
+                phases.snapshotAndReset(), allocations.snapshotAndReset()));
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes every pending window, then closes the sinks.
+     */
+    @Override
+    public void close() {
+        try {
+            queue.put(STOP);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ReportSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                System.err.println("Could not close report sink: " + e.getMessage());
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WindowMark mark = queue.take();
+                if (mark == STOP) return;
+
+                Report report = new Report(mark.episode(), metrics.snapshotOf(mark.sample()), mark.phases(), mark.allocations());
+                for (ReportSink sink : sinks) {
+                    try {
+                        sink.accept(report);
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Report sink " + sink.getClass().getSimpleName() + " failed: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
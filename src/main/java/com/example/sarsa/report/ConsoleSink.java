@@ -0,0 +1,13 @@
+package com.example.sarsa.report;
+
+/**
+ * Prints each window report to stdout in one write.
+ */
+public class ConsoleSink implements ReportSink {
+
+    @Override
+    public void accept(Report report) {
+        System.out.print(TextReportFormatter.format(report));
+        System.out.flush();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.sarsa.report;
+
+import com.example.sarsa.metrics.AllocationSnapshot;
+import com.example.sarsa.metrics.MetricsSnapshot;
+import com.example.sarsa.metrics.PhaseSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Everything a sink needs to render one LOG_EVERY window. Immutable.
+ */
+@Getter
+@AllArgsConstructor
+public class Report {
+
+    private final long episode;
+    private final MetricsSnapshot metrics;
+    private final PhaseSnapshot phases;
+    private final AllocationSnapshot allocations;
+}
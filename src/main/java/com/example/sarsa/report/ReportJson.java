@@ -0,0 +1,128 @@
+package com.example.sarsa.report;
+
+import com.example.sarsa.metrics.LatencySummary;
+import com.example.sarsa.metrics.MetricsSnapshot;
+import com.example.sarsa.metrics.AllocationProfiler.Scope;
+import com.example.sarsa.metrics.AllocationSnapshot;
+import com.example.sarsa.metrics.Phase;
+import com.example.sarsa.metrics.PhaseSnapshot;
+import com.example.sarsa.metrics.WindowStats;
+import com.example.sarsa.strategy.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streams a Report as a single JSON object. Enum distributions are keyed by constant name.
+ */
+public final class ReportJson {
+
+    private ReportJson() {
+    }
+
+    public static void write(JsonGenerator json, Report report) throws IOException {
+        MetricsSnapshot s = report.getMetrics();
+
+        json.writeStartObject();
+        json.writeNumberField("episode", report.getEpisode());
+        json.writeNumberField("elapsedSeconds", s.getElapsedSeconds());
+        json.writeNumberField("episodes", s.getEpisodes());
+        json.writeNumberField("avgReward", s.getAvgReward());
+        json.writeNumberField("bugs", s.getBugs());
+        json.writeNumberField("uniqueBugCombos", s.getUniqueBugCombos());
+        json.writeNumberField("executes", s.getExecutes());
+        json.writeNumberField("requests", s.getRequests());
+        json.writeNumberField("dialTurners", s.getDialTurners());
+        json.writeNumberField("executeRatio", s.getExecuteRatio());
+
+        writeDistributions(json, s);
+
+        json.writeArrayFieldStart("slidingWindows");
+        for (WindowStats w : s.getSlidingWindows()) {
+            json.writeStartObject();
+            json.writeNumberField("episodes", w.getEpisodes());
+            json.writeNumberField("elapsedSeconds", w.getElapsedSeconds());
+            json.writeNumberField("avgReward", w.getAvgReward());
+            json.writeNumberField("bugRate", w.getBugRate());
+            json.writeNumberField("executeRatio", w.getExecuteRatio());
+            writeDistributions(json, w);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("topBugCombos");
+        for (Map.Entry<String, Long> e : s.topBugCombos(5)) {
+            json.writeStartObject();
+            json.writeStringField("combo", e.getKey());
+            json.writeNumberField("count", e.getValue());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("latencies");
+        for (LatencySummary l : s.getLatencies()) {
+            json.writeStartObject();
+            json.writeStringField("method", l.getHttpType().name());
+            json.writeStringField("endpoint", l.getEndpoint().name());
+            json.writeStringField("status", l.getStatusLabel());
+            json.writeNumberField("count", l.getCount());
+            json.writeNumberField("p50Nanos", l.getP50());
+            json.writeNumberField("p99Nanos", l.getP99());
+            json.writeNumberField("p999Nanos", l.getP999());
+            json.writeNumberField("maxNanos", l.getMax());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("actions");
+        for (long count : s.getActionCounts()) {
+            json.writeNumber(count);
+        }
+        json.writeEndArray();
+
+        PhaseSnapshot p = report.getPhases();
+        if (p != null && !p.isEmpty()) {
+            json.writeObjectFieldStart("phases");
+            for (Phase phase : Phase.values()) {
+                json.writeObjectFieldStart(phase.name());
+                json.writeNumberField("nanos", p.nanos(phase));
+                json.writeNumberField("calls", p.calls(phase));
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+        }
+
+        AllocationSnapshot a = report.getAllocations();
+        if (a != null && !a.isEmpty()) {
+            json.writeObjectFieldStart("allocations");
+            for (Scope scope : Scope.values()) {
+                json.writeObjectFieldStart(scope.name());
+                json.writeNumberField("bytes", a.bytes(scope));
+                json.writeNumberField("calls", a.calls(scope));
+                json.writeEndObject();
+            }
+            json.writeNumberField("nonHttpBytesPerStep", a.nonHttpBytesPerStep());
+            json.writeEndObject();
+        }
+
+        json.writeEndObject();
+    }
+
+    private static void writeDistributions(JsonGenerator json, WindowStats w) throws IOException {
+        writeDistribution(json, "httpType", HttpType.values(), w.getHttpTypeCounts());
+        writeDistribution(json, "endpoint", Endpoint.values(), w.getEndpointCounts());
+        writeDistribution(json, "strategy", Strategy.values(), w.getStrategyCounts());
+        writeDistribution(json, "field", Field.values(), w.getFieldCounts());
+        writeDistribution(json, "intensity", Intensity.values(), w.getIntensityCounts());
+    }
+
+    private static void writeDistribution(JsonGenerator json, String name, Enum<?>[] keys, long[] counts)
+            throws IOException {
+        json.writeObjectFieldStart(name);
+        for (Enum<?> key : keys) {
+            json.writeNumberField(key.name(), counts[key.ordinal()]);
+        }
+        json.writeEndObject();
+    }
+}
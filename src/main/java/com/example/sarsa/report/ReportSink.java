@@ -0,0 +1,14 @@
+package com.example.sarsa.report;
+
+import java.io.IOException;
+
+/**
+ * Destination for window reports. Called only from the reporter thread.
+ */
+public interface ReportSink {
+
+    void accept(Report report) throws IOException;
+
+    default void close() throws IOException {
+    }
+}
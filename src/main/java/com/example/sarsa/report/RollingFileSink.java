@@ -0,0 +1,75 @@
+package com.example.sarsa.report;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends text reports to a file, rolling it over once it passes maxBytes.
+ *
+ * Rolled files are numbered like logrotate: report.log.1 is the newest,
+ * report.log.{maxFiles} the oldest; anything older is deleted.
+ */
+public class RollingFileSink implements ReportSink {
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    private OutputStream out;
+    private long written;
+
+    public RollingFileSink(Path file, long maxBytes, int maxFiles) throws IOException {
+        if (maxBytes <= 0 || maxFiles <= 0) {
+            throw new IllegalArgumentException("maxBytes and maxFiles must be > 0");
+        }
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        open();
+    }
+
+    @Override
+    public void accept(Report report) throws IOException {
+        byte[] text = TextReportFormatter.format(report).getBytes(StandardCharsets.UTF_8);
+        if (written > 0 && written + text.length > maxBytes) {
+            roll();
+        }
+        out.write(text);
+        out.flush();
+        written += text.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        written = Files.size(file);
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = rolled(i);
+            if (Files.exists(from)) {
+                Files.move(from, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.sarsa.report;
+
+import com.example.sarsa.metrics.LatencySummary;
+import com.example.sarsa.metrics.MetricsSnapshot;
+import com.example.sarsa.metrics.AllocationProfiler.Scope;
+import com.example.sarsa.metrics.AllocationSnapshot;
+import com.example.sarsa.metrics.Phase;
+import com.example.sarsa.metrics.PhaseSnapshot;
+import com.example.sarsa.metrics.WindowStats;
+import com.example.sarsa.strategy.*;
+
+import java.util.Formatter;
+import java.util.Map;
+
+/**
+ * Human-readable window report, shared by the console and rolling file sinks.
+ */
+public final class TextReportFormatter {
+
+    private TextReportFormatter() {
+    }
+
+    public static String format(Report report) {
+        Formatter out = new Formatter(new StringBuilder());
+        MetricsSnapshot s = report.getMetrics();
+
+        out.format("%n%s%n", "=".repeat(60));
+        out.format("Episode %,d | Avg Reward: %.3f | Unique Bug Combos: %d | Time: %.1fs%n",
+                report.getEpisode(), s.getAvgReward(), s.getUniqueBugCombos(), s.getElapsedSeconds());
+        out.format("Execute ratio: %.1f%% (%d executes, %d dial-turners)%n",
+                s.getExecuteRatio(), s.getExecutes(), s.getDialTurners());
+
+        // Sliding windows: trends across report boundaries
+        if (!s.getSlidingWindows().isEmpty()) {
+            out.format("%n--- Sliding Windows ---%n");
+            for (WindowStats w : s.getSlidingWindows()) {
+                out.format("  last %,9d episodes | Avg Reward: %8.3f | Bugs/ep: %6.3f | Execute: %5.1f%% | %.1f ep/s%n",
+                        w.getEpisodes(), w.getAvgReward(), w.getBugRate(), w.getExecuteRatio(),
+                        w.getElapsedSeconds() > 0 ? w.getEpisodes() / w.getElapsedSeconds() : 0);
+            }
+        }
+
+        // HttpType distribution (GET, POST, PUT, etc.)
+        out.format("%n--- HttpType Distribution ---%n");
+        for (HttpType t : HttpType.values()) {
+            if (s.httpTypeCount(t) > 0) out.format("  %-10s: %d%n", t, s.httpTypeCount(t));
+        }
+
+        // Resource/Endpoint distribution (ITEMS, PRICES)
+        out.format("%n--- Resource Distribution ---%n");
+        for (Endpoint e : Endpoint.values()) {
+            if (s.endpointCount(e) > 0) out.format("  %-10s: %d%n", e, s.endpointCount(e));
+        }
+
+        // Strategy distribution
+        out.format("%n--- Strategy Distribution ---%n");
+        for (Strategy st : Strategy.values()) {
+            if (s.strategyCount(st) > 0) out.format("  %-15s: %d%n", st, s.strategyCount(st));
+        }
+
+        // Field distribution
+        out.format("%n--- Field Distribution ---%n");
+        for (Field f : Field.values()) {
+            if (s.fieldCount(f) > 0) out.format("  %-12s: %d%n", f, s.fieldCount(f));
+        }
+
+        // Intensity distribution
+        out.format("%n--- Intensity Distribution ---%n");
+        for (Intensity in : Intensity.values()) {
+            if (s.intensityCount(in) > 0) out.format("  %-12s: %d%n", in, s.intensityCount(in));
+        }
+
+        // Bugs by combo (top 5)
+        if (!s.getBugsByCombo().isEmpty()) {
+            out.format("%n--- Top Bug-Triggering Combos ---%n");
+            for (Map.Entry<String, Long> e : s.topBugCombos(5)) {
+                out.format("  %s: %d times%n", e.getKey(), e.getValue());
+            }
+        }
+
+        // API latency per method/resource/status class
+        if (!s.getLatencies().isEmpty()) {
+            out.format("%n--- Latency (ms) ---%n");
+            for (LatencySummary l : s.getLatencies()) {
+                out.format("  %-8s %-10s %-5s n=%-7d p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                        l.getHttpType(), l.getEndpoint(), l.getStatusLabel(), l.getCount(),
+                        l.getP50() / 1e6, l.getP99() / 1e6, l.getP999() / 1e6, l.getMax() / 1e6);
+            }
+        }
+
+        // Raw action distribution (compact)
+        out.format("%n--- Raw Action Distribution ---%n  ");
+        long[] actions = s.getActionCounts();
+        for (int a = 0; a < actions.length; a++) {
+            if (actions[a] > 0) out.format("[%d]:%d ", a, actions[a]);
+        }
+        out.format("%n");
+
+        formatPhases(out, report.getPhases());
+        formatAllocations(out, report.getAllocations());
+        return out.toString();
+    }
+
+    private static void formatPhases(Formatter out, PhaseSnapshot p) {
+        if (p == null || p.isEmpty()) return;
+
+        out.format("%n--- Step Phase Breakdown ---%n");
+        out.format("  %-12s %12s %10s %10s %7s%n", "phase", "total ms", "calls", "avg us", "step %");
+        for (Phase phase : Phase.values()) {
+            out.format("  %-12s %12.1f %10d %10.2f %6.1f%%%n",
+                    phase, p.nanos(phase) / 1e6, p.calls(phase), p.avgMicros(phase), p.percentOfStep(phase));
+        }
+        out.format("  %-12s %12.1f%n", "(other)", p.otherNanos() / 1e6);
+    }
+
+    private static void formatAllocations(Formatter out, AllocationSnapshot a) {
+        if (a == null || a.isEmpty()) return;
+
+        out.format("%n--- Allocation ---%n");
+        out.format("  %-12s %12s %10s %14s%n", "scope", "total MB", "calls", "bytes/call");
+        for (Scope scope : Scope.values()) {
+            out.format("  %-12s %12.1f %10d %14.0f%n",
+                    scope, a.bytes(scope) / 1e6, a.calls(scope), a.bytesPer(scope));
+        }
+        out.format("  %-12s %37.0f%n", "non-HTTP/step", a.nonHttpBytesPerStep());
+    }
+}
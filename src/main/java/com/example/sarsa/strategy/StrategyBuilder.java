@@ -73,6 +73,13 @@ public class StrategyBuilder {
         return strategy.getIntensity();
     }
 
+    /**
+     * Current configuration packed as a StrategyCombo code.
+     */
+    public int getCombo() {
+        return StrategyCombo.encode(getHttpType(), getEndpoint(), getStrategy(), getField(), getIntensity());
+    }
+
     /**
      * Check if ready to execute (has endpoint set).
      */
@@ -0,0 +1,112 @@
+package com.example.sarsa.strategy;
+
+/**
+ * Packs an executed strategy (HttpType, Endpoint, Strategy, Field, Intensity)
+ * into one int built from the enum ordinals, so combo-keyed tracking can use
+ * primitive arrays and maps. Strings are only built by toString at report time.
+ *
+ * Layout (low to high bits), widths derived from the enum sizes:
+ *   intensity | field | strategy | endpoint | httpType
+ *
+ * All codes are in [0, SPACE), currently 2^15. NONE is outside it; the
+ * decoders reject it and any other non-code, use label() where NONE can occur.
+ */
+public final class StrategyCombo {
+
+    private static final HttpType[] HTTP_TYPES = HttpType.values();
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final Strategy[] STRATEGIES = Strategy.values();
+    private static final Field[] FIELDS = Field.values();
+    private static final Intensity[] INTENSITIES = Intensity.values();
+
+    private static final int INTENSITY_BITS = bitsFor(INTENSITIES.length);
+    private static final int FIELD_BITS = bitsFor(FIELDS.length);
+    private static final int STRATEGY_BITS = bitsFor(STRATEGIES.length);
+    private static final int ENDPOINT_BITS = bitsFor(ENDPOINTS.length);
+    private static final int HTTP_TYPE_BITS = bitsFor(HTTP_TYPES.length);
+
+    private static final int FIELD_SHIFT = INTENSITY_BITS;
+    private static final int STRATEGY_SHIFT = FIELD_SHIFT + FIELD_BITS;
+    private static final int ENDPOINT_SHIFT = STRATEGY_SHIFT + STRATEGY_BITS;
+    private static final int HTTP_TYPE_SHIFT = ENDPOINT_SHIFT + ENDPOINT_BITS;
+
+    /**
+     * Number of distinct codes; every code is below this.
+     */
+    public static final int SPACE = 1 << (HTTP_TYPE_SHIFT + HTTP_TYPE_BITS);
+
+    /**
+     * No combo (dial-turner step).
+     */
+    public static final int NONE = -1;
+
+    private StrategyCombo() {
+    }
+
+    public static int encode(HttpType httpType, Endpoint endpoint, Strategy strategy, Field field, Intensity intensity) {
+        return httpType.ordinal() << HTTP_TYPE_SHIFT
+                | endpoint.ordinal() << ENDPOINT_SHIFT
+                | strategy.ordinal() << STRATEGY_SHIFT
+                | field.ordinal() << FIELD_SHIFT
+                | intensity.ordinal();
+    }
+
+    /**
+     * Same combo at MILD intensity: the HttpType+Endpoint+Strategy+Field key used for bug tracking.
+     */
+    public static int withoutIntensity(int code) {
+        return code & ~mask(INTENSITY_BITS);
+    }
+
+    public static HttpType httpType(int code) {
+        return HTTP_TYPES[ordinal(code, HTTP_TYPE_SHIFT, HTTP_TYPE_BITS, HTTP_TYPES.length)];
+    }
+
+    public static Endpoint endpoint(int code) {
+        return ENDPOINTS[ordinal(code, ENDPOINT_SHIFT, ENDPOINT_BITS, ENDPOINTS.length)];
+    }
+
+    public static Strategy strategy(int code) {
+        return STRATEGIES[ordinal(code, STRATEGY_SHIFT, STRATEGY_BITS, STRATEGIES.length)];
+    }
+
+    public static Field field(int code) {
+        return FIELDS[ordinal(code, FIELD_SHIFT, FIELD_BITS, FIELDS.length)];
+    }
+
+    public static Intensity intensity(int code) {
+        return INTENSITIES[ordinal(code, 0, INTENSITY_BITS, INTENSITIES.length)];
+    }
+
+    /**
+     * Report label, e.g. "POST+ITEMS+NEGATIVE+QUANTITY" (intensity omitted, as in bug tracking).
+     */
+    public static String toString(int code) {
+        return httpType(code) + "+" + endpoint(code) + "+" + strategy(code) + "+" + field(code);
+    }
+
+    /**
+     * toString(), or "NONE" for NONE (a step that executed nothing).
+     */
+    public static String label(int code) {
+        return code == NONE ? "NONE" : toString(code);
+    }
+
+    private static int ordinal(int code, int shift, int bits, int count) {
+        int ordinal = (code >>> shift) & mask(bits);
+        if (code < 0 || code >= SPACE || ordinal >= count) {
+            throw new IllegalArgumentException(code == NONE
+                    ? "StrategyCombo.NONE is not a combo and can't be decoded"
+                    : "Not a StrategyCombo code: " + code);
+        }
+        return ordinal;
+    }
+
+    private static int bitsFor(int values) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(values - 1));
+    }
+
+    private static int mask(int bits) {
+        return (1 << bits) - 1;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.api.controller;
+
+import com.example.api.model.Item;
+import com.example.api.model.Price;
+import com.example.api.store.StoreFactory;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BatchExecutorTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final StoreFactory factory = new StoreFactory(0, false);
+    private final Tenants tenants = new Tenants(factory.create(0, null), factory);
+    private final BatchExecutor batch = new BatchExecutor(json);
+    private final ItemController items = new ItemController(tenants, batch, new EntityTags());
+    private final PriceController prices = new PriceController(tenants, batch, new EntityTags());
+
+    @Test
+    void batchedItemsAnswerAsSingleCallsWould() throws IOException {
+        List<BatchOperation> operations = new ArrayList<>();
+        List<Supplier<ResponseEntity<?>>> singles = new ArrayList<>();
+        String t = "single";
+
+        operations.add(operation("POST", null, "{\"name\":\"a\",\"quantity\":1}"));
+        singles.add(() -> items.createItem(new Item(null, "a", null, 1), t));
+        operations.add(operation("POST", null, "{\"name\":\"b\",\"quantity\":-1}"));
+        singles.add(() -> items.createItem(new Item(null, "b", null, -1), t));
+        operations.add(operation("GET", "1", null));
+        singles.add(() -> items.getItem(1L, t, null));
+        operations.add(operation("GET", "2", null));
+        singles.add(() -> items.getItem(2L, t, null));
+        operations.add(operation("PUT", "1", "{\"name\":\"c\",\"quantity\":2}"));
+        singles.add(() -> items.updateItem(1L, new Item(null, "c", null, 2), t));
+        operations.add(operation("PUT", "5", "{\"name\":\"d\",\"quantity\":2}"));
+        singles.add(() -> items.updateItem(5L, new Item(null, "d", null, 2), t));
+        operations.add(operation("PATCH", "1", "{\"description\":\"x\"}"));  // must not reach earlier results
+        singles.add(() -> items.patchItem(1L, Map.of("description", "x"), t));
+        operations.add(operation("PATCH", "1", "{\"name\":\"y\",\"quantity\":\"7\"}"));
+        singles.add(() -> items.patchItem(1L, Map.of("name", "y", "quantity", "7"), t));
+        operations.add(operation("DELETE", "1", null));
+        singles.add(() -> items.deleteItem(1L, t));
+        operations.add(operation("DELETE", "9", null));
+        singles.add(() -> items.deleteItem(9L, t));
+        operations.add(operation("HEAD", "1", null));
+        singles.add(() -> items.headItem(1L, t));
+        operations.add(operation("OPTIONS", "1", null));
+        singles.add(items::optionsItem);
+        BatchOperation page = operation("GET", null, null);
+        page.setLimit("1");
+        operations.add(page);
+        singles.add(() -> items.getAllItems(1, null, t, null));
+        operations.add(operation("DELETE", null, null));
+        singles.add(() -> items.deleteAllItems(t));
+        operations.add(operation("GET", null, null));
+        singles.add(() -> items.getAllItems(null, null, t, null));
+
+        List<BatchResult> results = items.batchItems("batched", operations).getBody();
+
+        assertEquals(singles.size(), results.size());
+        for (int i = 0; i < singles.size(); i++) {
+            ResponseEntity<?> single;
+            try {
+                single = singles.get(i).get();
+            } catch (RuntimeException e) {
+                single = ResponseEntity.internalServerError().build();  // as Spring answers it
+            }
+            BatchResult result = results.get(i);
+            String what = "operation " + i + " (" + operations.get(i).getMethod() + ")";
+            assertEquals(single.getStatusCode().value(), result.status(), what);
+            assertEquals(json.writeValueAsString(single.getBody()), json.writeValueAsString(result.body()), what);
+            assertEquals(single.getHeaders().isEmpty() ? null : single.getHeaders().toSingleValueMap(), result.headers(), what);
+        }
+    }
+
+    @Test
+    void unbindableOperationsAreBadRequestsAndFailuresServerErrors() {
+        items.createItem(new Item(null, "a", null, 1), null);
+
+        BatchOperation badLimit = operation("GET", null, null);
+        badLimit.setLimit("ten");
+        BatchOperation badCursor = operation("GET", null, null);
+        badCursor.setCursor("-");
+        BatchOperation noMethod = new BatchOperation();
+
+        List<BatchResult> results = items.batchItems(null, Arrays.asList(
+                operation("GET", "x", null),
+                badLimit,
+                badCursor,
+                operation("PUT", "1", "{"),
+                operation("POST", null, null),
+                operation("PATCH", "1", "[1]"),
+                null,
+                noMethod,
+                operation("TRACE", null, null),
+                operation("PATCH", "1", "{\"quantity\":\"7\"}"),  // ClassCastException in the handler
+                operation("POST", null, "{\"name\":\"n\"}"),      // unboxes a null quantity
+                operation("GET", "1", null))).getBody();
+
+        assertEquals(List.of(400, 400, 400, 400, 400, 400, 400, 400, 405, 500, 500, 200),
+                results.stream().map(BatchResult::status).toList());
+        assertNull(results.get(0).body());
+    }
+
+    @Test
+    void operationsRunForTheirOwnTenantElseTheRequests() {
+        BatchOperation elsewhere = operation("POST", null, "{\"name\":\"b\",\"quantity\":1}");
+        elsewhere.setTenant("other");
+
+        List<BatchResult> results = items.batchItems("mine", List.of(
+                operation("POST", null, "{\"name\":\"a\",\"quantity\":1}"),
+                elsewhere)).getBody();
+
+        assertEquals(List.of(201, 201), results.stream().map(BatchResult::status).toList());
+        assertEquals("a", tenants.get("mine").items().get(1L).getName());
+        assertEquals("b", tenants.get("other").items().get(1L).getName());
+        assertEquals(0, tenants.get(null).items().getSize());
+    }
+
+    @Test
+    void laterOperationsSeeEarlierOnes() {
+        List<BatchResult> results = prices.batchPrices(null, List.of(
+                operation("POST", null, "{\"item\":{\"id\":1},\"price\":2.5}"),
+                operation("POST", null, "{\"item\":{\"id\":1},\"price\":2.5}"),
+                operation("HEAD", "1", null))).getBody();
+        assertEquals(List.of(404, 404, 404), results.stream().map(BatchResult::status).toList());
+
+        items.batchItems(null, List.of(operation("POST", null, "{\"name\":\"a\",\"quantity\":1}")));
+        results = prices.batchPrices(null, List.of(
+                operation("POST", null, "{\"item\":{\"id\":1},\"price\":2.5}"),
+                operation("GET", "1", null))).getBody();
+        assertEquals(List.of(201, 200), results.stream().map(BatchResult::status).toList());
+        assertEquals(2.5, ((Price) results.get(1).body()).getPrice());
+    }
+
+    @Test
+    void methodsAreRoutedAsSpringRoutesTheSingleRequest() {
+        items.createItem(new Item(null, "a", null, 1), null);
+        prices.createPrice(new Price(null, new Item(1L, null, null, null), 2.5), null);
+
+        List<BatchResult> results = prices.batchPrices(null, List.of(
+                operation("PUT", null, "{\"price\":1}"),        // PUT /api/prices: no such mapping
+                operation("PATCH", null, "{\"price\":1}"),
+                operation("POST", "1", "{\"price\":1}"),        // POST /api/prices/1
+                operation("HEAD", "1", null),                    // implicit, from GET
+                operation("HEAD", "9", null),
+                operation("HEAD", null, null),
+                operation("OPTIONS", "1", null),                 // Spring's default OPTIONS handling
+                operation("OPTIONS", null, null))).getBody();
+
+        assertEquals(List.of(405, 405, 405, 200, 404, 200, 200, 200),
+                results.stream().map(BatchResult::status).toList());
+        assertNull(results.get(3).body());
+        assertNull(results.get(5).body());
+        assertEquals(Map.of("Allow", "GET,HEAD,PUT,PATCH,DELETE,OPTIONS"), results.get(6).headers());
+        assertEquals(Map.of("Allow", "GET,HEAD,POST,DELETE,OPTIONS"), results.get(7).headers());
+
+        results = items.batchItems(null, List.of(
+                operation("HEAD", null, null),
+                operation("OPTIONS", null, null),
+                operation("OPTIONS", "1", null))).getBody();
+        assertEquals(List.of(200, 200, 200), results.stream().map(BatchResult::status).toList());
+        assertNull(results.get(0).body());
+        assertEquals(items.optionsItem().getHeaders().toSingleValueMap(), results.get(2).headers());
+    }
+
+    private static BatchOperation operation(String method, String id, String body) {
+        BatchOperation operation = new BatchOperation();
+        operation.setMethod(method);
+        operation.setId(id);
+        JsonNode node = body != null ? TextNode.valueOf(body) : null;  // raw text, as the tester sends it
+        operation.setBody(node);
+        return operation;
+    }
+}
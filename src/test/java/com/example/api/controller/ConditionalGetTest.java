@@ -0,0 +1,120 @@
+package com.example.api.controller;
+
+import com.example.api.model.Item;
+import com.example.api.store.StoreFactory;
+import com.example.api.store.Stores;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConditionalGetTest {
+
+    private final EntityTags tags = new EntityTags();
+    private final StoreFactory factory = new StoreFactory(0, false);
+    private final Stores stores = factory.create(0, null);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    ConditionalGetTest() {
+        stores.items().create(new Item(null, "a", null, 1));
+        stores.items().create(new Item(null, "b", null, 2));
+    }
+
+    @Test
+    void matchingTagIsNotModified() {
+        ResponseEntity<Item> first = ConditionalGet.entity(stores, stores.items(), 1L, tags, get(null));
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+        assertEquals("a", first.getBody().getName());
+
+        assertNull(ConditionalGet.entity(stores, stores.items(), 1L, tags, get(etag)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void writeOrOtherViewMissesTheTag() {
+        String etag = ConditionalGet.entity(stores, stores.items(), 1L, tags, get(null)).getHeaders().getETag();
+
+        MockHttpServletRequest ref = request(etag);
+        ref.addHeader("X-View", "ref");
+        assertEquals(HttpStatus.OK, ConditionalGet.entity(stores, stores.items(), 1L, tags, new ServletWebRequest(ref, response)).getStatusCode());
+
+        stores.items().put(1L, new Item(1L, "a2", null, 1));
+        ResponseEntity<Item> changed = ConditionalGet.entity(stores, stores.items(), 1L, tags, get(etag));
+        assertEquals("a2", changed.getBody().getName());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void absentEntityIsNotFoundAndUntagged() {
+        ResponseEntity<Item> absent = ConditionalGet.entity(stores, stores.items(), 9L, tags, get("\"anything\""));
+        assertEquals(HttpStatus.NOT_FOUND, absent.getStatusCode());
+        assertNull(absent.getHeaders().getETag());
+    }
+
+    @Test
+    void pagesKeepTheirCursorAndTag() {
+        ResponseEntity<List<Item>> page = ConditionalGet.page(stores, stores.items(), 1, null, tags, get(null));
+        String etag = page.getHeaders().getETag();
+        assertNotNull(etag);
+        assertEquals("1", page.getHeaders().getFirst(Pagination.NEXT_CURSOR));
+
+        assertNull(ConditionalGet.page(stores, stores.items(), 1, null, tags, get(etag)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+
+        ResponseEntity<List<Item>> bad = ConditionalGet.page(stores, stores.items(), 0, null, tags, get(etag));
+        assertEquals(HttpStatus.BAD_REQUEST, bad.getStatusCode());
+        assertNull(bad.getHeaders().getETag());
+    }
+
+    @Test
+    void batchOperationsAreUntagged() {
+        assertNull(ConditionalGet.entity(stores, stores.items(), 1L, tags, null).getHeaders().getETag());
+        assertNull(ConditionalGet.page(stores, stores.items(), null, null, tags, null).getHeaders().getETag());
+    }
+
+    @Test
+    void failedPatchLeavesEntityAndTagAlone() {
+        Tenants tenants = new Tenants(stores, factory);
+        ItemController items = new ItemController(tenants, new BatchExecutor(new ObjectMapper()), tags);
+        String etag = items.getItem(1L, null, get(null)).getHeaders().getETag();
+
+        // name is applied before the quantity cast fails
+        assertThrows(ClassCastException.class, () -> items.patchItem(1L, Map.of("name", "x", "quantity", "7"), null));
+
+        assertNull(items.getItem(1L, null, get(etag)));
+        assertEquals("a", stores.items().get(1L).getName());
+
+        items.patchItem(1L, Map.of("name", "x"), null);
+        ResponseEntity<Item> patched = items.getItem(1L, null, get(etag));
+        assertEquals("x", patched.getBody().getName());
+    }
+
+    private ServletWebRequest get(String ifNoneMatch) {
+        return new ServletWebRequest(request(ifNoneMatch), response);
+    }
+
+    private static MockHttpServletRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
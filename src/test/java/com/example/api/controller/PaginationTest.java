@@ -0,0 +1,92 @@
+package com.example.api.controller;
+
+import com.example.api.model.Item;
+import com.example.api.store.EntityStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PaginationTest {
+
+    private final EntityStore<Item> store = new EntityStore<>("items", 0);
+
+    PaginationTest() {
+        for (int i = 0; i < 7; i++) {
+            store.create(new Item(null, "item" + i, null, i));
+        }
+    }
+
+    @Test
+    void noLimitReturnsEverythingWithoutACursor() {
+        ResponseEntity<List<Item>> all = Pagination.page(store, null, null);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), ids(all));
+        assertNull(all.getHeaders().getFirst(Pagination.NEXT_CURSOR));
+
+        assertEquals(List.of(6L, 7L), ids(Pagination.page(store, null, 5L)));
+    }
+
+    @Test
+    void followingNextCursorVisitsEveryEntityOnce() {
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            ResponseEntity<List<Item>> page = Pagination.page(store, 3, cursor);
+            assertEquals(HttpStatus.OK, page.getStatusCode());
+            seen.addAll(ids(page));
+            String next = page.getHeaders().getFirst(Pagination.NEXT_CURSOR);
+            cursor = next != null ? Long.valueOf(next) : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void exactFinalPageHasNoNextCursor() {
+        ResponseEntity<List<Item>> page = Pagination.page(store, 7, null);
+        assertEquals(7, page.getBody().size());
+        assertNull(page.getHeaders().getFirst(Pagination.NEXT_CURSOR));
+
+        ResponseEntity<List<Item>> tail = Pagination.page(store, 2, 5L);
+        assertEquals(List.of(6L, 7L), ids(tail));
+        assertNull(tail.getHeaders().getFirst(Pagination.NEXT_CURSOR));
+    }
+
+    @Test
+    void cursorNeedNotBeAStoredId() {
+        EntityStore<Item> sparse = new EntityStore<>("sparse", 0);
+        for (long id : new long[] {2, 4, 6, 8, 10}) {
+            sparse.put(id, new Item(id, "item" + id, null, 0));
+        }
+        ResponseEntity<List<Item>> page = Pagination.page(sparse, 2, 5L);
+        assertEquals(List.of(6L, 8L), ids(page));
+        assertEquals("8", page.getHeaders().getFirst(Pagination.NEXT_CURSOR));
+
+        assertEquals(List.of(), ids(Pagination.page(sparse, 2, 100L)));
+    }
+
+    @Test
+    void maxIntLimitDoesNotOverflow() {
+        ResponseEntity<List<Item>> page = Pagination.page(store, Integer.MAX_VALUE, null);
+        assertEquals(7, page.getBody().size());
+        assertNull(page.getHeaders().getFirst(Pagination.NEXT_CURSOR));
+    }
+
+    @Test
+    void nonPositiveLimitIsABadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, Pagination.page(store, 0, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, Pagination.page(store, -1, null).getStatusCode());
+    }
+
+    private static List<Long> ids(ResponseEntity<List<Item>> page) {
+        return page.getBody().stream().map(Item::getId).toList();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.api.reactive;
+
+import com.example.api.controller.BatchExecutor;
+import com.example.api.controller.BatchResult;
+import com.example.api.model.Item;
+import com.example.api.store.StoreFactory;
+import com.example.api.store.Tenants;
+import com.example.api.view.EntityTags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The WebFlux routes answer with the MVC controllers' status codes, intentional
+ * 500s included, so findings on one stack carry over to the other. Runs under
+ * -Preactive only.
+ */
+class ReactiveRoutesTest {
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void routes() {
+        StoreFactory factory = new StoreFactory(0, false);
+        Tenants tenants = new Tenants(factory.create(0, null), factory);
+        BatchExecutor batch = new BatchExecutor(new ObjectMapper());
+        client = WebTestClient.bindToRouterFunction(new ReactiveRoutes().entityRoutes(tenants, new EntityTags(), batch))
+                .build();
+        post("/api/items", "{\"name\":\"a\",\"quantity\":1}").expectStatus().isCreated()
+                .expectBody(Item.class).value(item -> assertEquals(1L, item.getId()));
+    }
+
+    @Test
+    void deletingAnExistingEntityIsAServerError() {
+        client.delete().uri("/api/items/1").exchange().expectStatus().isEqualTo(500);
+        client.delete().uri("/api/items/9").exchange().expectStatus().isNotFound();
+        client.get().uri("/api/items/1").exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void negativeQuantityOrPriceIsAServerError() {
+        post("/api/items", "{\"name\":\"b\",\"quantity\":-1}").expectStatus().isEqualTo(500);
+        post("/api/prices", "{\"item\":{\"id\":1},\"price\":-5}").expectStatus().isEqualTo(500);
+        post("/api/prices", "{\"item\":{\"id\":9},\"price\":5}").expectStatus().isNotFound();
+        post("/api/prices", "{\"item\":{\"id\":1},\"price\":5}").expectStatus().isCreated();
+    }
+
+    @Test
+    void patchingQuantityWithAStringIsAServerErrorAndChangesNothing() {
+        client.patch().uri("/api/items/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"b\",\"quantity\":\"7\"}")
+                .exchange().expectStatus().isEqualTo(500);
+        client.get().uri("/api/items/1").exchange().expectBody(Item.class)
+                .value(item -> assertEquals("a", item.getName()));
+
+        client.patch().uri("/api/items/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"quantity\":7}")
+                .exchange().expectStatus().isOk().expectBody(Item.class)
+                .value(item -> assertEquals(7, item.getQuantity()));
+    }
+
+    @Test
+    void unparsableIdsAndLimitsAreBadRequests() {
+        client.get().uri("/api/items/abc").exchange().expectStatus().isBadRequest();
+        client.delete().uri("/api/prices/abc").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/items?limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/items?limit=x").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/items?limit=1").exchange().expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-Cursor");
+    }
+
+    @Test
+    void missingBodiesAreBadRequests() {
+        client.post().uri("/api/items").contentType(MediaType.APPLICATION_JSON)
+                .exchange().expectStatus().isBadRequest();
+        client.patch().uri("/api/items/1").contentType(MediaType.APPLICATION_JSON)
+                .exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void headAndOptionsOnItems() {
+        client.head().uri("/api/items/1").exchange().expectStatus().isOk();
+        client.head().uri("/api/items/9").exchange().expectStatus().isNotFound();
+        client.method(HttpMethod.OPTIONS).uri("/api/items/1").exchange().expectStatus().isOk()
+                .expectHeader().valueEquals("Allow", "GET, POST, PUT, PATCH, DELETE, HEAD, OPTIONS");
+    }
+
+    @Test
+    void optionsOnEveryEntityPath() {
+        client.method(HttpMethod.OPTIONS).uri("/api/prices/1").exchange().expectStatus().isOk()
+                .expectHeader().valueEquals("Allow", "GET,HEAD,PUT,PATCH,DELETE,OPTIONS");
+        client.method(HttpMethod.OPTIONS).uri("/api/points").exchange().expectStatus().isOk()
+                .expectHeader().valueEquals("Allow", "GET,HEAD,POST,DELETE,OPTIONS");
+    }
+
+    @Test
+    void batchRoutesMethodsAsTheMvcStack() {
+        post("/api/prices", "{\"item\":{\"id\":1},\"price\":5}").expectStatus().isCreated();
+        post("/api/prices/_batch", """
+                [{"method":"PUT","body":{"price":1}},
+                 {"method":"PATCH","body":{"price":1}},
+                 {"method":"POST","id":"1","body":{"price":1}},
+                 {"method":"HEAD","id":"1"},
+                 {"method":"HEAD","id":"9"},
+                 {"method":"OPTIONS","id":"1"},
+                 {"method":"GET","id":"x"},
+                 {"method":"DELETE","id":"1"}]""")
+                .expectStatus().isOk()
+                .expectBody(BatchResult[].class).value(results -> {
+                    assertEquals(List.of(405, 405, 405, 200, 404, 200, 400, 500),
+                            Arrays.stream(results).map(BatchResult::status).toList());
+                    assertNull(results[3].body());
+                    assertEquals(Map.of("Allow", "GET,HEAD,PUT,PATCH,DELETE,OPTIONS"), results[5].headers());
+                });
+    }
+
+    @Test
+    void conditionalGetAnswersNotModified() {
+        String etag = client.get().uri("/api/items/1").exchange().expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        client.get().uri("/api/items/1").ifNoneMatch(etag).exchange().expectStatus().isNotModified();
+    }
+
+    private WebTestClient.ResponseSpec post(String uri, String body) {
+        return client.post().uri(uri).contentType(MediaType.APPLICATION_JSON).bodyValue(body).exchange();
+    }
+}
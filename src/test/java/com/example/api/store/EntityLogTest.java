@@ -0,0 +1,138 @@
+package com.example.api.store;
+
+import com.example.api.model.Item;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EntityLogTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayRestoresPutsAndDeletesInOrder() throws IOException {
+        Path path = dir.resolve("items.log");
+        try (EntityLog<Item> log = new EntityLog<>(path, Item.class, json)) {
+            EntityStore<Item> store = new EntityStore<>("items", 2);
+            store.addListener(log);
+            store.create(item("a"));
+            store.create(item("b"));
+            store.put(1L, new Item(1L, "a2", null, 0));
+            store.create(item("c"));  // evicts 1 after a full sweep
+        }
+
+        EntityStore<Item> replayed = replay(path);
+        assertEquals(List.of("b", "c"), names(replayed));
+        assertEquals(4L, replayed.create(item("d")).getId());
+    }
+
+    @Test
+    void replayStopsAtATornRecordAndDropsWhatFollows() throws IOException {
+        Path path = dir.resolve("items.log");
+        try (EntityLog<Item> log = new EntityLog<>(path, Item.class, json)) {
+            EntityStore<Item> store = new EntityStore<>("items", 0);
+            store.addListener(log);
+            store.create(item("aa"));
+            store.create(item("bb"));
+            store.create(item("cc"));
+        }
+        long recordLength = Files.size(path) / 3;
+
+        // Tear the middle record; the one after it is intact
+        corrupt(path, recordLength + recordLength - 1);
+
+        EntityStore<Item> store;
+        try (EntityLog<Item> log = new EntityLog<>(path, Item.class, json)) {
+            store = new EntityStore<>("items", 0);
+            store.addListener(log);
+            log.replayInto(store);
+            assertEquals(recordLength, Files.size(path));
+            assertEquals(List.of("aa"), names(store));
+
+            // Same length as the torn record, so it would have ended right where "cc" starts
+            store.put(2L, new Item(2L, "dd", null, 0));
+        }
+
+        assertEquals(List.of("aa", "dd"), names(replay(path)));
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveEntitiesAndLogsOn() throws IOException {
+        Path path = dir.resolve("items.log");
+        try (EntityLog<Item> log = new EntityLog<>(path, Item.class, json)) {
+            EntityStore<Item> store = new EntityStore<>("items", 0);
+            store.addListener(log);
+            store.create(item("a"));
+            store.create(item("b"));
+            store.put(1L, new Item(1L, "a2", null, 0));
+            assertEquals(3, log.getRecords());
+
+            log.compact(store);
+            assertEquals(2, log.getRecords());
+            store.create(item("c"));
+        }
+
+        assertEquals(List.of("a2", "b", "c"), names(replay(path)));
+        assertFalse(Files.exists(dir.resolve("items.log.compact")));
+    }
+
+    @Test
+    void failedCompactionLeavesTheOldLogLive() throws IOException {
+        Path path = dir.resolve("items.log");
+        try (EntityLog<Item> log = new EntityLog<>(path, Item.class, json)) {
+            EntityStore<Item> store = new EntityStore<>("items", 0);
+            store.addListener(log);
+            store.create(item("a"));
+
+            // A directory where the log was: the channel stays valid, the rename over it fails
+            Files.delete(path);
+            Files.createDirectory(path);
+            assertThrows(IOException.class, () -> log.compact(store));
+            assertFalse(Files.exists(dir.resolve("items.log.compact")));
+
+            store.create(item("b"));
+            log.flush();
+            assertEquals(2, log.getRecords());
+        }
+    }
+
+    private EntityStore<Item> replay(Path path) throws IOException {
+        EntityStore<Item> store = new EntityStore<>("items", 0);
+        try (EntityLog<Item> log = new EntityLog<>(path, Item.class, json)) {
+            store.addListener(log);
+            log.replayInto(store);
+        }
+        return store;
+    }
+
+    private static void corrupt(Path path, long at) throws IOException {
+        try (var channel = Files.newByteChannel(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.position(at).read(one);
+            one.put(0, (byte) (one.get(0) ^ 0x55)).rewind();
+            channel.position(at).write(one);
+        }
+    }
+
+    private static Item item(String name) {
+        return new Item(null, name, null, 0);
+    }
+
+    private static List<String> names(EntityStore<Item> store) {
+        return store.list(null, Integer.MAX_VALUE).stream().map(Item::getName).toList();
+    }
+}
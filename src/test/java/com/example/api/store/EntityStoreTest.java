@@ -0,0 +1,350 @@
+package com.example.api.store;
+
+import com.example.api.model.Discount;
+import com.example.api.model.Item;
+import com.example.api.model.Point;
+import com.example.api.model.Price;
+import com.example.api.store.offheap.OffHeapCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityStoreTest {
+
+    @Test
+    void unboundedStoreNeverEvicts() {
+        EntityStore<Item> store = new EntityStore<>("items", 0);
+        for (int i = 0; i < 1000; i++) {
+            store.create(item("item" + i));
+        }
+        assertEquals(1000, store.getSize());
+        assertEquals(0, store.getEvictions());
+    }
+
+    @Test
+    void clockGivesAccessedEntriesASecondChance() {
+        EntityStore<Item> store = new EntityStore<>("items", 3);
+        for (int i = 1; i <= 4; i++) {
+            store.create(item("item" + i));
+        }
+        // Every insert sets the bit: one revolution clears all four, then 1 goes
+        assertEquals(3, store.getSize());
+        assertEquals(1, store.getEvictions());
+        assertEquals(List.of(2L, 3L, 4L), ids(store.list(null, 10)));
+
+        store.get(2L);
+        store.create(item("item5"));  // hand resumes after 1, spares 2, evicts 3
+        assertEquals(List.of(2L, 4L, 5L), ids(store.list(null, 10)));
+
+        store.create(item("item6"));  // hand moves on to 4
+        assertEquals(List.of(2L, 5L, 6L), ids(store.list(null, 10)));
+
+        store.create(item("item7"));  // clears 5..7 and wraps to 2, passed since its access
+        assertEquals(List.of(5L, 6L, 7L), ids(store.list(null, 10)));
+        assertEquals(4, store.getEvictions());
+    }
+
+    @Test
+    void newestEntrySurvivesItsInsert() {
+        EntityStore<Item> store = new EntityStore<>("items", 4);
+        for (int i = 0; i < 100; i++) {
+            Item created = store.create(item("item" + i));
+            store.get(created.getId());  // all referenced, so the hand ends each sweep at the tail
+            // list() doesn't count as an access
+            assertEquals(List.of(created.getId()), ids(store.list(created.getId() - 1, 1)), "insert " + i);
+        }
+        assertEquals(4, store.getSize());
+        assertEquals(96, store.getEvictions());
+    }
+
+    @Test
+    void replacingAnEntryDoesNotEvict() {
+        EntityStore<Item> store = new EntityStore<>("items", 2);
+        store.create(item("a"));
+        store.create(item("b"));
+        store.put(1L, new Item(1L, "a2", null, 0));
+        assertEquals(2, store.getSize());
+        assertEquals(0, store.getEvictions());
+        assertEquals("a2", store.get(1L).getName());
+    }
+
+    @Test
+    void evictionIsReportedToListenersAndBumpsVersion() {
+        EntityStore<Item> store = new EntityStore<>("items", 1);
+        List<Long> removed = new ArrayList<>();
+        store.addListener(new StoreListener<>() {
+            @Override
+            public void stored(Long id, Item entity) {
+            }
+
+            @Override
+            public void removed(Long id) {
+                removed.add(id);
+            }
+        });
+        store.create(item("a"));
+        store.create(item("b"));
+        long version = store.getVersion();
+        store.create(item("c"));
+
+        assertEquals(List.of(1L, 2L), removed);
+        assertEquals(version + 2, store.getVersion());  // the insert and the eviction
+        assertEquals(0, store.getVersion(1L));
+    }
+
+    @Test
+    void concurrentInsertsStayWithinCapacity() throws InterruptedException {
+        EntityStore<Item> store = new EntityStore<>("items", 64);
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    Item created = store.create(item("x"));
+                    store.get(created.getId() - 1);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(64, store.getSize());
+        assertEquals(64, store.list(null, Integer.MAX_VALUE).size());
+        assertEquals(4 * 5000 - 64, store.getEvictions());
+    }
+
+    @Test
+    void offHeapRoundTripsANestedGraph() {
+        EntityStore<Point> store = new EntityStore<>("points", 0, OffHeapCodec.points());
+        Item item = new Item(null, "widget", null, 3);
+        Point point = new Point(null, new Discount(7L, new Price(5L, item, 9.5), 0.25), 40);
+        store.create(point);
+        store.create(new Point(null, null, 1));
+
+        Point read = store.get(1L);
+        assertEquals(40, read.getPoints());
+        assertEquals(0.25, read.getDiscount().getDiscount());
+        assertEquals(9.5, read.getDiscount().getPrice().getPrice());
+        assertEquals("widget", read.getDiscount().getPrice().getItem().getName());
+        assertNull(read.getDiscount().getPrice().getItem().getDescription());
+        assertNull(read.getDiscount().getPrice().getItem().getId());
+        assertNull(store.get(2L).getDiscount());
+        assertTrue(store.getOffHeapBytes() > 0);
+    }
+
+    @Test
+    void offHeapReadsAreDetachedCopies() {
+        EntityStore<Item> store = new EntityStore<>("items", 0, OffHeapCodec.items());
+        store.create(item("a"));
+        long version = store.getVersion(1L);
+
+        Item copy = store.get(1L);
+        copy.setName("changed");
+        assertEquals("a", store.get(1L).getName());
+        assertEquals(version, store.getVersion(1L));
+
+        store.put(1L, copy);
+        assertEquals("changed", store.get(1L).getName());
+        assertTrue(store.getVersion(1L) > version);
+    }
+
+    @Test
+    void offHeapSlotsAreReusedAfterEviction() {
+        EntityStore<Item> store = new EntityStore<>("items", 8, OffHeapCodec.items());
+        for (int i = 0; i < 8; i++) {
+            store.create(new Item(null, "name" + i, "description" + i, i));
+        }
+        long bytes = store.getOffHeapBytes();
+        for (int i = 8; i < 10_000; i++) {
+            store.create(new Item(null, "name" + i, "description" + i, i));
+        }
+        assertEquals(8, store.getSize());
+        assertTrue(store.getOffHeapBytes() <= 2 * bytes, store.getOffHeapBytes() + " vs " + bytes);
+        Item last = store.get(10_000L);
+        assertEquals("name9999", last.getName());
+        assertEquals("description9999", last.getDescription());
+    }
+
+    @Test
+    void seqlockReadersNeverSeeATornRow() throws InterruptedException {
+        EntityStore<Item> store = new EntityStore<>("items", 0, OffHeapCodec.items());
+        store.create(consistent(0));
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 200_000; i++) {
+                store.put(1L, consistent(i));
+            }
+            done.set(true);
+        });
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                while (!done.get() && torn.get() == null) {
+                    Item read = store.get(1L);
+                    int n = read.getQuantity();
+                    if (!read.getName().equals("name" + n) || !read.getDescription().equals("d".repeat(n % 50) + n)) {
+                        torn.set(read.getName() + " / " + read.getDescription() + " / " + n);
+                    }
+                }
+            });
+            readers[r].start();
+        }
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(torn.get());
+        assertEquals(200_000, store.get(1L).getQuantity());
+    }
+
+    @Test
+    void restoredStoreSharesTheSnapshotUntilWritten() {
+        EntityStore<Item> original = new EntityStore<>("items", 0);
+        for (int i = 1; i <= 5; i++) {
+            original.create(item("item" + i));
+        }
+        StoreSnapshot<Item> snapshot = original.snapshot();
+        Item shared = original.get(2L);
+
+        EntityStore<Item> restored = new EntityStore<>("items", 0, null, snapshot);
+        assertEquals(5, restored.getSize());
+        assertEquals(original.getVersion(), restored.getVersion());
+        assertEquals(original.getVersion(3L), restored.getVersion(3L));
+        assertTrue(restored.isFromSnapshot(2L));
+        assertSame(shared, restored.get(2L));  // linked, not copied
+        assertFalse(restored.isFromSnapshot(2L));
+
+        restored.put(2L, new Item(2L, "changed", null, 0));
+        original.put(3L, new Item(3L, "changed", null, 0));
+        assertEquals("item2", original.get(2L).getName());
+        assertEquals("item3", restored.get(3L).getName());
+        assertEquals("item2", new EntityStore<>("items", 0, null, snapshot).get(2L).getName());
+
+        assertEquals(6L, restored.create(item("item6")).getId());
+    }
+
+    @Test
+    void listingMergesOwnAndSnapshotEntries() {
+        EntityStore<Item> original = new EntityStore<>("items", 0);
+        for (int i = 1; i <= 6; i++) {
+            original.create(item("item" + i));
+        }
+        EntityStore<Item> restored = new EntityStore<>("items", 0, null, original.snapshot());
+        restored.get(4L);
+        restored.remove(2L);
+        restored.create(item("item7"));
+
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L, 7L), ids(restored.list(null, 10)));
+        assertEquals(List.of(4L, 5L), ids(restored.list(3L, 2)));
+        assertEquals(6, restored.getSize());
+        assertNull(restored.get(2L));
+
+        StoreSnapshot<Item> again = restored.snapshot();  // a snapshot of an overlay
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L, 7L), ids(new EntityStore<>("items", 0, null, again).list(null, 10)));
+    }
+
+    @Test
+    void evictionHidesSnapshotEntriesFirst() {
+        EntityStore<Item> original = new EntityStore<>("items", 0);
+        for (int i = 1; i <= 4; i++) {
+            original.create(item("item" + i));
+        }
+        EntityStore<Item> restored = new EntityStore<>("items", 4, null, original.snapshot());
+        restored.get(1L);
+        restored.create(item("item5"));
+        restored.create(item("item6"));
+
+        assertEquals(List.of(1L, 4L, 5L, 6L), ids(restored.list(null, 10)));
+        assertEquals(2, restored.getEvictions());
+        assertEquals(4, restored.getSize());
+    }
+
+    @Test
+    void clearDropsTheSnapshot() {
+        EntityStore<Item> original = new EntityStore<>("items", 0);
+        for (int i = 1; i <= 4; i++) {
+            original.create(item("item" + i));
+        }
+        EntityStore<Item> restored = new EntityStore<>("items", 0, null, original.snapshot());
+        restored.get(1L);
+        restored.remove(2L);
+        long version = restored.getVersion();
+
+        restored.clear();
+        assertEquals(0, restored.getSize());
+        assertEquals(List.of(), restored.list(null, 10));
+        assertNull(restored.get(3L));
+        assertFalse(restored.isFromSnapshot(3L));
+        assertTrue(restored.getVersion() > version);
+        assertEquals(5L, restored.create(item("item5")).getId());
+        assertEquals(4, original.getSize());
+    }
+
+    @Test
+    void clearRacingFirstAccessesLeavesSizeExact() throws InterruptedException {
+        EntityStore<Item> original = new EntityStore<>("items", 0);
+        for (int i = 1; i <= 2000; i++) {
+            original.create(item("item" + i));
+        }
+        StoreSnapshot<Item> snapshot = original.snapshot();
+        for (int round = 0; round < 50; round++) {
+            EntityStore<Item> restored = new EntityStore<>("items", 0, null, snapshot);
+            Thread[] readers = new Thread[3];
+            for (int r = 0; r < readers.length; r++) {
+                int start = 1 + r;
+                readers[r] = new Thread(() -> {
+                    for (long id = start; id <= 2000; id += readers.length) {
+                        restored.get(id);
+                    }
+                });
+                readers[r].start();
+            }
+            restored.clear();
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertEquals(0, restored.getSize(), "round " + round);
+            assertEquals(List.of(), restored.list(null, 10));
+        }
+    }
+
+    @Test
+    void offHeapStoreRestoresFromASnapshot() {
+        EntityStore<Item> original = new EntityStore<>("items", 0, OffHeapCodec.items());
+        original.create(new Item(null, "a", "first", 1));
+        original.create(new Item(null, "b", "second", 2));
+        EntityStore<Item> restored = new EntityStore<>("items", 0, OffHeapCodec.items(), original.snapshot());
+
+        assertEquals("second", restored.get(2L).getDescription());
+        restored.put(2L, new Item(2L, "b2", null, 3));
+        assertEquals("second", original.get(2L).getDescription());
+        assertEquals(List.of("a", "b2"), restored.list(null, 10).stream().map(Item::getName).toList());
+    }
+
+    private static Item consistent(int n) {
+        // Varying string lengths move the arena handles as well as the longs
+        return new Item(1L, "name" + n, "d".repeat(n % 50) + n, n);
+    }
+
+    static Item item(String name) {
+        return new Item(null, name, null, 0);
+    }
+
+    static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.api.store;
+
+import com.example.api.model.Item;
+import com.example.api.model.Price;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceIndexTest {
+
+    @Test
+    void putMovesAChildToItsNewParent() {
+        EntityStore<Price> prices = new EntityStore<>("prices", 0);
+        ReferenceIndex<Price> byItem = StoreFactory.indexPricesByItem(prices);
+        prices.create(price(1L));
+        prices.create(price(1L));
+        prices.create(price(2L));
+        assertEquals(Set.of(1L, 2L), byItem.childrenOf(1L));
+
+        prices.put(1L, new Price(1L, new Item(2L, "i", null, 0), 1.0));
+        assertEquals(Set.of(2L), byItem.childrenOf(1L));
+        assertEquals(Set.of(1L, 3L), byItem.childrenOf(2L));
+
+        prices.put(2L, new Price(2L, null, 1.0));  // no parent any more
+        assertTrue(byItem.childrenOf(1L).isEmpty());
+        assertEquals(Set.of(2L), byItem.freeze().keySet());
+    }
+
+    @Test
+    void evictionAndClearUnlinkChildren() {
+        EntityStore<Price> prices = new EntityStore<>("prices", 2);
+        ReferenceIndex<Price> byItem = StoreFactory.indexPricesByItem(prices);
+        prices.create(price(1L));
+        prices.create(price(1L));
+        prices.create(price(1L));  // evicts price 1
+        assertEquals(1, prices.getEvictions());
+        assertEquals(Set.of(2L, 3L), byItem.childrenOf(1L));
+
+        prices.clear();
+        assertTrue(byItem.childrenOf(1L).isEmpty());
+        assertTrue(byItem.freeze().isEmpty());
+    }
+
+    @Test
+    void listenerAddedLaterCatchesUpWithTheStore() {
+        EntityStore<Price> prices = new EntityStore<>("prices", 0);
+        prices.create(price(4L));
+        prices.create(price(5L));
+        ReferenceIndex<Price> byItem = StoreFactory.indexPricesByItem(prices);
+        assertEquals(Set.of(1L), byItem.childrenOf(4L));
+        assertEquals(Set.of(2L), byItem.childrenOf(5L));
+    }
+
+    @Test
+    void restoredIndexCountsFrozenChildrenOnlyWhileTheyComeFromTheSnapshot() {
+        StoreFactory factory = new StoreFactory(0, false);
+        Stores seed = factory.create(0, null);
+        seed.prices().create(price(1L));
+        seed.prices().create(price(1L));
+        seed.prices().create(price(2L));
+        TenantSnapshot snapshot = factory.snapshot(seed);
+
+        Stores restored = factory.create(1, snapshot);
+        ReferenceIndex<Price> byItem = restored.pricesByItem();
+        assertEquals(Set.of(1L, 2L), byItem.childrenOf(1L));
+
+        restored.prices().put(2L, new Price(2L, new Item(2L, "i", null, 0), 1.0));
+        assertEquals(Set.of(1L), byItem.childrenOf(1L));
+        assertEquals(Set.of(2L, 3L), byItem.childrenOf(2L));
+
+        restored.prices().clear();
+        assertTrue(byItem.freeze().isEmpty());
+        assertEquals(Set.of(1L, 2L), seed.pricesByItem().childrenOf(1L));  // the seed is untouched
+    }
+
+    @Test
+    void concurrentWritesAndEvictionsKeepTheIndexExact() throws InterruptedException {
+        EntityStore<Price> prices = new EntityStore<>("prices", 64);
+        ReferenceIndex<Price> byItem = StoreFactory.indexPricesByItem(prices);
+
+        Thread[] writers = new Thread[8];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    long id = random.nextLong(1, 129);
+                    int parent = random.nextInt(97);  // 0 = no parent; few children each, so sets empty and refill
+                    Item item = parent == 0 ? null : new Item((long) parent, "i", null, 0);
+                    prices.put(id, new Price(id, item, 1.0));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Map<Long, Set<Long>> expected = new HashMap<>();
+        for (Price price : prices.list(null, Integer.MAX_VALUE)) {
+            if (price.getItem() != null) {
+                expected.computeIfAbsent(price.getItem().getId(), k -> new HashSet<>()).add(price.getId());
+            }
+        }
+        assertTrue(prices.getEvictions() > 0);
+        assertEquals(expected, byItem.freeze());
+    }
+
+    private static Price price(Long itemId) {
+        return new Price(null, new Item(itemId, "i", null, 0), 1.0);
+    }
+}
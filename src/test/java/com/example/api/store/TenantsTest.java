@@ -0,0 +1,94 @@
+package com.example.api.store;
+
+import com.example.api.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantsTest {
+
+    private final StoreFactory factory = new StoreFactory(0, false);
+    private final Stores defaults = factory.create(0, null);
+
+    @Test
+    void tenantsGetTheirOwnStores() {
+        Tenants tenants = new Tenants(defaults, factory);
+        assertSame(defaults, tenants.get(null));
+        assertSame(defaults, tenants.get(" "));
+        Stores a = tenants.get("a");
+        assertSame(a, tenants.get("a"));
+        assertNotSame(a, tenants.get("b"));
+        assertTrue(a.generation() != 0 && a.generation() != tenants.get("b").generation());
+        assertEquals(Set.of("a", "b"), tenants.getTenants().keySet());
+    }
+
+    @Test
+    void resetTenantStartsEmptyWithANewGeneration() {
+        Tenants tenants = new Tenants(defaults, factory);
+        Stores before = tenants.get("a");
+        before.items().create(new Item(null, "x", null, 1));
+
+        assertTrue(tenants.reset("a"));
+        Stores after = tenants.get("a");
+        assertEquals(0, after.items().getSize());
+        assertTrue(after.generation() > before.generation());
+        assertFalse(tenants.reset("missing"));
+    }
+
+    @Test
+    void leastRecentlyUsedTenantIsEvictedPastTheCap() throws InterruptedException {
+        Tenants tenants = new Tenants(defaults, factory, 2);
+        tenants.get("a").items().create(new Item(null, "x", null, 1));
+        tenants.get("b");
+        Thread.sleep(1);
+        tenants.get("a");  // b is now the idlest
+
+        tenants.get("c");
+        assertEquals(Set.of("a", "c"), tenants.getTenants().keySet());
+        assertEquals(1, tenants.getEvictions());
+        assertEquals(1, tenants.getTenants().get("a").items().getSize());  // not a use
+
+        assertEquals(0, tenants.get("b").items().getSize());  // back, empty, evicting a
+        assertEquals(Set.of("b", "c"), tenants.getTenants().keySet());
+        assertSame(defaults, tenants.get(null));
+    }
+
+    @Test
+    void restoreCountsTowardsTheCap() {
+        Tenants tenants = new Tenants(defaults, factory, 1);
+        tenants.get("a").items().create(new Item(null, "x", null, 1));
+        tenants.snapshot("a", "seed");
+
+        assertTrue(tenants.restore("b", "seed"));
+        assertEquals(Set.of("b"), tenants.getTenants().keySet());
+        assertEquals(1, tenants.get("b").items().getSize());
+        assertThrows(IllegalArgumentException.class, () -> tenants.restore(null, "seed"));
+    }
+
+    @Test
+    void concurrentNewTenantsStayWithinTheCap() throws InterruptedException {
+        Tenants tenants = new Tenants(defaults, factory, 8);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    tenants.get("tenant-" + offset + "-" + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8, tenants.getTenants().size());
+        assertEquals(2000 - 8, tenants.getEvictions());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.api.view;
+
+import com.example.api.model.Item;
+import com.example.api.model.Price;
+import com.example.api.store.StoreFactory;
+import com.example.api.store.Stores;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityTagsTest {
+
+    private final EntityTags tags = new EntityTags();
+    private final StoreFactory factory = new StoreFactory(0, false);
+    private final Stores stores = factory.create(0, null);
+
+    @Test
+    void entityTagFollowsOnlyItsOwnWrites() {
+        stores.items().create(new Item(null, "a", null, 1));
+        stores.items().create(new Item(null, "b", null, 1));
+        String tag = tags.entity(stores, stores.items(), 1L, false);
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""), tag);
+
+        stores.items().put(2L, new Item(2L, "b2", null, 1));
+        assertEquals(tag, tags.entity(stores, stores.items(), 1L, false));
+
+        stores.items().put(1L, new Item(1L, "a2", null, 1));
+        assertNotEquals(tag, tags.entity(stores, stores.items(), 1L, false));
+        assertNull(tags.entity(stores, stores.items(), 3L, false));
+    }
+
+    @Test
+    void collectionTagFollowsEveryWrite() {
+        String empty = tags.collection(stores, stores.items(), false);
+        stores.items().create(new Item(null, "a", null, 1));
+        String one = tags.collection(stores, stores.items(), false);
+        assertNotEquals(empty, one);
+        assertEquals(one, tags.collection(stores, stores.items(), false));
+    }
+
+    @Test
+    void fullViewAlsoFollowsParentStores() {
+        stores.items().create(new Item(null, "a", null, 1));
+        stores.prices().create(new Price(null, new Item(1L, null, null, null), 2.0));
+        String full = tags.entity(stores, stores.prices(), 1L, false);
+        String ref = tags.entity(stores, stores.prices(), 1L, true);
+        assertNotEquals(full, ref);
+        assertTrue(ref.endsWith("-ref\""), ref);
+
+        stores.items().put(1L, new Item(1L, "a2", null, 1));
+        assertNotEquals(full, tags.entity(stores, stores.prices(), 1L, false));
+        assertEquals(ref, tags.entity(stores, stores.prices(), 1L, true));
+    }
+
+    @Test
+    void tenantGenerationsNeverShareTags() {
+        Stores first = factory.create(1, null);
+        Stores second = factory.create(2, null);
+        first.items().create(new Item(null, "a", null, 1));
+        second.items().create(new Item(null, "a", null, 1));
+
+        assertNotEquals(tags.entity(first, first.items(), 1L, true), tags.entity(second, second.items(), 1L, true));
+        stores.items().create(new Item(null, "a", null, 1));
+        assertNotEquals(tags.entity(stores, stores.items(), 1L, true), tags.entity(first, first.items(), 1L, true));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.sarsa.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Against the JDK's HTTP/1.1 server, which declines the h2c upgrade: the
+ * replies must map exactly as RestAssuredTransport maps them.
+ */
+class H2cTransportTest {
+
+    private HttpServer server;
+    private String base;
+    private final List<String> seen = new CopyOnWriteArrayList<>();
+    private final Map<Integer, Integer> requestsPerPort = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/items", this::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void repliesMapAsRestAssuredMapsThem() {
+        Map<String, String> defaults = Map.of("X-View", "ref");
+        H2cTransport h2c = new H2cTransport(2, defaults);
+        RestAssuredTransport http1 = new RestAssuredTransport(defaults);
+        assertEquals(HttpClient.Version.HTTP_1_1, h2c.connect(base + "/api/items"));
+
+        String[][] requests = {
+                {"GET", "/api/items/1", null},
+                {"GET", "/api/items/1", "\"v1\""},          // If-None-Match: answered 304
+                {"GET", "/api/items/9", null},
+                {"POST", "/api/items", "{\"name\":\"a\"}"},
+                {"PATCH", "/api/items/1", "{\"quantity\":\"7\"}"},
+                {"DELETE", "/api/items/1", null},
+        };
+        for (String[] r : requests) {
+            String body = r[0].equals("GET") ? null : r[2];
+            String ifNoneMatch = r[0].equals("GET") ? r[2] : null;
+            HttpReply expected = http1.send(r[0], base + r[1], body, "If-None-Match", ifNoneMatch);
+            HttpReply actual = h2c.send(r[0], base + r[1], body, "If-None-Match", ifNoneMatch);
+            String what = r[0] + " " + r[1];
+            assertEquals(expected.status(), actual.status(), what);
+            assertEquals(expected.etag(), actual.etag(), what);
+            assertArrayEquals(expected.body(), actual.body(), what);
+            assertEquals(seen.get(seen.size() - 2), seen.get(seen.size() - 1), what);  // same request on the wire
+        }
+        assertEquals(304, h2c.send("GET", base + "/api/items/1", null, "If-None-Match", "\"v1\"").status());
+        assertEquals("\"v1\"", h2c.sendAsync("GET", base + "/api/items/1", null).join().etag());
+    }
+
+    @Test
+    void connectOpensEveryConnectionAndSendsRoundRobin() {
+        H2cTransport h2c = new H2cTransport(3, Map.of());
+        h2c.connect(base + "/api/items");
+        assertEquals(3, requestsPerPort.size());  // one upgrade attempt per connection
+
+        for (int i = 0; i < 6; i++) {
+            h2c.send("GET", base + "/api/items/1", null);
+        }
+        assertEquals(Map.of(3, 3), counts(requestsPerPort));  // the connect plus two each
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestsPerPort.merge(exchange.getRemoteAddress().getPort(), 1, Integer::sum);
+        byte[] in = exchange.getRequestBody().readAllBytes();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        seen.add(method + " " + path + " " + exchange.getRequestHeaders().getFirst("X-View")
+                + " " + exchange.getRequestHeaders().getFirst("Content-Type") + " " + new String(in, StandardCharsets.UTF_8));
+
+        int status;
+        String body = null;
+        if (method.equals("GET") && path.equals("/api/items/1")) {
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            status = "\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match")) ? 304 : 200;
+            body = status == 200 ? "{\"id\":1,\"name\":\"a\"}" : null;
+        } else if (method.equals("POST")) {
+            status = 201;
+            body = "{\"id\":2,\"name\":\"a\"}";
+        } else if (method.equals("GET")) {
+            status = 404;
+        } else {
+            status = 500;
+        }
+
+        byte[] out = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        exchange.sendResponseHeaders(status, out.length == 0 ? -1 : out.length);
+        if (out.length > 0) {
+            exchange.getResponseBody().write(out);
+        }
+        exchange.close();
+    }
+
+    // requests per connection -> how many connections carried that many
+    private static Map<Integer, Integer> counts(Map<Integer, Integer> perPort) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int n : perPort.values()) {
+            counts.merge(n, 1, Integer::sum);
+        }
+        return counts;
+    }
+}
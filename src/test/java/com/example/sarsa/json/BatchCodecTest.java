@@ -0,0 +1,77 @@
+package com.example.sarsa.json;
+
+import com.example.api.controller.BatchOperation;
+import com.example.api.controller.BatchResult;
+import com.example.sarsa.model.ApiResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BatchCodecTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void encodedOperationsBindOnTheServer() throws IOException {
+        String malformed = "{\"name\":\"a\",\"quantity\":";
+        String encoded = BatchCodec.encode(List.of(
+                new BatchCodec.Operation("POST", null, null, "{\"name\":\"\\\"q\\\"\",\"quantity\":1}", null),
+                new BatchCodec.Operation("PUT", "7", null, malformed, "agent-1"),
+                new BatchCodec.Operation("GET", null, "10", null, null),
+                new BatchCodec.Operation("GET", "x y", null, null, null)));
+
+        List<BatchOperation> operations = json.readValue(encoded, new TypeReference<>() {
+        });
+        assertEquals(4, operations.size());
+
+        BatchOperation post = operations.get(0);
+        assertEquals("POST", post.getMethod());
+        assertNull(post.getId());
+        assertEquals("\"q\"", json.readTree(post.getBody().textValue()).get("name").textValue());
+
+        BatchOperation put = operations.get(1);
+        assertEquals("7", put.getId());
+        assertEquals(malformed, put.getBody().textValue());  // verbatim, to fail on the server
+        assertEquals("agent-1", put.getTenant());
+
+        assertEquals("10", operations.get(2).getLimit());
+        assertNull(operations.get(2).getBody());
+        assertEquals("x y", operations.get(3).getId());
+    }
+
+    @Test
+    void decodedResultsCarryStatusAndBodyBytes() throws IOException {
+        Map<String, Object> item = Map.of("id", 8, "name", "a", "tags", List.of(1, 2));
+        byte[] response = json.writeValueAsBytes(Arrays.asList(
+                new BatchResult(201, Map.of("ETag", "\"x\""), item),
+                new BatchResult(404, null, null),
+                new BatchResult(200, null, List.of(Map.of("id", 1), Map.of("id", 2))),
+                new BatchResult(200, null, "text")));
+
+        List<ApiResponse> results = BatchCodec.decode(response);
+
+        assertEquals(List.of(201, 404, 200, 200), results.stream().map(ApiResponse::statusCode).toList());
+        assertEquals(json.readTree(json.writeValueAsBytes(item)), json.readTree(results.get(0).body()));
+        assertArrayEquals(new byte[0], results.get(1).body());
+        assertEquals("1", IdScanner.firstElementId(results.get(2).body()));
+        assertEquals("\"text\"", new String(results.get(3).body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void nonBatchBodiesDecodeToNull() {
+        assertNull(BatchCodec.decode("{\"status\":404}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(BatchCodec.decode("[{\"status\":".getBytes(StandardCharsets.UTF_8)));
+        assertNull(BatchCodec.decode(new byte[0]));
+        assertEquals(List.of(), BatchCodec.decode("[]".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sarsa.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdScannerTest {
+
+    @Test
+    void objectIdIsTheTopLevelOne() {
+        assertEquals("7", IdScanner.objectId(json("{\"id\":7,\"item\":{\"id\":3}}")));
+        assertEquals("7", IdScanner.objectId(json("{\"item\":{\"id\":3,\"tags\":[{\"id\":4}]},\"id\":7}")));
+        assertEquals("abc", IdScanner.objectId(json("{\"name\":\"x\",\"id\":\"abc\"}")));
+    }
+
+    @Test
+    void nestedIdAloneIsNotTheObjectId() {
+        assertNull(IdScanner.objectId(json("{\"item\":{\"id\":3},\"name\":\"x\"}")));
+        assertNull(IdScanner.objectId(json("{\"ids\":[{\"id\":1}]}")));
+    }
+
+    @Test
+    void firstElementIdReadsOnlyTheFirstObject() {
+        assertEquals("1", IdScanner.firstElementId(json("[{\"id\":1},{\"id\":2}]")));
+        assertEquals("1", IdScanner.firstElementId(json("[{\"item\":{\"id\":9},\"id\":1},{\"id\":2}]")));
+        assertNull(IdScanner.firstElementId(json("[]")));
+        assertNull(IdScanner.firstElementId(json("[5,{\"id\":2}]")));
+    }
+
+    @Test
+    void nothingAfterTheIdIsParsed() {
+        // Truncated after the id, as a scanner that reads on would notice
+        assertEquals("7", IdScanner.objectId(json("{\"id\":7,\"name\":")));
+        assertEquals("1", IdScanner.firstElementId(json("[{\"id\":1},{\"id\"")));
+    }
+
+    @Test
+    void nullStructuredMissingOrMalformedGivesNull() {
+        assertNull(IdScanner.objectId(json("{\"id\":null}")));
+        assertNull(IdScanner.objectId(json("{\"id\":{\"value\":7}}")));
+        assertNull(IdScanner.objectId(json("{}")));
+        assertNull(IdScanner.objectId(json("[{\"id\":1}]")));
+        assertNull(IdScanner.objectId(json("{\"name\":\"x\"")));
+        assertNull(IdScanner.objectId(json("not json")));
+        assertNull(IdScanner.objectId(new byte[0]));
+        assertNull(IdScanner.firstElementId(json("{\"id\":1}")));
+    }
+
+    private static byte[] json(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
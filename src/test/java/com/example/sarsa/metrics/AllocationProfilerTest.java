@@ -0,0 +1,85 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.metrics.AllocationProfiler.Scope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AllocationProfilerTest {
+
+    private static final int MB = 1 << 20;
+
+    private final boolean wasEnabled = AllocationProfiler.isEnabled();
+    private final AllocationProfiler profiler = new AllocationProfiler();
+    private Object sink;  // keeps allocations from being optimized away
+
+    @AfterEach
+    void restore() {
+        AllocationProfiler.setEnabled(wasEnabled);
+    }
+
+    @Test
+    void disabledReadsNoCounterAndRecordsNothing() {
+        AllocationProfiler.setEnabled(false);
+        long a = profiler.start();
+        assertEquals(Long.MIN_VALUE, a);  // the sentinel, not a byte count
+        sink = new byte[MB];
+        profiler.stop(Scope.STEP, a);
+        profiler.stop(Scope.REQUEST, a, 4);
+
+        AllocationSnapshot window = profiler.snapshotAndReset();
+        assertTrue(window.isEmpty());
+        for (Scope scope : Scope.values()) {
+            assertEquals(0, window.bytes(scope));
+            assertEquals(0, window.calls(scope));
+        }
+    }
+
+    @Test
+    void enabledCountsTheThreadsAllocations() {
+        AllocationProfiler.setEnabled(true);
+        assumeTrue(AllocationProfiler.isEnabled(), "JVM has no thread allocation accounting");
+
+        long step = profiler.start();
+        long request = profiler.start();
+        sink = new byte[MB];
+        profiler.stop(Scope.REQUEST, request, 2);  // one batched call for two requests
+        sink = new byte[MB];
+        profiler.stop(Scope.STEP, step);
+
+        AllocationSnapshot window = profiler.snapshotAndReset();
+        assertEquals(2, window.calls(Scope.REQUEST));
+        assertEquals(1, window.calls(Scope.STEP));
+        assertTrue(window.bytes(Scope.REQUEST) >= MB);
+        assertTrue(window.bytes(Scope.STEP) >= 2L * MB);
+        assertEquals(window.bytes(Scope.REQUEST) / 2.0, window.bytesPer(Scope.REQUEST));
+        assertTrue(window.nonHttpBytesPerStep() >= MB);
+    }
+
+    @Test
+    void snapshotStartsANewWindowAndUnsnapshottedTotalsCarryOver() {
+        AllocationProfiler.setEnabled(true);
+        assumeTrue(AllocationProfiler.isEnabled(), "JVM has no thread allocation accounting");
+
+        long a = profiler.start();
+        sink = new byte[MB];
+        profiler.stop(Scope.STEP, a);
+        AllocationSnapshot first = profiler.snapshotAndReset();
+        long firstBytes = first.bytes(Scope.STEP);
+
+        // No snapshot in between, as when AsyncReporter drops a window: it rolls into the next
+        for (int i = 0; i < 2; i++) {
+            a = profiler.start();
+            sink = new byte[MB];
+            profiler.stop(Scope.STEP, a);
+        }
+        assertEquals(firstBytes, first.bytes(Scope.STEP));  // detached from the live totals
+        AllocationSnapshot merged = profiler.snapshotAndReset();
+        assertEquals(2, merged.calls(Scope.STEP));
+        assertTrue(merged.bytes(Scope.STEP) >= 2L * MB);
+        assertTrue(profiler.snapshotAndReset().isEmpty());
+    }
+}
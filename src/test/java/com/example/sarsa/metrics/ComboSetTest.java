@@ -0,0 +1,43 @@
+package com.example.sarsa.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComboSetTest {
+
+    @Test
+    void addsEachCodeOnce() {
+        ComboSet set = new ComboSet(200);
+        assertTrue(set.add(0));
+        assertTrue(set.add(63));
+        assertTrue(set.add(64));
+        assertTrue(set.add(199));
+        assertFalse(set.add(63));
+        assertTrue(set.contains(64));
+        assertFalse(set.contains(65));
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    void concurrentAddsCountEveryCodeOnce() throws Exception {
+        ComboSet set = new ComboSet(1 << 12);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int code = 0; code < 1 << 12; code++) {
+                    set.add(code);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1 << 12, set.size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.sarsa.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void linearRegionHasOneBucketPerValue() {
+        for (long v = 0; v < 128; v++) {
+            assertEquals(v, LatencyHistogram.indexOf(v));
+            assertEquals(v, LatencyHistogram.highestValueAt((int) v));
+        }
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucketBounds() {
+        for (long v : sampleValues()) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= v, "upper bound of " + v);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueAt(index - 1) < v, "lower bound of " + v);
+            }
+        }
+    }
+
+    @Test
+    void bucketWidthStaysUnderOneSixtyFourth() {
+        for (int i = 128; i < LatencyHistogram.BUCKETS; i++) {
+            long low = LatencyHistogram.highestValueAt(i - 1) + 1;
+            long high = LatencyHistogram.highestValueAt(i);
+            assertTrue((double) (high - low) / low < 1.0 / 64, "bucket " + i);
+        }
+    }
+
+    @Test
+    void clampsOutOfRangeValues() {
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        long[] counts = histogram.drainWindow();
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[LatencyHistogram.BUCKETS - 1]);
+        assertEquals(LatencyHistogram.MAX_VALUE, counts[LatencyHistogram.BUCKETS]);
+    }
+
+    @Test
+    void drainMovesTheWindowIntoTheTotals() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.record(2_000);
+        assertEquals(2, LatencyHistogram.countOf(histogram.drainWindow()));
+
+        histogram.record(3_000);
+        long[] window = histogram.drainWindow();
+        assertEquals(1, LatencyHistogram.countOf(window));
+        assertEquals(3_000, window[LatencyHistogram.BUCKETS]);
+        assertEquals(0, LatencyHistogram.countOf(histogram.drainWindow()));
+
+        long[] total = histogram.cumulative();
+        assertEquals(3, LatencyHistogram.countOf(total));
+        assertEquals(3_000, total[LatencyHistogram.BUCKETS]);
+    }
+
+    @Test
+    void percentilesAreWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long us = 1; us <= 1_000; us++) {
+            histogram.record(us * 1_000);
+        }
+        long[] counts = histogram.drainWindow();
+        long n = LatencyHistogram.countOf(counts);
+        assertEquals(1_000, n);
+        assertEquals(500_000, LatencyHistogram.valueAtPercentile(counts, n, 50), 500_000 / 64.0);
+        assertEquals(990_000, LatencyHistogram.valueAtPercentile(counts, n, 99), 990_000 / 64.0);
+        assertEquals(1_000_000, LatencyHistogram.valueAtPercentile(counts, n, 100));
+        assertEquals(0, LatencyHistogram.valueAtPercentile(new long[LatencyHistogram.BUCKETS + 1], 0, 50));
+    }
+
+    private static long[] sampleValues() {
+        long[] values = new long[36 * 4];
+        int i = 0;
+        for (int bit = 0; bit < 36; bit++) {
+            long p = 1L << bit;
+            values[i++] = p - 1;
+            values[i++] = p;
+            values[i++] = p + 1;
+            values[i++] = p + (p >>> 1);
+        }
+        return values;
+    }
+}
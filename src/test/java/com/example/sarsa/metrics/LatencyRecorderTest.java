@@ -0,0 +1,65 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.strategy.Endpoint;
+import com.example.sarsa.strategy.HttpType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyRecorderTest {
+
+    @Test
+    void windowsSplitByStatusClass() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(HttpType.GET, Endpoint.ITEMS, 200, 1_000);
+        recorder.record(HttpType.GET, Endpoint.ITEMS, 204, 2_000);
+        recorder.record(HttpType.GET, Endpoint.ITEMS, 500, 3_000);
+
+        List<LatencySummary> window = recorder.summarize(recorder.drainWindows());
+        assertEquals(2, window.size());
+        assertEquals(2, window.get(0).getCount());
+        assertEquals("5xx", window.get(1).getStatusLabel());
+        assertTrue(recorder.summarize(recorder.drainWindows()).isEmpty());
+    }
+
+    @Test
+    void eachDrainHoldsOnlyItsWindowWhileCumulativeKeepsAll() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(HttpType.GET, Endpoint.ITEMS, 200, 1_000);
+        long[][] first = recorder.drainWindows();
+        recorder.record(HttpType.GET, Endpoint.ITEMS, 200, 5_000);
+        recorder.record(HttpType.DELETE, Endpoint.ITEMS, 500, 7_000);
+        long[][] second = recorder.drainWindows();
+
+        assertEquals(1, recorder.summarize(first).size());
+        assertEquals(1, recorder.summarize(first).get(0).getCount());
+        List<LatencySummary> window = recorder.summarize(second);
+        assertEquals(2, window.size());
+        assertEquals(1, window.get(0).getCount());
+        assertEquals(2, recorder.cumulative().get(0).getCount());
+        assertEquals(2, Arrays.stream(second).filter(Objects::nonNull).count());  // null where empty
+    }
+
+    @Test
+    void dumpIncludesTheUndrainedLastWindow(@TempDir Path dir) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(HttpType.POST, Endpoint.PRICES, 201, 1_000);
+        recorder.drainWindows();  // the last report's window
+        recorder.record(HttpType.POST, Endpoint.PRICES, 201, 2_000);  // after it
+
+        Path file = dir.resolve("latency.txt");
+        recorder.dump(file);
+
+        List<String> lines = Files.readAllLines(file);
+        assertTrue(lines.get(1).matches("POST\\s+PRICES\\s+2xx\\s+2\\s.*"), lines.get(1));
+        assertEquals(2, recorder.cumulative().get(0).getCount());
+    }
+}
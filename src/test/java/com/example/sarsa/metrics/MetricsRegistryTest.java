@@ -0,0 +1,41 @@
+package com.example.sarsa.metrics;
+
+import com.example.sarsa.strategy.Endpoint;
+import com.example.sarsa.strategy.HttpType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsRegistryTest {
+
+    @Test
+    void requestsCountOnlyCallsSent() {
+        MetricsRegistry metrics = new MetricsRegistry(4, 8, 1);
+        metrics.recordLatency(HttpType.GET, Endpoint.ITEMS, 200, 1_000);
+        metrics.recordLatency(HttpType.POST, Endpoint.ITEMS, 500, 1_000);
+        metrics.recordEpisode(0, 0);
+        metrics.closeEpoch();
+
+        WindowStats epoch = metrics.getSliding().window(1);
+        assertEquals(2, epoch.getRequests());
+        assertEquals(0, epoch.getExecutes());
+    }
+
+    @Test
+    void samplesAreDeltasSinceThePreviousOne() {
+        MetricsRegistry metrics = new MetricsRegistry(4, 8, 1);
+        metrics.recordEpisode(2.0, 1);
+        metrics.recordBug(0);
+        MetricsSnapshot first = metrics.snapshotOf(metrics.sampleWindow());
+        assertEquals(1, first.getEpisodes());
+        assertEquals(1, first.getBugsByCombo().size());
+
+        metrics.recordEpisode(4.0, 0);
+        metrics.recordEpisode(6.0, 0);
+        MetricsSnapshot second = metrics.snapshotOf(metrics.sampleWindow());
+        assertEquals(2, second.getEpisodes());
+        assertEquals(10.0, second.getTotalReward(), 1e-9);
+        assertEquals(0, second.getBugsByCombo().size());
+        assertEquals(1, second.getUniqueBugCombos());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.sarsa.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PhaseProfilerTest {
+
+    private final boolean wasEnabled = PhaseProfiler.isEnabled();
+    private final PhaseProfiler profiler = new PhaseProfiler();
+
+    @AfterEach
+    void restore() {
+        PhaseProfiler.setEnabled(wasEnabled);
+    }
+
+    @Test
+    void disabledReadsNoClockAndRecordsNothing() {
+        PhaseProfiler.setEnabled(false);
+        long t = profiler.start();
+        assertEquals(Long.MIN_VALUE, t);  // the sentinel, not a nanoTime
+        profiler.stop(Phase.STEP, t);
+        profiler.stop(Phase.STEP, t, 4);
+        profiler.add(Phase.TRANSPORT, 1_000);
+        profiler.add(Phase.TRANSPORT, 1_000, 4);
+
+        PhaseSnapshot window = profiler.snapshotAndReset();
+        assertTrue(window.isEmpty());
+        for (Phase phase : Phase.values()) {
+            assertEquals(0, window.nanos(phase));
+            assertEquals(0, window.calls(phase));
+        }
+    }
+
+    @Test
+    void enabledSumsNanosAndCalls() {
+        PhaseProfiler.setEnabled(true);
+        profiler.add(Phase.TRANSPORT, 600);
+        profiler.add(Phase.TRANSPORT, 900, 3);  // one batched round trip
+        profiler.add(Phase.MASK, 100);
+        long t = profiler.start();
+        profiler.stop(Phase.STEP, t, 4);
+        profiler.add(Phase.STEP, 2_000);
+
+        PhaseSnapshot window = profiler.snapshotAndReset();
+        assertFalse(window.isEmpty());
+        assertEquals(1_500, window.nanos(Phase.TRANSPORT));
+        assertEquals(4, window.calls(Phase.TRANSPORT));
+        assertEquals(0.375, window.avgMicros(Phase.TRANSPORT));
+        assertEquals(5, window.calls(Phase.STEP));
+        assertTrue(window.nanos(Phase.STEP) >= 2_000);
+        assertEquals(window.nanos(Phase.STEP) - 1_600, window.otherNanos());
+    }
+
+    @Test
+    void intervalSpanningASwitchIsDropped() {
+        PhaseProfiler.setEnabled(false);
+        long off = profiler.start();
+        PhaseProfiler.setEnabled(true);
+        profiler.stop(Phase.SELECT, off);  // started while disabled
+
+        long on = profiler.start();
+        PhaseProfiler.setEnabled(false);
+        profiler.stop(Phase.UPDATE, on);   // stopped while disabled
+
+        PhaseSnapshot window = profiler.snapshotAndReset();
+        assertEquals(0, window.calls(Phase.SELECT));
+        assertEquals(0, window.calls(Phase.UPDATE));
+    }
+
+    @Test
+    void snapshotStartsANewWindowAndUnsnapshottedTotalsCarryOver() {
+        PhaseProfiler.setEnabled(true);
+        profiler.add(Phase.STEP, 100);
+        PhaseSnapshot first = profiler.snapshotAndReset();
+        profiler.add(Phase.STEP, 200);
+        assertEquals(100, first.nanos(Phase.STEP));  // detached from the live totals
+
+        // No snapshot in between, as when AsyncReporter drops a window: it rolls into the next
+        profiler.add(Phase.STEP, 300);
+        PhaseSnapshot merged = profiler.snapshotAndReset();
+        assertEquals(500, merged.nanos(Phase.STEP));
+        assertEquals(2, merged.calls(Phase.STEP));
+        assertTrue(profiler.snapshotAndReset().isEmpty());
+    }
+}
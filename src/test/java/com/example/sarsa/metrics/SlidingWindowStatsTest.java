@@ -0,0 +1,64 @@
+package com.example.sarsa.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SlidingWindowStatsTest {
+
+    private final LongAdder[] live = new LongAdder[CounterLayout.size(4)];
+    private final DoubleAdder reward = new DoubleAdder();
+
+    SlidingWindowStatsTest() {
+        for (int i = 0; i < live.length; i++) {
+            live[i] = new LongAdder();
+        }
+    }
+
+    @Test
+    void windowIsTheSumOfItsLastEpochs() {
+        SlidingWindowStats stats = new SlidingWindowStats(5, live.length);
+        for (int epoch = 1; epoch <= 23; epoch++) {  // wraps the ring several times
+            closeEpoch(stats, epoch);
+            for (int k = 1; k <= stats.getMaxWindow(); k++) {
+                int from = Math.max(1, epoch - k + 1);
+                long expected = 0;
+                for (int e = from; e <= epoch; e++) expected += e;
+                WindowStats window = stats.window(k);
+                assertEquals(expected, window.getEpisodes(), "epoch " + epoch + ", k " + k);
+                assertEquals(expected / 2.0, window.getTotalReward(), 1e-9);
+            }
+        }
+        assertEquals(23, stats.getEpochs());
+    }
+
+    @Test
+    void windowIsCappedByRunAgeAndRing() {
+        SlidingWindowStats stats = new SlidingWindowStats(5, live.length);
+        assertEquals(0, stats.window(3).getEpisodes());
+        closeEpoch(stats, 4);
+        closeEpoch(stats, 6);
+        assertEquals(10, stats.window(50).getEpisodes());  // younger than the window
+
+        for (int epoch = 1; epoch <= 10; epoch++) {
+            closeEpoch(stats, 1);
+        }
+        assertEquals(stats.getMaxWindow(), stats.window(50).getEpisodes());  // capped at the ring
+    }
+
+    @Test
+    void rejectsRingsTooSmallForAWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowStats(2, live.length));
+    }
+
+    // An epoch of n episodes with reward 0.5 each
+    private void closeEpoch(SlidingWindowStats stats, int n) {
+        live[CounterLayout.EPISODES].add(n);
+        reward.add(n / 2.0);
+        stats.closeEpoch(live, reward);
+    }
+}
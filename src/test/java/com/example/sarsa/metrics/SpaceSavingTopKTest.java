@@ -0,0 +1,121 @@
+package com.example.sarsa.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTopKTest {
+
+    @Test
+    void countsAreExactWhileKeysFit() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(4);
+        offer(topK, 7, 7, 3, 7, 9, 3);
+
+        int[] keys = new int[4];
+        long[] counts = new long[4];
+        assertEquals(3, topK.top(keys, counts));
+        assertEquals(7, keys[0]);
+        assertEquals(3, keys[1]);
+        assertEquals(9, keys[2]);
+        assertArrayEquals(new long[]{3, 2, 1, 0}, counts);
+        assertEquals(0, topK.errorOf(7));
+        assertEquals(6, topK.getTotal());
+    }
+
+    @Test
+    void topStopsAtTheOutputLength() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(8);
+        offer(topK, 1, 1, 1, 2, 2, 3);
+        int[] keys = new int[2];
+        assertEquals(2, topK.top(keys, new long[2]));
+        assertArrayEquals(new int[]{1, 2}, keys);
+    }
+
+    @Test
+    void heavyHittersSurviveANoisyStream() {
+        int capacity = 8;
+        SpaceSavingTopK topK = new SpaceSavingTopK(capacity);
+        Map<Integer, Integer> truth = new HashMap<>();
+        Random rng = new Random(42);
+        int n = 20_000;
+        for (int i = 0; i < n; i++) {
+            int key = i % 4 == 0 ? 1 : 100 + rng.nextInt(1_000);  // 1 is above n / capacity
+            truth.merge(key, 1, Integer::sum);
+            topK.offer(key);
+        }
+
+        int[] keys = new int[capacity];
+        long[] counts = new long[capacity];
+        int tracked = topK.top(keys, counts);
+        long sum = 0;
+        for (int i = 0; i < tracked; i++) {
+            long actual = truth.get(keys[i]);
+            assertTrue(counts[i] >= actual, "never underestimates " + keys[i]);
+            assertTrue(counts[i] - topK.errorOf(keys[i]) <= actual, "error bound of " + keys[i]);
+            sum += counts[i];
+        }
+        assertEquals(n, sum);  // every offer lands on exactly one counter
+        assertEquals(1, keys[0]);
+    }
+
+    @Test
+    void keyTableSurvivesConstantReplacement() {
+        // A tiny table under heavy churn: every offer of a new key deletes one
+        // entry (backward shift) and inserts another into the same probe runs
+        int capacity = 4;
+        SpaceSavingTopK topK = new SpaceSavingTopK(capacity);
+        Random rng = new Random(7);
+        for (int i = 1; i <= 50_000; i++) {
+            int key = rng.nextInt(4) == 0 ? 3 : rng.nextInt(64) * 8;  // shared low bits collide
+            topK.offer(key);
+
+            int[] keys = new int[capacity];
+            long[] counts = new long[capacity];
+            int tracked = topK.top(keys, counts);
+            Set<Integer> distinct = new HashSet<>();
+            long sum = 0;
+            for (int j = 0; j < tracked; j++) {
+                // A lost table entry shows up as its key taking over a second counter
+                assertTrue(distinct.add(keys[j]), "key tracked twice: " + keys[j]);
+                sum += counts[j];
+            }
+            assertEquals(i, sum);
+        }
+    }
+
+    @Test
+    void clearStartsOver() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(2);
+        offer(topK, 1, 2, 3);
+        topK.clear();
+        assertTrue(topK.isEmpty());
+        assertEquals(0, topK.top(new int[2], new long[2]));
+
+        offer(topK, 5);
+        int[] keys = new int[2];
+        long[] counts = new long[2];
+        assertEquals(1, topK.top(keys, counts));
+        assertEquals(5, keys[0]);
+        assertEquals(1, counts[0]);
+    }
+
+    @Test
+    void rejectsEmptyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingTopK(0));
+    }
+
+    private static void offer(SpaceSavingTopK topK, int... keys) {
+        for (int key : keys) {
+            topK.offer(key);
+        }
+    }
+}
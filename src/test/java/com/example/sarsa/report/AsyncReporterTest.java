@@ -0,0 +1,81 @@
+package com.example.sarsa.report;
+
+import com.example.sarsa.metrics.AllocationProfiler;
+import com.example.sarsa.metrics.MetricsRegistry;
+import com.example.sarsa.metrics.PhaseProfiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncReporterTest {
+
+    private final MetricsRegistry metrics = new MetricsRegistry(4, 16, 2);
+    private final PhaseProfiler phases = new PhaseProfiler();
+    private final AllocationProfiler allocations = new AllocationProfiler();
+    private final List<Report> reports = new CopyOnWriteArrayList<>();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void reportCoversOnlyEpisodesUpToItsBoundary() throws Exception {
+        try (AsyncReporter reporter = new AsyncReporter(metrics, List.of(blockingSink()), 4)) {
+            episodes(3);
+            assertTrue(reporter.windowClosed(3, phases, allocations));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            episodes(5);  // while the reporter is still busy with the first window
+            release.countDown();
+            assertTrue(reporter.windowClosed(8, phases, allocations));
+        }
+        assertEquals(2, reports.size());
+        assertEquals(3, reports.get(0).getMetrics().getEpisodes());
+        assertEquals(5, reports.get(1).getMetrics().getEpisodes());
+    }
+
+    @Test
+    void windowDroppedOnAFullQueueRollsIntoTheNext() throws Exception {
+        try (AsyncReporter reporter = new AsyncReporter(metrics, List.of(blockingSink()), 1)) {
+            episodes(1);
+            reporter.windowClosed(1, phases, allocations);
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            episodes(2);
+            assertTrue(reporter.windowClosed(3, phases, allocations));   // fills the queue
+            episodes(4);
+            assertFalse(reporter.windowClosed(7, phases, allocations));  // merged into the next
+            assertEquals(1, reporter.getDropped());
+            release.countDown();
+            while (reports.size() < 2) {
+                Thread.onSpinWait();
+            }
+            episodes(8);
+            assertTrue(reporter.windowClosed(15, phases, allocations));
+        }
+        assertEquals(3, reports.size());
+        assertEquals(15, reports.get(2).getEpisode());
+        assertEquals(12, reports.get(2).getMetrics().getEpisodes());
+    }
+
+    private void episodes(int n) {
+        for (int i = 0; i < n; i++) {
+            metrics.recordEpisode(1.0, 0);
+        }
+    }
+
+    private ReportSink blockingSink() {
+        return report -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reports.add(report);
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.sarsa.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StrategyComboTest {
+
+    @Test
+    void everyComboRoundTrips() {
+        Set<Integer> codes = new HashSet<>();
+        for (HttpType h : HttpType.values()) {
+            for (Endpoint e : Endpoint.values()) {
+                for (Strategy s : Strategy.values()) {
+                    for (Field f : Field.values()) {
+                        for (Intensity i : Intensity.values()) {
+                            int code = StrategyCombo.encode(h, e, s, f, i);
+                            assertTrue(code >= 0 && code < StrategyCombo.SPACE, "in range: " + code);
+                            assertTrue(codes.add(code), "unique: " + code);
+                            assertEquals(h, StrategyCombo.httpType(code));
+                            assertEquals(e, StrategyCombo.endpoint(code));
+                            assertEquals(s, StrategyCombo.strategy(code));
+                            assertEquals(f, StrategyCombo.field(code));
+                            assertEquals(i, StrategyCombo.intensity(code));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void withoutIntensityKeepsTheRest() {
+        int code = StrategyCombo.encode(HttpType.POST, Endpoint.PRICES, Strategy.values()[1], Field.values()[2],
+                Intensity.values()[Intensity.values().length - 1]);
+        int key = StrategyCombo.withoutIntensity(code);
+        assertEquals(Intensity.values()[0], StrategyCombo.intensity(key));
+        assertEquals(StrategyCombo.toString(code), StrategyCombo.toString(key));
+    }
+
+    @Test
+    void labelsNoneAndRealCombos() {
+        assertEquals("NONE", StrategyCombo.label(StrategyCombo.NONE));
+        int code = StrategyCombo.encode(HttpType.DELETE, Endpoint.POINTS, Strategy.VALID, Field.ALL, Intensity.MILD);
+        assertEquals("DELETE+POINTS+VALID+ALL", StrategyCombo.label(code));
+    }
+
+    @Test
+    void decodersRejectNone() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> StrategyCombo.toString(StrategyCombo.NONE));
+        assertTrue(e.getMessage().contains("NONE"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> StrategyCombo.httpType(StrategyCombo.NONE));
+        assertThrows(IllegalArgumentException.class, () -> StrategyCombo.intensity(StrategyCombo.NONE));
+    }
+
+    @Test
+    void decodersRejectCodesOutsideTheEnums() {
+        assertThrows(IllegalArgumentException.class, () -> StrategyCombo.toString(StrategyCombo.SPACE));
+        assertThrows(IllegalArgumentException.class, () -> StrategyCombo.httpType(StrategyCombo.SPACE - 1));
+    }
+}